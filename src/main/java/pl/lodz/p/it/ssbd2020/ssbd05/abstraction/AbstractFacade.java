@@ -2,19 +2,43 @@ package pl.lodz.p.it.ssbd2020.ssbd05.abstraction;
 
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.ValidationException;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.FetchPlan;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.SharedCacheInvalidator;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.SimilarityQuery;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionLookupCache;
 
+import javax.annotation.Resource;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.Cacheable;
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
 import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
 import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * Klasa abstrakcyjnej fasady
+ * Klasa abstrakcyjnej fasady.
+ * Zmiany encji oznaczonych jako {@link Cacheable} unieważniane są po zatwierdzeniu transakcji
+ * w pamięciach podręcznych drugiego poziomu wszystkich jednostek trwałości.
  *
  * @param <T> Parametr typu encji
  */
@@ -23,6 +47,17 @@ public abstract class AbstractFacade<T> {
 
     private Class<T> entityClass;
 
+    private boolean cacheable;
+
+    @Resource
+    private Validator validator;
+
+    @Inject
+    private SharedCacheInvalidator sharedCacheInvalidator;
+
+    @Inject
+    private TransactionLookupCache transactionLookupCache;
+
     /**
      * Konstruktor bezparametrowy.
      *
@@ -30,6 +65,8 @@ public abstract class AbstractFacade<T> {
      */
     public AbstractFacade(Class<T> entityClass) {
         this.entityClass = entityClass;
+        Cacheable annotation = entityClass.getAnnotation(Cacheable.class);
+        this.cacheable = annotation != null && annotation.value();
     }
 
     /**
@@ -40,7 +77,6 @@ public abstract class AbstractFacade<T> {
     protected abstract EntityManager getEntityManager();
 
     private void validate(T entity) throws AppBaseException {
-        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
         Set<ConstraintViolation<T>> violations = validator.validate(entity);
         if(!violations.isEmpty()) {
             StringBuilder stringBuilder = new StringBuilder();
@@ -52,6 +88,14 @@ public abstract class AbstractFacade<T> {
         }
     }
 
+    private void invalidateCache(T entity) {
+        transactionLookupCache.clear();
+        if (cacheable) {
+            sharedCacheInvalidator.invalidateAfterCommit(entityClass,
+                    getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity));
+        }
+    }
+
     /**
      * Dodaj nowy obiekt encji.
      *
@@ -62,6 +106,22 @@ public abstract class AbstractFacade<T> {
         validate(entity);
         getEntityManager().persist(entity);
         getEntityManager().flush();
+        invalidateCache(entity);
+    }
+
+    /**
+     * Dodaj wiele nowych obiektów encji, opróżniając kontekst trwałości jednokrotnie po utrwaleniu wszystkich.
+     *
+     * @param entities Encje.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny.
+     */
+    protected void createAll(Collection<T> entities) throws AppBaseException {
+        for (T entity : entities) {
+            validate(entity);
+            getEntityManager().persist(entity);
+        }
+        getEntityManager().flush();
+        entities.forEach(this::invalidateCache);
     }
 
     /**
@@ -74,6 +134,7 @@ public abstract class AbstractFacade<T> {
         validate(entity);
         getEntityManager().merge(entity);
         getEntityManager().flush();
+        invalidateCache(entity);
     }
 
     /**
@@ -85,6 +146,7 @@ public abstract class AbstractFacade<T> {
     public void remove(T entity) throws AppBaseException {
         getEntityManager().remove(getEntityManager().merge(entity));
         getEntityManager().flush();
+        invalidateCache(entity);
     }
 
     /**
@@ -115,11 +177,217 @@ public abstract class AbstractFacade<T> {
      * @return Ilość obiektów.
      */
     public int count() {
-        javax.persistence.criteria.CriteriaQuery cq = getEntityManager().getCriteriaBuilder().createQuery();
-        javax.persistence.criteria.Root<T> rt = cq.from(entityClass);
-        cq.select(getEntityManager().getCriteriaBuilder().count(rt));
-        javax.persistence.Query q = getEntityManager().createQuery(cq);
-        return ((Long) q.getSingleResult()).intValue();
+        return count(null);
+    }
+
+    /**
+     * Pobierz ilość obiektów encji spełniających warunek.
+     *
+     * @param restriction Warunek zapytania lub null.
+     * @return Ilość obiektów.
+     */
+    protected int count(Restriction<T> restriction) {
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<T> root = cq.from(entityClass);
+        cq.select(cb.count(root));
+        if (restriction != null) {
+            cq.where(restriction.toPredicate(cb, root));
+        }
+        return getEntityManager().createQuery(cq).getSingleResult().intValue();
+    }
+
+    /**
+     * Pobierz stronę obiektów encji spełniających warunek, posortowanych według podanego atrybutu.
+     * Stronicowanie odbywa się po stronie bazy danych (OFFSET/LIMIT), a kolejność jest jednoznaczna
+     * dzięki dodatkowemu sortowaniu po identyfikatorze.
+     *
+     * @param restriction Warunek zapytania lub null.
+     * @param first       Indeks pierwszego obiektu.
+     * @param pageSize    Rozmiar strony.
+     * @param sortField   Ścieżka atrybutu sortowania (np. hall.name) lub null, aby sortować po identyfikatorze.
+     * @param ascending   Czy sortować rosnąco.
+     * @return Lista obiektów encji.
+     */
+    protected List<T> findRange(Restriction<T> restriction, int first, int pageSize, String sortField, boolean ascending) {
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> root = cq.from(entityClass);
+        cq.select(root);
+        if (restriction != null) {
+            cq.where(restriction.toPredicate(cb, root));
+        }
+        cq.orderBy(createOrder(cb, root, sortField, ascending));
+        return createListQuery(cq)
+                .setFirstResult(first)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    /**
+     * Pobierz stronę obiektów encji następujących po obiekcie wskazanym przez kursor (stronicowanie keyset).
+     * Zamiast pomijania wierszy zapytanie rozpoczyna odczyt od pozycji kursora w indeksie,
+     * dlatego koszt pobrania strony nie zależy od jej numeru. Wartości NULL traktowane są zgodnie z domyślnym
+     * porządkiem PostgreSQL: na końcu przy sortowaniu rosnącym i na początku przy malejącym.
+     *
+     * @param restriction   Warunek zapytania lub null.
+     * @param lastSortValue Wartość atrybutu sortowania ostatniego obiektu poprzedniej strony.
+     * @param lastId        Identyfikator ostatniego obiektu poprzedniej strony.
+     * @param pageSize      Rozmiar strony.
+     * @param sortField     Ścieżka atrybutu sortowania lub null, aby sortować po identyfikatorze.
+     * @param ascending     Czy sortować rosnąco.
+     * @return Lista obiektów encji.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected List<T> findRangeAfter(Restriction<T> restriction, Object lastSortValue, Object lastId, int pageSize,
+                                     String sortField, boolean ascending) {
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> root = cq.from(entityClass);
+        cq.select(root);
+        Path<Comparable> id = root.get(getIdAttributeName());
+        Predicate afterCursor = ascending ? cb.greaterThan(id, (Comparable) lastId) : cb.lessThan(id, (Comparable) lastId);
+        if (sortField != null) {
+            Path<Comparable> sortPath = getPath(root, sortField);
+            if (lastSortValue == null) {
+                afterCursor = ascending ? cb.and(cb.isNull(sortPath), afterCursor)
+                        : cb.or(cb.isNotNull(sortPath), cb.and(cb.isNull(sortPath), afterCursor));
+            } else {
+                Comparable value = (Comparable) lastSortValue;
+                Predicate afterValue = ascending ? cb.or(cb.greaterThan(sortPath, value), cb.isNull(sortPath))
+                        : cb.lessThan(sortPath, value);
+                afterCursor = cb.or(afterValue, cb.and(cb.equal(sortPath, value), afterCursor));
+            }
+        }
+        cq.where(restriction == null ? afterCursor : cb.and(restriction.toPredicate(cb, root), afterCursor));
+        cq.orderBy(createOrder(cb, root, sortField, ascending));
+        return createListQuery(cq)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    /**
+     * Pobierz identyfikatory obiektów encji pasujących do filtra, uporządkowane według podobieństwa trigramowego.
+     *
+     * @param similarityQuery Zapytanie przeszukujące kolumny tekstowe.
+     * @param filter          Filtr.
+     * @param limit           Maksymalna liczba wyników.
+     * @return Lista identyfikatorów w kolejności od najbardziej podobnego.
+     */
+    protected List<Long> findRankedIds(SimilarityQuery similarityQuery, String filter, int limit) {
+        List<?> ids = similarityQuery.bind(getEntityManager().createNativeQuery(similarityQuery.toSql()), filter, limit)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList());
+    }
+
+    /**
+     * Pobierz stronę obiektów encji o podanych identyfikatorach, zachowując kolejność listy identyfikatorów.
+     *
+     * @param rankedIds Uporządkowana lista identyfikatorów.
+     * @param first     Indeks pierwszego obiektu.
+     * @param pageSize  Rozmiar strony.
+     * @return Lista obiektów encji.
+     */
+    protected List<T> findRankedRange(List<Long> rankedIds, int first, int pageSize) {
+        if (first < 0 || first >= rankedIds.size()) {
+            return Collections.emptyList();
+        }
+        List<Long> pageIds = rankedIds.subList(first, Math.min(first + pageSize, rankedIds.size()));
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < pageIds.size(); i++) {
+            positions.put(pageIds.get(i), i);
+        }
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> root = cq.from(entityClass);
+        cq.select(root).where(idRestriction(pageIds).toPredicate(cb, root));
+        List<T> page = new ArrayList<>(createListQuery(cq).getResultList());
+        PersistenceUnitUtil persistenceUnitUtil = getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+        page.sort(Comparator.comparing(entity -> positions.get((Long) persistenceUnitUtil.getIdentifier(entity))));
+        return page;
+    }
+
+    /**
+     * Pobierz stronę obiektów encji następującą na liście identyfikatorów po obiekcie wskazanym przez kursor.
+     * Jeżeli obiektu nie ma już na liście, zwracana jest pusta strona.
+     *
+     * @param rankedIds Uporządkowana lista identyfikatorów.
+     * @param lastId    Identyfikator ostatniego obiektu poprzedniej strony.
+     * @param pageSize  Rozmiar strony.
+     * @return Lista obiektów encji.
+     */
+    protected List<T> findRankedRangeAfter(List<Long> rankedIds, Object lastId, int pageSize) {
+        int last = rankedIds.indexOf(lastId);
+        return last < 0 ? Collections.emptyList() : findRankedRange(rankedIds, last + 1, pageSize);
+    }
+
+    /**
+     * Utwórz warunek ograniczający wyniki do obiektów encji o podanych identyfikatorach.
+     *
+     * @param ids Identyfikatory.
+     * @return Warunek zapytania, niespełniony przez żaden obiekt dla pustej listy.
+     */
+    protected Restriction<T> idRestriction(Collection<Long> ids) {
+        return (cb, root) -> ids.isEmpty() ? cb.disjunction() : root.get(getIdAttributeName()).in(ids);
     }
 
+    /**
+     * Pobierz plan pobierania relacji encji wykorzystywany w zapytaniach stronicujących.
+     * Domyślnie relacje pobierane są zgodnie z mapowaniem encji.
+     *
+     * @return Plan pobierania lub null.
+     */
+    protected FetchPlan getFetchPlan() {
+        return null;
+    }
+
+    private TypedQuery<T> createListQuery(CriteriaQuery<T> cq) {
+        TypedQuery<T> query = getEntityManager().createQuery(cq);
+        FetchPlan fetchPlan = getFetchPlan();
+        return fetchPlan == null ? query : fetchPlan.applyTo(query);
+    }
+
+    private List<Order> createOrder(CriteriaBuilder cb, Root<T> root, String sortField, boolean ascending) {
+        List<Order> order = new ArrayList<>();
+        if (sortField != null) {
+            Path<?> sortPath = getPath(root, sortField);
+            order.add(ascending ? cb.asc(sortPath) : cb.desc(sortPath));
+        }
+        Path<?> id = root.get(getIdAttributeName());
+        order.add(ascending ? cb.asc(id) : cb.desc(id));
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <Y> Path<Y> getPath(Root<T> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return (Path<Y>) path;
+    }
+
+    private String getIdAttributeName() {
+        EntityType<T> entityType = getEntityManager().getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * Interfejs warunku zapytania budowanego za pomocą Criteria API,
+     * wykorzystywany przez metody stronicujące fasad dziedziczących.
+     *
+     * @param <T> Parametr typu encji
+     */
+    @FunctionalInterface
+    protected interface Restriction<T> {
+
+        /**
+         * Zbuduj warunek zapytania.
+         *
+         * @param cb   Obiekt klasy CriteriaBuilder.
+         * @param root Korzeń zapytania.
+         * @return Warunek zapytania.
+         */
+        Predicate toPredicate(CriteriaBuilder cb, Root<T> root);
+    }
 }
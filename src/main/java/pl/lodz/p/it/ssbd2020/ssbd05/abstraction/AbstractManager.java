@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.abstraction;
 
 import lombok.Getter;
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.PerformanceMetrics;
 
 import javax.annotation.Resource;
 import javax.ejb.EJBException;
@@ -56,6 +57,13 @@ abstract public class AbstractManager  {
     public void afterCompletion(boolean committed) throws EJBException, RemoteException {
         String login = sessionContext.getCallerPrincipal().getName();
         lastTransactionRollback = !committed;
+        PerformanceMetrics.recordTransaction(getManagerName(), committed);
         log.info("Transaction with ID: " + transactionId + " has been completed by: " + (committed?"commit":"rollback")+ " account: "+login);
     }
+
+    private String getManagerName() {
+        String name = getClass().getSimpleName();
+        int proxySuffix = name.indexOf('$');
+        return proxySuffix > 0 ? name.substring(0, proxySuffix) : name;
+    }
 }
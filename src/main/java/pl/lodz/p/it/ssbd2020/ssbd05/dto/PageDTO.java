@@ -0,0 +1,22 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa DTO zawierająca jedną stronę listy obiektów oraz liczbę wszystkich obiektów listy.
+ * Jej instancje są wykorzystywane w warstwie prezentacji.
+ *
+ * @param <T> Typ obiektów DTO
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class PageDTO<T> {
+
+    private List<T> content = new ArrayList<>();
+    private int totalCount;
+}
@@ -1,10 +1,12 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 import org.mapstruct.factory.Mappers;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.AverageGuestNumberDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.AverageGuestNumber;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.StatisticsAccumulator;
 
 /**
  * Interfejs konwertujący pomiędzy obiektami klas AverageGuestNumber i AverageGuestNumberDTO,
@@ -25,4 +27,14 @@ public interface AverageGuestNumberMapper {
      * @return Obiekt klasy AverageGuestNumberDTO.
      */
     AverageGuestNumberDTO toAverageGuestNumberDTO(AverageGuestNumber averageGuestNumber);
+
+    /**
+     * Metoda odpowiedzialna za konwersję z migawki łącznych statystyk zakończonych rezerwacji na AverageGuestNumberDTO.
+     *
+     * @param snapshot Migawka statystyk.
+     * @return Obiekt klasy AverageGuestNumberDTO.
+     */
+    @Mapping(source = "eventCount", target = "eventSum")
+    @Mapping(source = "guestMean", target = "average")
+    AverageGuestNumberDTO toAverageGuestNumberDTO(StatisticsAccumulator.Snapshot snapshot);
 }
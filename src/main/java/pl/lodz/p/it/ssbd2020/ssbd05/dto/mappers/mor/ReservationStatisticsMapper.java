@@ -0,0 +1,38 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationStatisticsDTO;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.StatisticsAccumulator;
+
+import java.util.List;
+
+/**
+ * Interfejs konwertujący migawki statystyk zakończonych rezerwacji na obiekty klasy ReservationStatisticsDTO,
+ * którego implementacja jest generowana poprzez bibliotekę MapStruct w trakcie kompilacji.
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ReservationStatisticsMapper {
+
+    /**
+     * Instancja implementacji interfejsu pobierana poprzez klasę narzędziową Mappers.
+     */
+    ReservationStatisticsMapper INSTANCE = Mappers.getMapper(ReservationStatisticsMapper.class);
+
+    /**
+     * Metoda odpowiedzialna za konwersję z migawki statystyk na ReservationStatisticsDTO.
+     *
+     * @param snapshot Migawka statystyk.
+     * @return Obiekt klasy ReservationStatisticsDTO.
+     */
+    ReservationStatisticsDTO toReservationStatisticsDTO(StatisticsAccumulator.Snapshot snapshot);
+
+    /**
+     * Metoda odpowiedzialna za konwersję listy migawek statystyk na listę obiektów ReservationStatisticsDTO.
+     *
+     * @param snapshots Lista migawek statystyk.
+     * @return Lista obiektów klasy ReservationStatisticsDTO.
+     */
+    List<ReservationStatisticsDTO> toReservationStatisticsDTOList(List<StatisticsAccumulator.Snapshot> snapshots);
+}
@@ -36,6 +36,14 @@ public interface AddressMapper {
      */
     Address createNewAddress(AddressDTO addressDTO);
 
+    /**
+     * Metoda odpowiedzialna za utworzenie kopii obiektu klasy AddressDTO.
+     *
+     * @param addressDTO Obiekt klasy AddressDTO.
+     * @return Kopia obiektu klasy AddressDTO.
+     */
+    AddressDTO copy(AddressDTO addressDTO);
+
     /**
      * Metoda odpowiedzialna za konwersję kolekcji obiektów klasy Address na kolekcję obiektów AddressDTO.
      *
@@ -49,6 +49,14 @@ public interface HallMapper {
      */
     void updateHallFromDTO(HallDTO hallDTO, @MappingTarget Hall hall);
 
+    /**
+     * Metoda odpowiedzialna za utworzenie kopii obiektu klasy HallDTO wraz z adresem i kolekcją typów imprez.
+     *
+     * @param hallDTO Obiekt klasy HallDTO.
+     * @return Kopia obiektu klasy HallDTO.
+     */
+    HallDTO copy(HallDTO hallDTO);
+
     /**
      * Metoda odpowiedzialna za konwersję kolekcji obiektów klasy Hall na kolekcję obiektów HallDTO.
      *
@@ -14,7 +14,7 @@ import lombok.NoArgsConstructor;
 public class AverageGuestNumberDTO {
     private Long guestSum;
     private Long eventSum;
-    private Long average;
+    private Double average;
 
     @Override
     public String toString() {
@@ -0,0 +1,29 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.dto.mor;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Klasa DTO reprezentująca statystyki zakończonych rezerwacji dla jednej sali lub jednego typu wydarzenia.
+ * Percentyle liczby gości i przychodu są przybliżone.
+ */
+@Data
+@NoArgsConstructor
+public class ReservationStatisticsDTO {
+    private String name;
+    private long eventCount;
+    private long guestSum;
+    private double guestMean;
+    private long guestMedian;
+    private long guestPercentile90;
+    private long guestPercentile99;
+    private double revenueSum;
+    private double revenueMean;
+    private double revenueMedian;
+    private double revenuePercentile90;
+
+    @Override
+    public String toString() {
+        return "pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationStatisticsDTO[name= " + name + " ]";
+    }
+}
@@ -19,7 +19,7 @@ import java.io.Serializable;
 })
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(discriminatorType = DiscriminatorType.STRING, name = "access_level")
-@TableGenerator(name = "AccessLevelIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", valueColumnName = "id_range", pkColumnValue = "access_level")
+@SequenceGenerator(name = "AccessLevelIdGen", schema = "ssbd05schema", sequenceName = "access_level_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "AccessLevel.findAll", query = "SELECT a FROM AccessLevel a"),
     @NamedQuery(name = "AccessLevel.findById", query = "SELECT a FROM AccessLevel a WHERE a.id = :id"),
@@ -31,7 +31,7 @@ public class AccessLevel implements Serializable {
 
     @Setter(lombok.AccessLevel.NONE)
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "AccessLevelIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AccessLevelIdGen")
     @Basic(optional = false)
     @Column(name = "id", nullable = false)
     private Long id;
@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.entities.mok;
 
 import lombok.Getter;
 import lombok.Setter;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.IdentifierGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -12,7 +13,8 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.UUID;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Klasa encyjna reprezentująca konta użytkownika.
@@ -29,7 +31,7 @@ import java.util.UUID;
                 @UniqueConstraint(columnNames = {"email"})
         })
 })
-@TableGenerator(name = "AccountIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", valueColumnName = "id_range", pkColumnValue = "account_login_data")
+@SequenceGenerator(name = "AccountIdGen", schema = "ssbd05schema", sequenceName = "account_login_data_id_seq", allocationSize = 100)
 @NamedQueries({
         @NamedQuery(name = "Account.findAll", query = "SELECT a FROM Account a"),
         @NamedQuery(name = "Account.findById", query = "SELECT a FROM Account a WHERE a.id = :id"),
@@ -53,7 +55,7 @@ public class Account implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "AccountIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AccountIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -152,7 +154,26 @@ public class Account implements Serializable {
     public Account() {
         this.active = true;
         this.forcePasswordChange = true;
-        this.veryficationToken = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    /**
+     * Metoda nadająca kontu nowy token weryfikacyjny. Wywoływana przy tworzeniu konta.
+     */
+    public void generateVeryficationToken() {
+        this.veryficationToken = IdentifierGenerator.randomToken();
+    }
+
+    /**
+     * Metoda zwracająca zbiór skrótów haseł używanych wcześniej przez konto.
+     *
+     * @return Zbiór skrótów haseł.
+     */
+    public Set<String> getPreviousPasswordHashes() {
+        Set<String> hashes = new HashSet<>();
+        for (PreviousPassword previousPassword : previousPasswordCollection) {
+            hashes.add(previousPassword.getPassword());
+        }
+        return hashes;
     }
 
     @Override
@@ -18,19 +18,20 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Table(name = "forgot_password_token", schema = "ssbd05schema")
-@TableGenerator(name = "ForgotPasswordTokenIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", valueColumnName = "id_range", pkColumnValue = "forgot_password_token")
+@SequenceGenerator(name = "ForgotPasswordTokenIdGen", schema = "ssbd05schema", sequenceName = "forgot_password_token_id_seq", allocationSize = 100)
 @NamedQueries({
         @NamedQuery(name = "ForgotPasswordToken.findAll", query = "SELECT f FROM ForgotPasswordToken f"),
         @NamedQuery(name = "ForgotPasswordToken.findById", query = "SELECT f FROM ForgotPasswordToken f WHERE f.id = :id"),
         @NamedQuery(name = "ForgotPasswordToken.findByExpireDate", query = "SELECT f FROM ForgotPasswordToken f WHERE f.expireDate = :expireDate"),
-        @NamedQuery(name = "ForgotPasswordToken.findByHash", query = "SELECT f FROM ForgotPasswordToken f WHERE f.hash = :hash")})
+        @NamedQuery(name = "ForgotPasswordToken.findByHash", query = "SELECT f FROM ForgotPasswordToken f WHERE f.hash = :hash"),
+        @NamedQuery(name = "ForgotPasswordToken.deleteByAccount", query = "DELETE FROM ForgotPasswordToken f WHERE f.account.id = :accountId")})
 public class ForgotPasswordToken implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ForgotPasswordTokenIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ForgotPasswordTokenIdGen")
     @Column(name = "id", nullable = false)
     @Setter(lombok.AccessLevel.NONE)
     private Long id;
@@ -0,0 +1,120 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.entities.mok;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Klasa encyjna reprezentująca wiadomość email oczekującą na wysłanie.
+ * Wiadomości zapisywane są w skrzynce nadawczej i wysyłane w tle, a w przypadku niepowodzenia
+ * ponawiane z rosnącym odstępem czasu.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "email_outbox", schema = "ssbd05schema")
+@SequenceGenerator(name = "OutboxEmailIdGen", schema = "ssbd05schema", sequenceName = "email_outbox_id_seq", allocationSize = 100)
+@NamedQueries({
+        @NamedQuery(name = "OutboxEmail.findAll", query = "SELECT o FROM OutboxEmail o"),
+        @NamedQuery(name = "OutboxEmail.findByIds", query = "SELECT o FROM OutboxEmail o WHERE o.id IN :ids ORDER BY o.nextAttempt, o.id"),
+        @NamedQuery(name = "OutboxEmail.deleteByIds", query = "DELETE FROM OutboxEmail o WHERE o.id IN :ids")})
+public class OutboxEmail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Basic(optional = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "OutboxEmailIdGen")
+    @Column(name = "id", nullable = false)
+    @Setter(lombok.AccessLevel.NONE)
+    private Long id;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Size(max = 255, message = "{validation.size}")
+    @Column(name = "recipient", nullable = false, updatable = false)
+    private String recipient;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Size(max = 255, message = "{validation.size}")
+    @Column(name = "subject", nullable = false, updatable = false)
+    private String subject;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "body", nullable = false, updatable = false, columnDefinition = "text")
+    private String body;
+
+    @Basic(optional = false)
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "next_attempt", nullable = false)
+    private LocalDateTime nextAttempt;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "creation_date", nullable = false, updatable = false)
+    private LocalDateTime creationDate;
+
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    @Basic(optional = false)
+    @Version
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 1")
+    private long version;
+
+    /**
+     * Konstruktor bezparametrowy klasy OutboxEmail.
+     */
+    public OutboxEmail() {
+    }
+
+    /**
+     * Konstruktor tworzący wiadomość gotową do natychmiastowego wysłania.
+     *
+     * @param recipient Adres odbiorcy.
+     * @param subject   Temat wiadomości.
+     * @param body      Treść wiadomości w formacie HTML.
+     */
+    public OutboxEmail(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.creationDate = LocalDateTime.now();
+        this.nextAttempt = creationDate;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof OutboxEmail)) {
+            return false;
+        }
+        OutboxEmail other = (OutboxEmail) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "pl.lodz.p.it.ssbd2020.ssbd05.OutboxEmail[ id=" + id + " version=" + version + " ]";
+    }
+}
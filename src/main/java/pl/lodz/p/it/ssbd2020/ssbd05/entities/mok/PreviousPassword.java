@@ -18,7 +18,7 @@ import java.io.Serializable;
 @Table(name = "password_history", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"password", "account_id"})
 })
-@TableGenerator(name = "PasswordHistoryIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", valueColumnName = "id_range", pkColumnValue = "password_history")
+@SequenceGenerator(name = "PasswordHistoryIdGen", schema = "ssbd05schema", sequenceName = "password_history_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "PreviousPassword.findAll", query = "SELECT p FROM PreviousPassword p"),
     @NamedQuery(name = "PreviousPassword.findById", query = "SELECT p FROM PreviousPassword p WHERE p.id = :id"),
@@ -31,7 +31,7 @@ public class PreviousPassword implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "PasswordHistoryIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PasswordHistoryIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -14,13 +14,17 @@ import javax.validation.constraints.NotNull;
 @Setter
 @Entity
 @Table(name = "average_guest_number", schema = "ssbd05schema")
-@TableGenerator(name = "AverageGuestNumberIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "average_guest_number", valueColumnName = "id_range")
+@SequenceGenerator(name = "AverageGuestNumberIdGen", schema = "ssbd05schema", sequenceName = "average_guest_number_id_seq", allocationSize = 100)
 @NamedQueries({
         @NamedQuery(name = "AverageGuestNumber.findAll", query = "SELECT a FROM AverageGuestNumber a"),
         @NamedQuery(name = "AverageGuestNumber.findById", query = "SELECT a FROM AverageGuestNumber a WHERE a.id = :id"),
         @NamedQuery(name = "AverageGuestNumber.findByGuestSum", query = "SELECT a FROM AverageGuestNumber a WHERE a.guestSum = :guestSum"),
         @NamedQuery(name = "AverageGuestNumber.findByEventSum", query = "SELECT a FROM AverageGuestNumber a WHERE a.eventSum = :eventSum"),
-        @NamedQuery(name = "AverageGuestNumber.findByAverage", query = "SELECT a FROM AverageGuestNumber a WHERE a.average = :average")})
+        @NamedQuery(name = "AverageGuestNumber.findByAverage", query = "SELECT a FROM AverageGuestNumber a WHERE a.average = :average"),
+        @NamedQuery(name = "AverageGuestNumber.addDelta", query = "UPDATE AverageGuestNumber a SET a.eventSum = a.eventSum + :events, a.guestSum = a.guestSum + :guests," +
+                " a.average = (2 * (a.guestSum + :guests) + a.eventSum + :events) / (2 * (a.eventSum + :events)), a.version = a.version + 1"),
+        @NamedQuery(name = "AverageGuestNumber.setTotals", query = "UPDATE AverageGuestNumber a SET a.eventSum = :events, a.guestSum = :guests," +
+                " a.average = :average, a.version = a.version + 1")})
 public class AverageGuestNumber {
 
     private static final long serialVersionUID = 1L;
@@ -28,7 +32,7 @@ public class AverageGuestNumber {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "AverageGuestNumberIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AverageGuestNumberIdGen")
     @Column(name = "id", nullable = false, insertable = false)
     private Long id;
 
@@ -2,6 +2,8 @@ package pl.lodz.p.it.ssbd2020.ssbd05.entities.mor;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.Digits;
@@ -16,25 +18,28 @@ import java.io.Serializable;
 @Getter
 @Setter
 @Entity
+@Cacheable
 @Table(name = "extra_service", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"service_name"})
 })
-@TableGenerator(name = "ExtraServiceIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "extra_service", valueColumnName = "id_range")
+@SequenceGenerator(name = "ExtraServiceIdGen", schema = "ssbd05schema", sequenceName = "extra_service_id_seq", allocationSize = 100)
 @NamedQueries({
         @NamedQuery(name = "ExtraService.findAll", query = "SELECT e FROM ExtraService e"),
         @NamedQuery(name = "ExtraService.findById", query = "SELECT e FROM ExtraService e WHERE e.id = :id"),
         @NamedQuery(name = "ExtraService.findByDescription", query = "SELECT e FROM ExtraService e WHERE e.description = :description"),
         @NamedQuery(name = "ExtraService.findByPrice", query = "SELECT e FROM ExtraService e WHERE e.price = :price"),
-        @NamedQuery(name = "ExtraService.findByServiceName", query = "SELECT e FROM ExtraService e WHERE e.serviceName = :serviceName"),
+        @NamedQuery(name = "ExtraService.findByServiceName", query = "SELECT e FROM ExtraService e WHERE e.serviceName = :serviceName",
+                hints = @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE)),
+        @NamedQuery(name = "ExtraService.findByServiceNames", query = "SELECT e FROM ExtraService e WHERE e.serviceName IN :serviceNames"),
         @NamedQuery(name = "ExtraService.findByActive", query = "SELECT e FROM ExtraService e WHERE e.active = :active")})
-public class ExtraService implements Serializable, Comparable<ExtraService> {
+public class ExtraService implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ExtraServiceIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ExtraServiceIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -58,7 +63,6 @@ public class ExtraService implements Serializable, Comparable<ExtraService> {
     @Column(name = "service_name", nullable = false, length = 32, unique = true)
     private String serviceName;
 
-    @Getter(lombok.AccessLevel.NONE)
     @Setter(lombok.AccessLevel.NONE)
     @Basic(optional = false)
     @Version
@@ -100,17 +104,4 @@ public class ExtraService implements Serializable, Comparable<ExtraService> {
     public String toString() {
         return "pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService[ id=" + id + " version=" + version + " ]";
     }
-
-    @Override
-    public int compareTo(ExtraService o) {
-        if(!this.serviceName.equals(o.getServiceName()) ||
-            !this.description.equals(o.getDescription()) ||
-            this.active != o.isActive() ||
-            this.price != o.getPrice()) {
-            return 1;
-        } else {
-            return 0;
-        }
-    }
-
 }
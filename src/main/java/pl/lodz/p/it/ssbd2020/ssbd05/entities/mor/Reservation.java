@@ -14,7 +14,6 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.UUID;
 
 /**
  * Klasa encyjna reprezentująca rezerwację złożoną na salę przez klienta
@@ -25,7 +24,7 @@ import java.util.UUID;
 @Table(name = "reservation", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"reservation_number"})
 })
-@TableGenerator(name = "ReservationIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "reservation", valueColumnName = "id_range")
+@SequenceGenerator(name = "ReservationIdGen", schema = "ssbd05schema", sequenceName = "reservation_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "Reservation.findAll", query = "SELECT r FROM Reservation r"),
     @NamedQuery(name = "Reservation.findById", query = "SELECT r FROM Reservation r WHERE r.id = :id"),
@@ -35,6 +34,17 @@ import java.util.UUID;
     @NamedQuery(name = "Reservation.findByTotalPrice", query = "SELECT r FROM Reservation r WHERE r.totalPrice = :totalPrice"),
     @NamedQuery(name = "Reservation.findByReservationNumber", query = "SELECT r FROM Reservation r WHERE r.reservationNumber = :reservationNumber"),
     @NamedQuery(name = "Reservation.findByGuestsNumber", query = "SELECT r FROM Reservation r WHERE r.guestsNumber = :guestsNumber"),
+    @NamedQuery(name = "Reservation.findEndedByStatusNames", query = "SELECT r.id FROM Reservation r WHERE r.endDate < :now AND r.status.statusName IN :statusNames ORDER BY r.id"),
+    @NamedQuery(name = "Reservation.findSummariesByIds", query = "SELECT r.reservationNumber, r.client.account.email, r.guestsNumber, r.totalPrice," +
+                                                                                                     " r.hall.id, r.hall.name, r.eventType.id, r.eventType.typeName FROM Reservation r WHERE r.id IN :ids ORDER BY r.id"),
+    @NamedQuery(name = "Reservation.findStatisticsByStatusName", query = "SELECT r.guestsNumber, r.totalPrice, r.hall.id, r.hall.name, r.eventType.id, r.eventType.typeName" +
+                                                                                                     " FROM Reservation r WHERE r.status.statusName = :statusName"),
+    @NamedQuery(name = "Reservation.updateStatusByIds", query = "UPDATE Reservation r SET r.status = :status, r.version = r.version + 1 WHERE r.id IN :ids"),
+    @NamedQuery(name = "Reservation.findSlotsByStatusNameNot", query = "SELECT r.id, r.hall.id, r.startDate, r.endDate FROM Reservation r WHERE r.status.statusName <> :statusName"),
+    @NamedQuery(name = "Reservation.findUnavailableDatesOnHall", query = "SELECT NEW pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.UnavailableDate(r.startDate, r.endDate) FROM Reservation r" +
+                                                                                                     " WHERE r.hall.name = :hallName AND r.status.statusName <> :statusName AND r.startDate < :to AND r.endDate > :from"),
+    @NamedQuery(name = "Reservation.countOverlappingOnHall", query = "SELECT COUNT(r) FROM Reservation r WHERE r.hall.id = :hallId AND r.id <> :id" +
+                                                                                                     " AND r.status.statusName <> :statusName AND r.startDate < :endDate AND r.endDate > :startDate"),
     @NamedQuery(name = "Reservation.filterByLoginAndNames", query = "SELECT r FROM Reservation r WHERE lower(r.client.account.firstname) like concat('%',lower(:filter),'%')" +
                                                                                                      " or lower(r.client.account.lastname) like concat('%',lower(:filter),'%') " +
                                                                                                      " or lower(r.reservationNumber) like concat('%',lower(:filter),'%') " +
@@ -47,7 +57,7 @@ public class Reservation implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ReservationIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ReservationIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -119,9 +129,9 @@ public class Reservation implements Serializable {
 
     /**
      * Konstruktor bezparametrowy klasy Reservation.
+     * Numer rezerwacji nadawany jest przy jej tworzeniu, a nie przy każdym wczytaniu encji z bazy danych.
      */
     public Reservation() {
-        this.reservationNumber = UUID.randomUUID().toString().replace("-", "");
     }
 
     @Override
@@ -0,0 +1,114 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.entities.mor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+
+/**
+ * Klasa encyjna reprezentująca agregat statystyk zakończonych rezerwacji w jednym wymiarze, np. dla jednej sali
+ * lub jednego typu wydarzenia. Przechowuje liczbę wydarzeń, łączną liczbę gości oraz łączny przychód w groszach.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "reservation_statistics", schema = "ssbd05schema",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"dimension", "dimension_id"}))
+@SequenceGenerator(name = "ReservationStatisticsIdGen", schema = "ssbd05schema", sequenceName = "reservation_statistics_id_seq", allocationSize = 100)
+@NamedQueries({
+        @NamedQuery(name = "ReservationStatistics.findAll", query = "SELECT s FROM ReservationStatistics s"),
+        @NamedQuery(name = "ReservationStatistics.addDelta", query = "UPDATE ReservationStatistics s SET s.eventCount = s.eventCount + :events," +
+                " s.guestSum = s.guestSum + :guests, s.revenueSum = s.revenueSum + :revenue, s.version = s.version + 1" +
+                " WHERE s.dimension = :dimension AND s.dimensionId = :dimensionId"),
+        @NamedQuery(name = "ReservationStatistics.setTotals", query = "UPDATE ReservationStatistics s SET s.eventCount = :events," +
+                " s.guestSum = :guests, s.revenueSum = :revenue, s.version = s.version + 1" +
+                " WHERE s.dimension = :dimension AND s.dimensionId = :dimensionId")})
+public class ReservationStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Basic(optional = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ReservationStatisticsIdGen")
+    @Column(name = "id", nullable = false)
+    @Setter(lombok.AccessLevel.NONE)
+    private Long id;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Size(max = 16, message = "{validation.size}")
+    @Column(name = "dimension", nullable = false, updatable = false, length = 16)
+    private String dimension;
+
+    @Basic(optional = false)
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "dimension_id", nullable = false, updatable = false)
+    private Long dimensionId;
+
+    @Basic(optional = false)
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Basic(optional = false)
+    @Column(name = "guest_sum", nullable = false)
+    private long guestSum;
+
+    @Basic(optional = false)
+    @Column(name = "revenue_sum", nullable = false)
+    private long revenueSum;
+
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    @Basic(optional = false)
+    @Version
+    @NotNull(message = "{validation.notnull}")
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 1")
+    private long version;
+
+    /**
+     * Konstruktor bezparametrowy klasy ReservationStatistics.
+     */
+    public ReservationStatistics() {
+    }
+
+    /**
+     * Konstruktor tworzący agregat o podanych wartościach początkowych.
+     *
+     * @param dimension   Wymiar agregatu, np. "hall".
+     * @param dimensionId Identyfikator obiektu w danym wymiarze, np. identyfikator sali.
+     * @param eventCount  Liczba wydarzeń.
+     * @param guestSum    Łączna liczba gości.
+     * @param revenueSum  Łączny przychód w groszach.
+     */
+    public ReservationStatistics(String dimension, Long dimensionId, long eventCount, long guestSum, long revenueSum) {
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.eventCount = eventCount;
+        this.guestSum = guestSum;
+        this.revenueSum = revenueSum;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ReservationStatistics)) {
+            return false;
+        }
+        ReservationStatistics other = (ReservationStatistics) object;
+        return (this.id != null || other.id == null) && (this.id == null || this.id.equals(other.id));
+    }
+
+    @Override
+    public String toString() {
+        return "pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ReservationStatistics[ id=" + id + " version=" + version + " ]";
+    }
+}
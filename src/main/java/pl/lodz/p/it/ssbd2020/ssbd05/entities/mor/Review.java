@@ -9,7 +9,6 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 /**
  * Klasa encyjna reprezentująca recenzję wystawioną przez klienta.
@@ -20,7 +19,7 @@ import java.util.UUID;
 @Table(name = "review", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"review_number"})
 })
-@TableGenerator(name = "ReviewIdGen", table = "id_generator", schema = "ssbd05schema",  pkColumnName = "class_name", pkColumnValue = "review", valueColumnName = "id_range")
+@SequenceGenerator(name = "ReviewIdGen", schema = "ssbd05schema", sequenceName = "review_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "Review.findAll", query = "SELECT r FROM Review r"),
     @NamedQuery(name = "Review.findById", query = "SELECT r FROM Review r WHERE r.id = :id"),
@@ -35,7 +34,7 @@ public class Review implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ReviewIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ReviewIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -76,9 +75,9 @@ public class Review implements Serializable {
 
     /**
      * Konstruktor bezparametrowy klasy Review.
+     * Numer opinii nadawany jest przy jej tworzeniu, a nie przy każdym wczytaniu encji z bazy danych.
      */
     public Review() {
-        this.reviewNumber = UUID.randomUUID().toString().replace("-", "");
     }
 
     @Override
@@ -2,6 +2,8 @@ package pl.lodz.p.it.ssbd2020.ssbd05.entities.mor;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -14,14 +16,16 @@ import java.io.Serializable;
 @Getter
 @Setter
 @Entity
+@Cacheable
 @Table(name = "status", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"status_name"})
 })
-@TableGenerator(name = "StatusIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "status", valueColumnName = "id_range")
+@SequenceGenerator(name = "StatusIdGen", schema = "ssbd05schema", sequenceName = "status_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "Status.findAll", query = "SELECT s FROM Status s"),
     @NamedQuery(name = "Status.findById", query = "SELECT s FROM Status s WHERE s.id = :id"),
-    @NamedQuery(name = "Status.findByStatusName", query = "SELECT s FROM Status s WHERE s.statusName = :statusName")
+    @NamedQuery(name = "Status.findByStatusName", query = "SELECT s FROM Status s WHERE s.statusName = :statusName",
+            hints = @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE))
 })
 public class Status implements Serializable {
 
@@ -30,7 +34,7 @@ public class Status implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "StatusIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "StatusIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -15,10 +15,11 @@ import java.io.Serializable;
 @Getter
 @Setter
 @Entity
+@Cacheable
 @Table(name = "address", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"city", "street", "street_no"})
 })
-@TableGenerator(name = "AddressIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "address", valueColumnName = "id_range")
+@SequenceGenerator(name = "AddressIdGen", schema = "ssbd05schema", sequenceName = "address_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "Address.findAll", query = "SELECT a FROM Address a"),
     @NamedQuery(name = "Address.findById", query = "SELECT a FROM Address a WHERE a.id = :id"),
@@ -34,7 +35,7 @@ public class Address implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "AddressIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AddressIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
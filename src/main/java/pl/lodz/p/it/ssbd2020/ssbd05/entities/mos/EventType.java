@@ -2,6 +2,8 @@ package pl.lodz.p.it.ssbd2020.ssbd05.entities.mos;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -14,14 +16,16 @@ import java.io.Serializable;
 @Getter
 @Setter
 @Entity
+@Cacheable
 @Table(name = "event_types", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"type_name"})
 })
-@TableGenerator(name = "EventTypesIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "event_types", valueColumnName = "id_range")
+@SequenceGenerator(name = "EventTypesIdGen", schema = "ssbd05schema", sequenceName = "event_types_id_seq", allocationSize = 100)
 @NamedQueries({
     @NamedQuery(name = "EventTypes.findAll", query = "SELECT e FROM EventType e"),
     @NamedQuery(name = "EventTypes.findById", query = "SELECT e FROM EventType e WHERE e.id = :id"),
-    @NamedQuery(name = "EventTypes.findByTypeName", query = "SELECT e FROM EventType e WHERE e.typeName = :typeName")
+    @NamedQuery(name = "EventTypes.findByTypeName", query = "SELECT e FROM EventType e WHERE e.typeName = :typeName",
+            hints = @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE))
 })
 public class EventType implements Serializable {
 
@@ -30,7 +34,7 @@ public class EventType implements Serializable {
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "EventTypesIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "EventTypesIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -2,6 +2,9 @@ package pl.lodz.p.it.ssbd2020.ssbd05.entities.mos;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.persistence.annotations.Noncacheable;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
 
 import javax.persistence.*;
@@ -18,32 +21,36 @@ import java.util.Collection;
 @Getter
 @Setter
 @Entity
+@Cacheable
 @Table(name = "hall", schema = "ssbd05schema", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"name"})
 })
-@TableGenerator(name = "HallIdGen", table = "id_generator", schema = "ssbd05schema", pkColumnName = "class_name", pkColumnValue = "hall", valueColumnName = "id_range")
+@SequenceGenerator(name = "HallIdGen", schema = "ssbd05schema", sequenceName = "hall_id_seq", allocationSize = 100)
 @NamedQueries({
         @NamedQuery(name = "Hall.findAll", query = "SELECT h FROM Hall h"),
         @NamedQuery(name = "Hall.findById", query = "SELECT h FROM Hall h WHERE h.id = :id"),
-        @NamedQuery(name = "Hall.findByName", query = "SELECT h FROM Hall h WHERE h.name = :name"),
+        @NamedQuery(name = "Hall.findByName", query = "SELECT h FROM Hall h WHERE h.name = :name",
+                hints = @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE)),
         @NamedQuery(name = "Hall.findByCapacity", query = "SELECT h FROM Hall h WHERE h.capacity = :capacity"),
         @NamedQuery(name = "Hall.findByActive", query = "SELECT h FROM Hall h WHERE h.active = :active"),
         @NamedQuery(name = "Hall.findByArea", query = "SELECT h FROM Hall h WHERE h.area = :area"),
         @NamedQuery(name = "Hall.findByDescription", query = "SELECT h FROM Hall h WHERE h.description = :description"),
         @NamedQuery(name = "Hall.findByPrice", query = "SELECT h FROM Hall h WHERE h.price = :price"),
+        @NamedQuery(name = "Hall.findActiveByMinCapacityAndEventType", query = "SELECT DISTINCT h FROM Hall h JOIN h.event_type e" +
+                " WHERE h.active = true AND h.capacity >= :capacity AND e.typeName = :eventTypeName"),
         @NamedQuery(name = "Hall.filterByNameAndAddress", query = "SELECT h FROM Hall h WHERE LOWER(h.name) LIKE CONCAT('%', LOWER(:filter), '%')" +
                 "OR LOWER(h.address.street) LIKE CONCAT('%', LOWER(:filter), '%')" +
                 "OR LOWER(h.address.city) LIKE CONCAT('%', LOWER(:filter), '%')")
 
 })
-public class Hall implements Serializable, Comparable<Hall> {
+public class Hall implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Setter(lombok.AccessLevel.NONE)
     @Id
     @Basic(optional = false)
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "HallIdGen")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "HallIdGen")
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -83,7 +90,6 @@ public class Hall implements Serializable, Comparable<Hall> {
     @Digits(integer = 7, fraction = 2, message = "{validation.digits}")
     private double price;
 
-    @Getter(lombok.AccessLevel.NONE)
     @Setter(lombok.AccessLevel.NONE)
     @Basic(optional = false)
     @Version
@@ -100,6 +106,7 @@ public class Hall implements Serializable, Comparable<Hall> {
     @ManyToOne(cascade = {CascadeType.DETACH}, optional = false)
     private Address address;
 
+    @Noncacheable
     @OneToMany(mappedBy = "hall")
     private Collection<Reservation> reservationCollection = new ArrayList<>();
 
@@ -133,24 +140,4 @@ public class Hall implements Serializable, Comparable<Hall> {
     public String toString() {
         return "pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall[ id=" + id + " version=" + version + " ]";
     }
-
-    @Override
-    public int compareTo(Hall o) {
-        if(this.capacity != o.getCapacity() ||
-            this.price != o.getPrice() ||
-            this.active != (o.isActive() ||
-            this.area != o.getArea()) ||
-            !this.name.equals(o.getName()) ||
-            !this.description.equals(o.getDescription())) {
-            return 1;
-        } else {
-            if (this.event_type.size() == o.getEvent_type().size()) {
-                for (EventType eventType : this.event_type) {
-                    if(!o.getEvent_type().contains(eventType))
-                        return 1;
-                }
-            } else return 1;
-        }
-        return 0;
-    }
-}
\ No newline at end of file
+}
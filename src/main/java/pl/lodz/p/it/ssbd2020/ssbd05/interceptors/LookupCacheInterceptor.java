@@ -0,0 +1,29 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.interceptors;
+
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionLookupCache;
+
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.InvocationContext;
+
+/**
+ * Klasa, której instancje przechwytują wywołania metod fasad wyszukujących pojedynczą encję
+ * i zwracają wyniki zapamiętane w bieżącej transakcji przez {@link TransactionLookupCache}.
+ */
+public class LookupCacheInterceptor {
+
+    @Inject
+    private TransactionLookupCache transactionLookupCache;
+
+    /**
+     * Zwróć zapamiętany wynik wywołania metody wyszukującej lub wykonaj wywołanie.
+     *
+     * @param invocationContext Kontekst wywołania.
+     * @return Wynik wywołania metody.
+     * @throws Exception wyjątek napotkany przy wywołaniu danej metody.
+     */
+    @AroundInvoke
+    public Object cachedLookup(InvocationContext invocationContext) throws Exception {
+        return transactionLookupCache.lookup(invocationContext);
+    }
+}
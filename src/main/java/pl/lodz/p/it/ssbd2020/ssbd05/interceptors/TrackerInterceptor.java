@@ -1,19 +1,64 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.interceptors;
 
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.AsyncRingBufferHandler;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.PerformanceMetrics;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
 
 import javax.annotation.Resource;
 import javax.ejb.SessionContext;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.InvocationContext;
+import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Klasa, której instancje przechwytują wywołania metod biznesowych.
+ * Sposób śledzenia określa plik config.tracking.properties: śledzenie można wyłączyć, wybrać poziom logowania
+ * udanych wywołań, część wywołań do zalogowania oraz maksymalną długość opisu parametrów i wyniku.
+ * Komunikat budowany jest wyłącznie wtedy, gdy zostanie zapisany w dzienniku.
+ * Niezależnie od śledzenia czas wykonania każdej metody może być rejestrowany w {@link PerformanceMetrics}.
  */
 @Log
 public class TrackerInterceptor {
 
+    private static final boolean ENABLED;
+    private static final boolean METRICS;
+    private static final Level LEVEL;
+    private static final double SAMPLE_RATE;
+    private static final int MAX_VALUE_LENGTH;
+    private static final boolean ASYNC;
+    private static final int ASYNC_BUFFER_SIZE;
+
+    private static AsyncRingBufferHandler asyncHandler;
+
+    static {
+        Properties properties = new Properties();
+        try {
+            properties = ResourceBundles.loadProperties("config.tracking.properties");
+        } catch (AppBaseException e) {
+            log.warning("Tracking configuration could not be loaded, default values will be used");
+        }
+        ENABLED = Boolean.parseBoolean(properties.getProperty("trackerEnabled", "true").trim());
+        METRICS = Boolean.parseBoolean(properties.getProperty("trackerMetrics", "true").trim());
+        LEVEL = Level.parse(properties.getProperty("trackerLevel", "FINE").trim());
+        SAMPLE_RATE = Double.parseDouble(properties.getProperty("trackerSampleRate", "1.0").trim());
+        MAX_VALUE_LENGTH = Integer.parseInt(properties.getProperty("trackerMaxValueLength", "200").trim());
+        ASYNC = Boolean.parseBoolean(properties.getProperty("trackerAsync", "true").trim());
+        ASYNC_BUFFER_SIZE = Integer.parseInt(properties.getProperty("trackerAsyncBufferSize", "1024").trim());
+    }
+
     @Resource
     private SessionContext sessionContext;
 
@@ -26,43 +71,128 @@ public class TrackerInterceptor {
      */
     @AroundInvoke
     public Object traceInvoke(InvocationContext invocationContext) throws Exception {
-        LocalDateTime interceptionTime = LocalDateTime.now();
+        if (!ENABLED && !METRICS) {
+            return invocationContext.proceed();
+        }
+        boolean traced = ENABLED && log.isLoggable(LEVEL)
+                && (SAMPLE_RATE >= 1.0 || ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE);
+        LocalDateTime interceptionTime = traced ? LocalDateTime.now() : null;
+        long start = METRICS ? System.nanoTime() : 0;
+        Object result;
+        try {
+            result = invocationContext.proceed();
+        } catch (Exception e) {
+            if (METRICS) {
+                PerformanceMetrics.recordInvocation(invocationContext.getTarget().getClass(), invocationContext.getMethod(),
+                        System.nanoTime() - start, true);
+            }
+            if (ENABLED && log.isLoggable(Level.SEVERE)) {
+                StringBuilder message = describeInvocation(invocationContext, interceptionTime);
+                message.append(" With exception: ").append(e);
+                logInvocation(Level.SEVERE, invocationContext.getMethod(), message);
+            }
+            throw e;
+        }
+        if (METRICS) {
+            PerformanceMetrics.recordInvocation(invocationContext.getTarget().getClass(), invocationContext.getMethod(),
+                    System.nanoTime() - start, false);
+        }
+        if (traced) {
+            StringBuilder message = describeInvocation(invocationContext, interceptionTime);
+            message.append(" Returned value: ");
+            appendValue(message, result);
+            logInvocation(LEVEL, invocationContext.getMethod(), message);
+        }
+        return result;
+    }
+
+    private StringBuilder describeInvocation(InvocationContext invocationContext, LocalDateTime interceptionTime) {
+        Method method = invocationContext.getMethod();
         StringBuilder message = new StringBuilder("Intercepted method invocation: ");
-        message.append(invocationContext.getMethod().toString());
-        message.append(" Interception time: ").append(interceptionTime);
+        message.append(method.getDeclaringClass().getSimpleName()).append('.').append(method.getName());
+        if (interceptionTime != null) {
+            message.append(" Interception time: ").append(interceptionTime);
+        }
         message.append(" User: ").append(sessionContext.getCallerPrincipal().getName());
         message.append(" With parameters: ");
-
-        if (invocationContext.getParameters() != null) {
-            for (Object param : invocationContext.getParameters()) {
-                if (null == param) {
-                    message.append("null ");
-                } else {
-                    message.append(param.toString()).append(", ");
+        if (invocationContext.getParameters() == null) {
+            message.append("null");
+        } else {
+            Object[] parameters = invocationContext.getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                if (i > 0) {
+                    message.append(", ");
                 }
+                appendValue(message, parameters[i]);
             }
         }
-        else {
-            message.append("null ");
+        return message;
+    }
+
+    /**
+     * Metoda dopisująca do komunikatu opis wartości. Kolekcje i mapy opisywane są wyłącznie typem i rozmiarem,
+     * a opisy pozostałych obiektów skracane do skonfigurowanej długości.
+     *
+     * @param message Budowany komunikat.
+     * @param value   Opisywana wartość.
+     */
+    static void appendValue(StringBuilder message, Object value) {
+        if (value == null) {
+            message.append("null");
+        } else if (value instanceof Collection) {
+            message.append(value.getClass().getSimpleName()).append("[size=").append(((Collection<?>) value).size()).append(']');
+        } else if (value instanceof Map) {
+            message.append(value.getClass().getSimpleName()).append("[size=").append(((Map<?, ?>) value).size()).append(']');
+        } else {
+            String text = value.toString();
+            if (text.length() > MAX_VALUE_LENGTH) {
+                message.append(text, 0, MAX_VALUE_LENGTH).append("...");
+            } else {
+                message.append(text);
+            }
         }
+    }
 
-        Object result;
-        try {
-            result = invocationContext.proceed();
-        }catch (Exception e) {
-            message.append("With exception: ");
-            message.append(TrackerInterceptor.class.getName()).append(" ");
-            message.append(e);
-            log.severe(message.toString());
-            throw e;
+    private static void logInvocation(Level level, Method method, StringBuilder message) {
+        log.logp(level, method.getDeclaringClass().getName(), method.getName(), message.toString());
+    }
+
+    /**
+     * Metoda przełączająca dziennik zdarzeń interceptora na asynchroniczny zapis przez bufor cykliczny.
+     * Wpisy przekazywane są do handlerów, z których dotychczas korzystał dziennik.
+     *
+     * @param threadFactory Fabryka wątku przekazującego wpisy.
+     */
+    static synchronized void installAsyncHandler(ThreadFactory threadFactory) {
+        if (!ENABLED || !ASYNC || asyncHandler != null) {
+            return;
         }
-            message.append(" Returned value: ");
-            if (null == result) {
-                message.append("null ");
-            } else {
-                message.append(result.toString());
+        List<Handler> delegates = new ArrayList<>();
+        Logger logger = log;
+        while (logger.getUseParentHandlers() && logger.getParent() != null) {
+            logger = logger.getParent();
+            for (Handler handler : logger.getHandlers()) {
+                delegates.add(handler);
             }
-            log.info(message.toString());
-            return result;
+        }
+        asyncHandler = new AsyncRingBufferHandler(ASYNC_BUFFER_SIZE, threadFactory, delegates.toArray(new Handler[0]));
+        log.addHandler(asyncHandler);
+        log.setUseParentHandlers(false);
+    }
+
+    /**
+     * Metoda przywracająca synchroniczny zapis do dziennika zdarzeń i zamykająca bufor cykliczny.
+     */
+    static synchronized void uninstallAsyncHandler() {
+        if (asyncHandler == null) {
+            return;
+        }
+        log.removeHandler(asyncHandler);
+        log.setUseParentHandlers(true);
+        asyncHandler.close();
+        if (asyncHandler.getDroppedRecords() > 0) {
+            log.warning("Tracker log buffer dropped " + asyncHandler.getDroppedRecords() + " records");
+        }
+        asyncHandler = null;
     }
 }
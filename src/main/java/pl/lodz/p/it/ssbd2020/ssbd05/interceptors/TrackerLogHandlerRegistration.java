@@ -0,0 +1,36 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.interceptors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+/**
+ * Komponent włączający asynchroniczny zapis dziennika interceptora śledzącego na czas działania aplikacji.
+ * Wątek przekazujący wpisy pochodzi z fabryki zarządzanej przez serwer aplikacji.
+ */
+@Startup
+@Singleton
+public class TrackerLogHandlerRegistration {
+
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    /**
+     * Metoda włączająca asynchroniczny zapis po uruchomieniu aplikacji.
+     */
+    @PostConstruct
+    public void install() {
+        TrackerInterceptor.installAsyncHandler(managedThreadFactory);
+    }
+
+    /**
+     * Metoda przywracająca synchroniczny zapis i zatrzymująca wątek przekazujący wpisy przed zatrzymaniem aplikacji.
+     */
+    @PreDestroy
+    public void uninstall() {
+        TrackerInterceptor.uninstallAsyncHandler();
+    }
+}
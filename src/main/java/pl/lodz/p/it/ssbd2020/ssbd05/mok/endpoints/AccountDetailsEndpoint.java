@@ -5,11 +5,10 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.AccountDetailsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.Resource;
 import javax.annotation.security.RolesAllowed;
@@ -31,6 +30,8 @@ public class AccountDetailsEndpoint implements Serializable, AccountDetailsEndpo
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     @Resource
     private SessionContext sessionContext;
 
@@ -38,46 +39,16 @@ public class AccountDetailsEndpoint implements Serializable, AccountDetailsEndpo
 
     @RolesAllowed("getOtherAccount")
     public AccountDTO getAccount(String login) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.account = accountManager.findByLogin(login);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        this.account = transactionRetryExecutor.call("AccountDetailsEndpoint.getAccount", accountManager, () -> accountManager.findByLogin(login));
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 
     @RolesAllowed("getOwnAccount")
     public AccountDTO getOwnAccount() throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                String login = sessionContext.getCallerPrincipal().getName();
-                this.account = accountManager.findByLogin(login);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (callCounter == 0 && rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AccountDetailsEndpoint.getOwnAccount", accountManager, () -> {
+            String login = sessionContext.getCallerPrincipal().getName();
+            this.account = accountManager.findByLogin(login);
+        });
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 }
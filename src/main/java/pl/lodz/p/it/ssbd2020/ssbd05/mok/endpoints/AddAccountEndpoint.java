@@ -5,15 +5,14 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.*;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.AddAccountEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.HashGenerator;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -36,6 +35,8 @@ public class AddAccountEndpoint implements AddAccountEndpointLocal {
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
 
@@ -50,23 +51,7 @@ public class AddAccountEndpoint implements AddAccountEndpointLocal {
         previousPassword.setAccount(account);
         account.getPreviousPasswordCollection().add(previousPassword);
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.createAccount(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddAccountEndpoint.addAccount", accountManager, () -> accountManager.createAccount(account));
     }
 
     private Collection<AccessLevel> generateAccessLevels(AccountDTO accountDTO) throws AppBaseException {
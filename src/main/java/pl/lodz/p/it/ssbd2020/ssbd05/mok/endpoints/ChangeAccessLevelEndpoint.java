@@ -5,15 +5,14 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.*;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountNotHaveActiveAccessLevelsException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ChangeAccessLevelEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -22,7 +21,6 @@ import javax.interceptor.Interceptors;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Properties;
-import java.util.logging.Level;
 
 import static pl.lodz.p.it.ssbd2020.ssbd05.utils.StringUtils.collectionContainsIgnoreCase;
 
@@ -37,28 +35,14 @@ public class ChangeAccessLevelEndpoint implements Serializable, ChangeAccessLeve
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
     @Override
     @RolesAllowed("findByLogin")
     public AccountDTO findByLogin(String username) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByLogin(username);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        account = transactionRetryExecutor.call("ChangeAccessLevelEndpoint.findByLogin", accountManager, () -> accountManager.findByLogin(username));
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 
@@ -84,22 +68,6 @@ public class ChangeAccessLevelEndpoint implements Serializable, ChangeAccessLeve
             throw new AccountNotHaveActiveAccessLevelsException();
 
         account.setAccessLevelCollection(accessLevelCollection);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.edit(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.log(Level.SEVERE, "EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("ChangeAccessLevelEndpoint.changeAccessLevel", accountManager, () -> accountManager.edit(account));
     }
 }
@@ -5,15 +5,13 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ConfirmAccountEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -34,54 +32,23 @@ public class ConfirmAccountEndpoint implements Serializable, ConfirmAccountEndpo
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
     @Override
     @PermitAll
     public AccountDTO getAccountByToken(String token) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByToken(token);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        account = transactionRetryExecutor.call("ConfirmAccountEndpoint.getAccountByToken", accountManager, () -> accountManager.findByToken(token));
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 
     @Override
     @PermitAll
     public void confirmAccount() throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.confirmAccount(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (!rollback) {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendConfirmedAccountEmail(account.getEmail());
-        }
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("ConfirmAccountEndpoint.confirmAccount", accountManager, () -> accountManager.confirmAccount(account));
+        emailSender.sendConfirmedAccountEmail(account.getEmail());
     }
 }
@@ -6,17 +6,15 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.PreviousPassword;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountPasswordAlreadyUsedException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.EditAccountEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.HashGenerator;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -35,175 +33,69 @@ public class EditAccountEndpoint implements Serializable, EditAccountEndpointLoc
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
     @Override
     @RolesAllowed("findByLogin")
     public AccountDTO findByLogin(String username) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByLogin(username);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        account = transactionRetryExecutor.call("EditAccountEndpoint.findByLogin", accountManager, () -> accountManager.findByLogin(username));
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 
     @Override
     @RolesAllowed({"changeOwnAccountPassword"})
     public void changePassword(AccountDTO accountDTO) throws AppBaseException {
-        for (PreviousPassword psw : account.getPreviousPasswordCollection()) {
-            if (psw.getPassword().equals(HashGenerator.sha256(accountDTO.getPassword()))) {
-                throw new AccountPasswordAlreadyUsedException();
-            }
+        String passwordHash = HashGenerator.sha256(accountDTO.getPassword());
+        if (account.getPreviousPasswordHashes().contains(passwordHash)) {
+            throw new AccountPasswordAlreadyUsedException();
         }
-        account.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+        account.setPassword(passwordHash);
         PreviousPassword previousPassword = new PreviousPassword();
         previousPassword.setAccount(account);
-        previousPassword.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+        previousPassword.setPassword(passwordHash);
         account.getPreviousPasswordCollection().add(previousPassword);
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.edit(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditAccountEndpoint.changePassword", accountManager, () -> accountManager.edit(account));
     }
 
     @Override
     @RolesAllowed({"changeOtherAccountPassword"})
     public void changeOtherAccountPassword(AccountDTO accountDTO) throws AppBaseException {
-        boolean doesExists = false;
-        for (PreviousPassword psw: account.getPreviousPasswordCollection()){
-            if(psw.getPassword().equals(HashGenerator.sha256(accountDTO.getPassword()))){
-                doesExists = true;
-            }
-        }
-        if(!doesExists){
-            account.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+        String passwordHash = HashGenerator.sha256(accountDTO.getPassword());
+        if(!account.getPreviousPasswordHashes().contains(passwordHash)){
+            account.setPassword(passwordHash);
             PreviousPassword previousPassword = new PreviousPassword();
             previousPassword.setAccount(account);
-            previousPassword.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+            previousPassword.setPassword(passwordHash);
             account.getPreviousPasswordCollection().add(previousPassword);
         } else {
-            account.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
-        }
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.edit(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
+            account.setPassword(passwordHash);
         }
+        transactionRetryExecutor.run("EditAccountEndpoint.changeOtherAccountPassword", accountManager, () -> accountManager.edit(account));
     }
 
     @Override
     @RolesAllowed({"editOwnAccount","editOtherAccount"})
     public void editAccount(AccountDTO accountDTO) throws AppBaseException {
         AccountMapper.INSTANCE.updateAccountFromDTO(accountDTO, account);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.edit(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditAccountEndpoint.editAccount", accountManager, () -> accountManager.edit(account));
     }
 
     @Override
     @RolesAllowed("blockAccount")
     public void blockAccount(AccountDTO accountDTO) throws AppBaseException {
-        boolean rollback;
-        int callCounter = 0;
-        do {
-            try {
-                accountManager.blockAccount(account);
-                rollback = accountManager.isLastTransactionRollback();
-            }
-            catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (!rollback) {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendBlockedAccountEmail(account.getEmail());
-        }
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditAccountEndpoint.blockAccount", accountManager, () -> accountManager.blockAccount(account));
+        emailSender.sendBlockedAccountEmail(account.getEmail());
     }
 
     @Override
     @RolesAllowed("unlockAccount")
     public void unlockAccount(AccountDTO accountDTO) throws AppBaseException {
-        boolean rollback;
-        int callCounter = 0;
-        do {
-            try {
-                accountManager.unlockAccount(account);
-                rollback = accountManager.isLastTransactionRollback();
-            }
-            catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (!rollback) {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendUnlockedAccountEmail(account.getEmail());
-        }
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditAccountEndpoint.unlockAccount", accountManager, () -> accountManager.unlockAccount(account));
+        emailSender.sendUnlockedAccountEmail(account.getEmail());
     }
 }
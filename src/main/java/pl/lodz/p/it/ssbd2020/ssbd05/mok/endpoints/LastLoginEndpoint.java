@@ -3,24 +3,25 @@ package pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints;
 import lombok.extern.java.Log;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
-import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.AccessLevel;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.LastLoginEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AuthenticationMetadataBuffer;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.LoginThrottle;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import java.io.Serializable;
-import java.util.Collection;
+import java.time.LocalDateTime;
+
+import static pl.lodz.p.it.ssbd2020.ssbd05.utils.DateFormatter.formatDate;
 
 /**
  * Punkt dostępowy implementujący interfejs LastLoginEndpointLocal
@@ -34,60 +35,41 @@ public class LastLoginEndpoint implements Serializable, LastLoginEndpointLocal {
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private AuthenticationMetadataBuffer authenticationMetadataBuffer;
+    @Inject
+    private LoginThrottle loginThrottle;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
     @Override
     @PermitAll
-    public String getFailedAttemptNumberFromProperties() throws AppBaseException {
-        return ResourceBundles.loadProperties("config.login.properties").getProperty("blockingAccountAfterFailedAttemptNumber");
+    public AccountDTO getAccountByLogin(String username) throws AppBaseException {
+        this.account = transactionRetryExecutor.call("LastLoginEndpoint.getAccountByLogin", accountManager, () -> accountManager.findByLogin(username));
+        AccountDTO accountDTO = AccountMapper.INSTANCE.toAccountDTO(account);
+        authenticationMetadataBuffer.getPending(account.getLogin())
+                .filter(pending -> account.getLastSuccessfulAuth() == null || pending.getTime().isAfter(account.getLastSuccessfulAuth()))
+                .ifPresent(pending -> accountDTO.setLastSuccessfulAuth(formatDate(pending.getTime())));
+        return accountDTO;
     }
 
     @Override
     @PermitAll
-    public AccountDTO getAccountByLogin(String username) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.account = accountManager.findByLogin(username);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
+    public void recordSuccessfulAuthentication(String ip) throws AppBaseException {
+        String login = account.getLogin();
+        if (account.getFailedAuthCounter() > 0) {
+            transactionRetryExecutor.run("LastLoginEndpoint.recordSuccessfulAuthentication", accountManager, () -> accountManager.resetFailedAuthCounter(login));
         }
-        return AccountMapper.INSTANCE.toAccountDTO(account);
+        authenticationMetadataBuffer.record(login, LocalDateTime.now(), ip);
     }
 
     @Override
     @PermitAll
-    public void edit(AccountDTO accountDTO) throws AppBaseException {
-        Collection<AccessLevel> accessLevelCollection = account.getAccessLevelCollection();
-        AccountMapper.INSTANCE.updateAccountFromDTO(accountDTO, account);
-        account.setAccessLevelCollection(accessLevelCollection);
-
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.edit(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+    public boolean recordFailedAuthentication(String ip, boolean blockOnLimit) throws AppBaseException {
+        String login = account.getLogin();
+        int blockAfter = blockOnLimit ? loginThrottle.getBlockingAccountAfterFailedAttemptNumber() : 0;
+        return transactionRetryExecutor.call("LastLoginEndpoint.recordFailedAuthentication", accountManager,
+                () -> accountManager.recordFailedAuthentication(login, ip, blockAfter));
     }
 }
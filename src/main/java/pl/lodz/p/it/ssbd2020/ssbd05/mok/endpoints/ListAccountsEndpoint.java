@@ -1,17 +1,16 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints;
 
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ListAccountsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -19,7 +18,8 @@ import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Punkt dostępowy implementujący interfejs AccountDetailsEndpointLocal pośredniczący
@@ -31,54 +31,27 @@ import java.util.Collection;
 @Interceptors(TrackerInterceptor.class)
 public class ListAccountsEndpoint implements Serializable, ListAccountsEndpointLocal {
 
-    @Inject
-    private AccountManager accountManager;
+    private static final Map<String, String> SORT_PATHS = new HashMap<>();
 
-    @Override
-    @RolesAllowed("listAccounts")
-    public Collection<AccountDTO> getAllAccounts() throws AppBaseException {
-        Collection<AccountDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = AccountMapper.INSTANCE.toAccountDTOCollection(accountManager.getAllAccounts());
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return list;
+    static {
+        SORT_PATHS.put("login", "login");
+        SORT_PATHS.put("firstname", "firstname");
+        SORT_PATHS.put("lastname", "lastname");
+        SORT_PATHS.put("email", "email");
+        SORT_PATHS.put("lastSuccessfulAuth", "lastSuccessfulAuth");
     }
 
+    @Inject
+    private AccountManager accountManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
+
     @Override
-    @RolesAllowed("filterAccounts")
-    public Collection<AccountDTO> filterAccounts (String accountFilter) throws AppBaseException {
-        Collection<AccountDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = AccountMapper.INSTANCE.toAccountDTOCollection(accountManager.filterAccounts(accountFilter));
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return list;
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public PageDTO<AccountDTO> getAccountsPage(String accountFilter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        String sortPath = SORT_PATHS.get(sortField);
+        return transactionRetryExecutor.call("ListAccountsEndpoint.getAccountsPage", accountManager, () -> new PageDTO<>(
+                new ArrayList<>(AccountMapper.INSTANCE.toAccountDTOCollection(accountManager.getAccountsPage(accountFilter, first, pageSize, sortPath, ascending))),
+                accountManager.countAccounts(accountFilter)));
     }
 }
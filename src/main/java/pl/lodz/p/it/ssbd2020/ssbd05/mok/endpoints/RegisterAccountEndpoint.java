@@ -7,16 +7,15 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.*;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.RegisterAccountEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.HashGenerator;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -38,6 +37,10 @@ public class RegisterAccountEndpoint implements Serializable, RegisterAccountEnd
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Getter
     @Setter
@@ -58,27 +61,8 @@ public class RegisterAccountEndpoint implements Serializable, RegisterAccountEnd
         previousPassword.setAccount(account);
         account.getPreviousPasswordCollection().add(previousPassword);
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.createAccount(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (!rollback) {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendRegistrationEmail(account.getEmail(), account.getVeryficationToken());
-        }
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("RegisterAccountEndpoint.addNewAccount", accountManager, () -> accountManager.createAccount(account));
+        emailSender.sendRegistrationEmail(account.getEmail(), account.getVeryficationToken());
     }
 
     private Collection<AccessLevel> generateAccessLevels() throws AppBaseException {
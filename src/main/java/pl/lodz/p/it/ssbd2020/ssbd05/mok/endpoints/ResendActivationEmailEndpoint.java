@@ -3,16 +3,15 @@ package pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints;
 import lombok.extern.java.Log;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountAlreadyConfirmedException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ResendActivationEmailEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -32,32 +31,18 @@ public class ResendActivationEmailEndpoint implements ResendActivationEmailEndpo
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Account account;
 
     @Override
     @RolesAllowed("resendEmail")
     public void resendEmail(String login) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByLogin(login);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter < ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        } else {
-            if(!account.isConfirmed()) {
-                EmailSender emailSender = new EmailSender();
-                emailSender.sendRegistrationEmail(account.getEmail(), account.getVeryficationToken());
-            } else throw new AccountAlreadyConfirmedException(ResourceBundles.getTranslatedText("error.account.confirmed"));
-        }
+        account = transactionRetryExecutor.call("ResendActivationEmailEndpoint.resendEmail", accountManager, () -> accountManager.findByLogin(login));
+        if(!account.isConfirmed()) {
+            emailSender.sendRegistrationEmail(account.getEmail(), account.getVeryficationToken());
+        } else throw new AccountAlreadyConfirmedException(ResourceBundles.getTranslatedText("error.account.confirmed"));
     }
 }
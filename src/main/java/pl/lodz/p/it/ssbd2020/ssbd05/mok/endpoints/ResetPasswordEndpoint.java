@@ -9,7 +9,6 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.ForgotPasswordToken;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.PreviousPassword;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountPasswordAlreadyUsedException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ResetPasswordEndpointLocal;
@@ -17,9 +16,9 @@ import pl.lodz.p.it.ssbd2020.ssbd05.mok.managers.AccountManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.HashGenerator;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -40,6 +39,10 @@ public class ResetPasswordEndpoint implements Serializable, ResetPasswordEndpoin
 
     @Inject
     private AccountManager accountManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     private Account account;
 
@@ -49,77 +52,19 @@ public class ResetPasswordEndpoint implements Serializable, ResetPasswordEndpoin
     @Override
     @PermitAll
     public void findByMail(String mail) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByMail(mail);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.severe("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        account = transactionRetryExecutor.call("ResetPasswordEndpoint.findByMail", accountManager, () -> accountManager.findByMail(mail));
     }
 
     @Override
     @PermitAll
     public AccountDTO findByLogin(String login) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                account = accountManager.findByLogin(login);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.severe("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        account = transactionRetryExecutor.call("ResetPasswordEndpoint.findByLogin", accountManager, () -> accountManager.findByLogin(login));
         return AccountMapper.INSTANCE.toAccountDTO(account);
     }
 
-    @PermitAll
-    private void deletePreviousToken() throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                for(ForgotPasswordToken token : accountManager.getAllTokens()) {
-                    if(token.getAccount().getLogin().equals(account.getLogin()))
-                        accountManager.deletePreviousToken(token);
-                }
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-    }
-
     @Override
     @PermitAll
     public void resetPassword(String mail) throws AppBaseException {
-        this.deletePreviousToken();
-
         ForgotPasswordToken forgotPasswordToken = new ForgotPasswordToken();
         forgotPasswordToken.setAccount(account);
         forgotPasswordToken.setExpireDate(LocalDateTime.now()
@@ -128,83 +73,30 @@ public class ResetPasswordEndpoint implements Serializable, ResetPasswordEndpoin
         String hash = HashGenerator.sha256(UUID.randomUUID().toString() + forgotPasswordToken.getExpireDate().toString());
         forgotPasswordToken.setHash(hash);
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.createForgotPasswordToken(forgotPasswordToken);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (!rollback) {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendPasswordResetEmail(mail, hash);
-        }
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("ResetPasswordEndpoint.resetPassword", accountManager, () -> accountManager.replaceForgotPasswordToken(forgotPasswordToken));
+        emailSender.sendPasswordResetEmail(mail, hash);
     }
 
     @Override
     @PermitAll
     public ForgotPasswordTokenDTO findByHash(String hash) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                forgotPasswordToken = accountManager.findTokenByHash(hash);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        forgotPasswordToken = transactionRetryExecutor.call("ResetPasswordEndpoint.findByHash", accountManager, () -> accountManager.findTokenByHash(hash));
         return ForgotPasswordTokenMapper.INSTANCE.toTokenDTO(forgotPasswordToken);
     }
 
     @Override
     @PermitAll
     public void changeResettedPassword(AccountDTO accountDTO) throws AppBaseException {
-        for (PreviousPassword psw: account.getPreviousPasswordCollection()){
-            if(psw.getPassword().equals(HashGenerator.sha256(accountDTO.getPassword()))){
-                throw new AccountPasswordAlreadyUsedException();
-            }
+        String passwordHash = HashGenerator.sha256(accountDTO.getPassword());
+        if(account.getPreviousPasswordHashes().contains(passwordHash)){
+            throw new AccountPasswordAlreadyUsedException();
         }
-        account.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+        account.setPassword(passwordHash);
         PreviousPassword previousPassword = new PreviousPassword();
         previousPassword.setAccount(account);
-        previousPassword.setPassword(HashGenerator.sha256(accountDTO.getPassword()));
+        previousPassword.setPassword(passwordHash);
         account.getPreviousPasswordCollection().add(previousPassword);
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                accountManager.setPasswordAfterReset(account);
-                rollback = accountManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + accountManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        this.deletePreviousToken();
+        transactionRetryExecutor.run("ResetPasswordEndpoint.changeResettedPassword", accountManager, () -> accountManager.setPasswordAfterReset(account));
     }
 }
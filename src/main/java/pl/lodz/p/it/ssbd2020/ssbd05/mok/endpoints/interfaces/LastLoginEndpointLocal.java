@@ -10,13 +10,6 @@ import javax.ejb.Local;
  */
 @Local
 public interface LastLoginEndpointLocal {
-    /**
-     * Metoda pobierająca liczbę nieudanych prób uwierzytelnienia
-     *
-     * @return Liczba nieudanych prób uwierzytelnienia
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    String getFailedAttemptNumberFromProperties() throws AppBaseException;
 
     /**
      * Metoda pobierająca obiekt DTO użytkownika na podstawie podanej nazwy użytkownika.
@@ -30,10 +23,23 @@ public interface LastLoginEndpointLocal {
     AccountDTO getAccountByLogin(String username) throws AppBaseException;
 
     /**
-     * Metoda odpowiedzialna za edycję danych konta przy próbie uwierzytelnienia
+     * Metoda zapisująca udane uwierzytelnienie konta pobranego metodą getAccountByLogin.
+     * Licznik nieudanych uwierzytelnień zerowany jest od razu, a data uwierzytelnienia i adres IP
+     * zapisywane są w bazie danych z opóźnieniem.
+     *
+     * @param ip adres IP, z którego nastąpiło uwierzytelnienie
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    void recordSuccessfulAuthentication(String ip) throws AppBaseException;
+
+    /**
+     * Metoda zapisująca nieudane uwierzytelnienie konta pobranego metodą getAccountByLogin.
      *
-     * @param accountDTO obiekt DTO konta dokonującego próby uwierzytelnienia
+     * @param ip           adres IP, z którego nastąpiła próba uwierzytelnienia
+     * @param blockOnLimit czy konto ma zostać zablokowane po osiągnięciu liczby nieudanych uwierzytelnień
+     *                     zdefiniowanej w pliku konfiguracyjnym
+     * @return informacja, czy konto zostało zablokowane
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    void edit(AccountDTO accountDTO) throws AppBaseException;
+    boolean recordFailedAuthentication(String ip, boolean blockOnLimit) throws AppBaseException;
 }
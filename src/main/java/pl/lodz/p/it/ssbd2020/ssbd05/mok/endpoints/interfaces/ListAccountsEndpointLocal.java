@@ -1,10 +1,10 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces;
 
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
 import javax.ejb.Local;
-import java.util.Collection;
 
 /**
  * Interfejs dla punktu dostępowego ListAccountsEndpoint pośredniczącego
@@ -14,19 +14,15 @@ import java.util.Collection;
 @Local
 public interface ListAccountsEndpointLocal {
     /**
-     * Metoda odpowiedzialna za pobranie wszystkich kont systemu
+     * Metoda odpowiedzialna za pobranie strony listy kont zgodnych z filtrem wraz z liczbą wszystkich takich kont
      *
-     * @return wszystkie konta
+     * @param accountFilter filtr lub pusty ciąg znaków oznaczający wszystkie konta
+     * @param first         indeks pierwszego konta strony
+     * @param pageSize      rozmiar strony
+     * @param sortField     nazwa pola obiektu AccountDTO, po którym sortowana jest lista, lub null
+     * @param ascending     kierunek sortowania
+     * @return strona listy kont
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    Collection<AccountDTO> getAllAccounts() throws AppBaseException;
-
-    /**
-     * Metoda odpowiedzialna za filtrowanie listy kont zgodnie z filtrem
-     *
-     * @param accountFilter filtr
-     * @return kolekcja kont
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    Collection<AccountDTO> filterAccounts(String accountFilter) throws AppBaseException;
+    PageDTO<AccountDTO> getAccountsPage(String accountFilter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException;
 }
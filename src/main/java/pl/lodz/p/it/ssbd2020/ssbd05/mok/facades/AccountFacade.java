@@ -10,7 +10,9 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseQueryExceptio
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountNotFoundException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.EmailAlreadyExistsException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.LoginAlreadyExistsException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.SimilarityQuery;
 
 import javax.annotation.security.DenyAll;
 import javax.annotation.security.PermitAll;
@@ -22,7 +24,8 @@ import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.*;
 import java.sql.SQLNonTransientConnectionException;
-import java.util.Collection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +38,16 @@ import java.util.Optional;
 @Interceptors(TrackerInterceptor.class)
 public class AccountFacade extends AbstractFacade<Account> {
 
+    /**
+     * Zapytanie filtrujące konta po imieniu i nazwisku. Każda kolumna przeszukiwana jest z użyciem
+     * własnego indeksu trigramowego.
+     */
+    static final SimilarityQuery FILTER_QUERY = new SimilarityQuery()
+            .column("p.id", "ssbd05schema.account_personal_data p", "p.firstname")
+            .column("p.id", "ssbd05schema.account_personal_data p", "p.lastname");
+
+    private static final int FILTER_RESULT_LIMIT = 200;
+
     @PersistenceContext(unitName = "ssbd05mokPU")
     private EntityManager em;
 
@@ -74,6 +87,7 @@ public class AccountFacade extends AbstractFacade<Account> {
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Account> findByLogin(String username) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Account.findByLogin", Account.class)
@@ -93,6 +107,7 @@ public class AccountFacade extends AbstractFacade<Account> {
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Account> findByToken(String token) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Account.findByToken", Account.class)
@@ -112,6 +127,7 @@ public class AccountFacade extends AbstractFacade<Account> {
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Account> findByMail(String mail) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Account.findByEmail", Account.class)
@@ -124,17 +140,172 @@ public class AccountFacade extends AbstractFacade<Account> {
     }
 
     /**
-     * Filtruj kolekcję kont
+     * Zapisz nieudane uwierzytelnienie: zwiększ licznik nieudanych uwierzytelnień oraz ustaw datę ostatniego
+     * nieudanego uwierzytelnienia i adres IP. Zmieniana jest wyłącznie tabela authentication_data,
+     * a licznik zwiększany jest atomowo w bazie danych.
+     *
+     * @param login login
+     * @param time  data próby uwierzytelnienia
+     * @param ip    adres IP
+     * @return liczba nieudanych uwierzytelnień po zmianie
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public int recordFailedAuthentication(String login, LocalDateTime time, String ip) throws AppBaseException {
+        try {
+            List<?> counters = this.em.createNativeQuery("UPDATE ssbd05schema.authentication_data"
+                    + " SET failed_auth_counter = failed_auth_counter + 1, last_failed_auth = ?1, last_auth_ip = ?2"
+                    + " WHERE id = (SELECT id FROM ssbd05schema.account_login_data WHERE login = ?3)"
+                    + " RETURNING failed_auth_counter")
+                    .setParameter(1, Timestamp.valueOf(time))
+                    .setParameter(2, ip)
+                    .setParameter(3, login)
+                    .getResultList();
+            if (counters.isEmpty()) {
+                throw new AccountNotFoundException("error.account.not.found");
+            }
+            return ((Number) counters.get(0)).intValue();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Zapisz udane uwierzytelnienie: ustaw datę ostatniego udanego uwierzytelnienia, jeśli jest późniejsza od zapisanej,
+     * oraz adres IP, jeśli po tym uwierzytelnieniu nie nastąpiło nieudane uwierzytelnienie.
+     * Zmieniana jest wyłącznie tabela authentication_data.
+     *
+     * @param login login
+     * @param time  data uwierzytelnienia
+     * @param ip    adres IP
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public void recordSuccessfulAuthentication(String login, LocalDateTime time, String ip) throws AppBaseException {
+        try {
+            Timestamp timestamp = Timestamp.valueOf(time);
+            this.em.createNativeQuery("UPDATE ssbd05schema.authentication_data"
+                    + " SET last_successful_auth = GREATEST(COALESCE(last_successful_auth, ?1), ?2),"
+                    + " last_auth_ip = CASE WHEN last_failed_auth IS NULL OR last_failed_auth < ?3 THEN ?4 ELSE last_auth_ip END"
+                    + " WHERE id = (SELECT id FROM ssbd05schema.account_login_data WHERE login = ?5)")
+                    .setParameter(1, timestamp)
+                    .setParameter(2, timestamp)
+                    .setParameter(3, timestamp)
+                    .setParameter(4, ip)
+                    .setParameter(5, login)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Wyzeruj licznik nieudanych uwierzytelnień, jeśli jest niezerowy.
+     *
+     * @param login login
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public void resetFailedAuthCounter(String login) throws AppBaseException {
+        try {
+            this.em.createNativeQuery("UPDATE ssbd05schema.authentication_data SET failed_auth_counter = 0"
+                    + " WHERE failed_auth_counter <> 0 AND id = (SELECT id FROM ssbd05schema.account_login_data WHERE login = ?1)")
+                    .setParameter(1, login)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Zablokuj konto po przekroczeniu liczby nieudanych uwierzytelnień.
      *
-     * @param accountFilter filtr
-     * @return kolekcja obiektów typu Account
+     * @param login login
      * @throws AppBaseException Wyjątek aplikacyjny
      */
-    @RolesAllowed("filterAccounts")
-    public Collection<Account> filterAccounts(String accountFilter) throws AppBaseException {
+    @PermitAll
+    public void block(String login) throws AppBaseException {
+        try {
+            this.em.createNativeQuery("UPDATE ssbd05schema.account_login_data SET active = false, version = version + 1"
+                    + " WHERE login = ?1 AND active = true")
+                    .setParameter(1, login)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę kont spełniających filtr. Niepusty filtr wybiera najwyżej 200 kont najbardziej podobnych
+     * do filtra, które bez podanego atrybutu sortowania uporządkowane są według podobieństwa.
+     *
+     * @param accountFilter filtr imienia i nazwiska, pusty filtr oznacza wszystkie konta
+     * @param first         indeks pierwszego konta
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista kont
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public List<Account> findRange(String accountFilter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        try {
+            if (accountFilter == null || accountFilter.isEmpty()) {
+                return super.findRange(null, first, pageSize, sortField, ascending);
+            }
+            List<Long> rankedIds = findRankedIds(FILTER_QUERY, accountFilter, FILTER_RESULT_LIMIT);
+            if (sortField == null) {
+                return findRankedRange(rankedIds, first, pageSize);
+            }
+            return super.findRange(idRestriction(rankedIds), first, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę kont spełniających filtr, następującą po koncie wskazanym przez kursor.
+     *
+     * @param accountFilter filtr imienia i nazwiska
+     * @param lastSortValue wartość atrybutu sortowania ostatniego konta poprzedniej strony
+     * @param lastId        identyfikator ostatniego konta poprzedniej strony
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista kont
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public List<Account> findRangeAfter(String accountFilter, Object lastSortValue, Object lastId, int pageSize,
+                                        String sortField, boolean ascending) throws AppBaseException {
         try {
-            return em.createNamedQuery("Account.filterByNameAndSurname", Account.class)
-                    .setParameter("filter", accountFilter).getResultList();
+            if (accountFilter == null || accountFilter.isEmpty()) {
+                return super.findRangeAfter(null, lastSortValue, lastId, pageSize, sortField, ascending);
+            }
+            List<Long> rankedIds = findRankedIds(FILTER_QUERY, accountFilter, FILTER_RESULT_LIMIT);
+            if (sortField == null) {
+                return findRankedRangeAfter(rankedIds, lastId, pageSize);
+            }
+            return super.findRangeAfter(idRestriction(rankedIds), lastSortValue, lastId, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz liczbę kont spełniających filtr.
+     *
+     * @param accountFilter filtr imienia i nazwiska
+     * @return liczba kont
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public int count(String accountFilter) throws AppBaseException {
+        try {
+            if (accountFilter == null || accountFilter.isEmpty()) {
+                return super.count(null);
+            }
+            return findRankedIds(FILTER_QUERY, accountFilter, FILTER_RESULT_LIMIT).size();
         } catch (DatabaseException | PersistenceException e) {
             throw new DatabaseConnectionException(e);
         }
@@ -188,7 +359,7 @@ public class AccountFacade extends AbstractFacade<Account> {
     }
 
     @Override
-    @DenyAll
+    @RolesAllowed("listAccounts")
     public int count() {
         return super.count();
     }
@@ -6,6 +6,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.ForgotPasswordToken;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -16,6 +17,8 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.*;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -101,6 +104,7 @@ public class ForgotPasswordTokenFacade extends AbstractFacade<ForgotPasswordToke
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<ForgotPasswordToken> findByHash(String hash) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("ForgotPasswordToken.findByHash", ForgotPasswordToken.class)
@@ -112,6 +116,68 @@ public class ForgotPasswordTokenFacade extends AbstractFacade<ForgotPasswordToke
         }
     }
 
+    /**
+     * Zapisz token konta jednym zapytaniem: utwórz go lub, jeśli konto ma już token, zastąp jego skrót i datę ważności.
+     * Wykorzystuje ograniczenie unikalności kolumny account_id.
+     *
+     * @param entity token
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public void replace(ForgotPasswordToken entity) throws AppBaseException {
+        try {
+            this.em.createNativeQuery("INSERT INTO ssbd05schema.forgot_password_token (id, expire_date, hash, account_id, version)"
+                    + " VALUES (nextval('ssbd05schema.forgot_password_token_id_seq'), ?1, ?2, ?3, 1)"
+                    + " ON CONFLICT (account_id) DO UPDATE SET expire_date = EXCLUDED.expire_date, hash = EXCLUDED.hash,"
+                    + " version = forgot_password_token.version + 1")
+                    .setParameter(1, Timestamp.valueOf(entity.getExpireDate()))
+                    .setParameter(2, entity.getHash())
+                    .setParameter(3, entity.getAccount().getId())
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Usuń token konta.
+     *
+     * @param accountId identyfikator konta
+     * @return liczba usuniętych tokenów
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public int deleteByAccount(Long accountId) throws AppBaseException {
+        try {
+            return this.em.createNamedQuery("ForgotPasswordToken.deleteByAccount")
+                    .setParameter("accountId", accountId)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Usuń paczkę tokenów, których data ważności minęła.
+     *
+     * @param now       bieżąca data
+     * @param batchSize maksymalna liczba usuwanych tokenów
+     * @return liczba usuniętych tokenów
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public int deleteExpired(LocalDateTime now, int batchSize) throws AppBaseException {
+        try {
+            return this.em.createNativeQuery("DELETE FROM ssbd05schema.forgot_password_token WHERE id IN"
+                    + " (SELECT id FROM ssbd05schema.forgot_password_token WHERE expire_date < ?1 LIMIT ?2 FOR UPDATE SKIP LOCKED)")
+                    .setParameter(1, Timestamp.valueOf(now))
+                    .setParameter(2, batchSize)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
     @DenyAll
     public int count() {
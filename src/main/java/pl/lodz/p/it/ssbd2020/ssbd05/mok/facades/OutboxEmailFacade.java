@@ -0,0 +1,167 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mok.facades;
+
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.exceptions.DatabaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.OutboxEmail;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.*;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Fasada skrzynki nadawczej wiadomości email - dla encji OutboxEmail.
+ * Wywoływana przez komponent wysyłający wiadomości w tle, dlatego nie jest objęta śledzeniem wywołań.
+ */
+@TransactionAttribute(TransactionAttributeType.MANDATORY)
+@Stateless
+@LocalBean
+public class OutboxEmailFacade extends AbstractFacade<OutboxEmail> {
+
+    @PersistenceContext(unitName = "ssbd05mokPU")
+    private EntityManager em;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    /**
+     * Konstruktor bezparametrowy fasady OutboxEmail
+     */
+    public OutboxEmailFacade() {
+        super(OutboxEmail.class);
+    }
+
+    @Override
+    @PermitAll
+    public void create(OutboxEmail entity) throws AppBaseException {
+        try {
+            super.create(entity);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @PermitAll
+    public void createAll(Collection<OutboxEmail> entities) throws AppBaseException {
+        try {
+            super.createAll(entities);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @PermitAll
+    public void edit(OutboxEmail entity) throws AppBaseException {
+        try {
+            super.edit(entity);
+        } catch (OptimisticLockException e) {
+            throw new AppOptimisticLockException(e);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @DenyAll
+    public void remove(OutboxEmail entity) throws AppBaseException {
+        try {
+            super.remove(entity);
+        } catch (OptimisticLockException e) {
+            throw new AppOptimisticLockException(e);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @PermitAll
+    public Optional<OutboxEmail> find(Object id) {
+        return super.find(id);
+    }
+
+    @Override
+    @DenyAll
+    public List<OutboxEmail> findAll() throws AppBaseException {
+        try {
+            return super.findAll();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Zarezerwuj wiadomości, których termin wysłania już minął, w kolejności terminów. Termin wysłania
+     * zarezerwowanych wiadomości przesuwany jest na koniec rezerwacji w tym samym zapytaniu, a wiersze zablokowane
+     * przez inną transakcję są pomijane, dzięki czemu ta sama wiadomość nie zostanie pobrana przez dwa węzły
+     * ani przez kolejne wywołanie przed upływem rezerwacji.
+     *
+     * @param now        bieżąca data
+     * @param leaseUntil koniec rezerwacji
+     * @param limit      maksymalna liczba wiadomości
+     * @return lista zarezerwowanych wiadomości
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    public List<OutboxEmail> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit) throws AppBaseException {
+        try {
+            List<?> ids = em.createNativeQuery("UPDATE ssbd05schema.email_outbox SET next_attempt = ?1, version = version + 1"
+                    + " WHERE id IN (SELECT id FROM ssbd05schema.email_outbox WHERE next_attempt <= ?2"
+                    + " ORDER BY next_attempt, id LIMIT ?3 FOR UPDATE SKIP LOCKED) RETURNING id")
+                    .setParameter(1, Timestamp.valueOf(leaseUntil))
+                    .setParameter(2, Timestamp.valueOf(now))
+                    .setParameter(3, limit)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return em.createNamedQuery("OutboxEmail.findByIds", OutboxEmail.class)
+                    .setParameter("ids", ids.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList()))
+                    .setHint(QueryHints.REFRESH, HintValues.TRUE)
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Usuń wysłane wiadomości jednym zapytaniem.
+     *
+     * @param ids identyfikatory wiadomości
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    public void removeByIds(Collection<Long> ids) throws AppBaseException {
+        try {
+            em.createNamedQuery("OutboxEmail.deleteByIds")
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @PermitAll
+    public int count() {
+        return super.count();
+    }
+}
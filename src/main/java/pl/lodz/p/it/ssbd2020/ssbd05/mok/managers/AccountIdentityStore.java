@@ -0,0 +1,55 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mok.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.HashGenerator;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.security.enterprise.authentication.mechanism.http.CustomFormAuthenticationMechanismDefinition;
+import javax.security.enterprise.authentication.mechanism.http.LoginToContinue;
+import javax.security.enterprise.credential.Credential;
+import javax.security.enterprise.credential.UsernamePasswordCredential;
+import javax.security.enterprise.identitystore.CredentialValidationResult;
+import javax.security.enterprise.identitystore.IdentityStore;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+/**
+ * Magazyn tożsamości uwierzytelniający użytkowników na podstawie loginu i hasła. Dane uwierzytelniające
+ * i grupy kont pobierane są z {@link CredentialCache}, dzięki czemu kolejne uwierzytelnienia tego samego konta
+ * nie wymagają zapytań do bazy danych. Grupy odwzorowywane są na role w deskryptorze payara-web.xml.
+ */
+@Log
+@ApplicationScoped
+@CustomFormAuthenticationMechanismDefinition(
+        loginToContinue = @LoginToContinue(loginPage = "/login/login.xhtml", errorPage = "/login/error.xhtml"))
+public class AccountIdentityStore implements IdentityStore {
+
+    @Inject
+    private CredentialCache credentialCache;
+
+    @Override
+    public CredentialValidationResult validate(Credential credential) {
+        if (!(credential instanceof UsernamePasswordCredential)) {
+            return CredentialValidationResult.NOT_VALIDATED_RESULT;
+        }
+        UsernamePasswordCredential usernamePassword = (UsernamePasswordCredential) credential;
+        String login = usernamePassword.getCaller();
+        try {
+            Optional<CredentialCache.Credentials> credentials = credentialCache.find(login);
+            if (credentials.isPresent() && passwordMatches(usernamePassword.getPasswordAsString(), credentials.get().getPasswordHash())) {
+                return new CredentialValidationResult(login, credentials.get().getGroups());
+            }
+        } catch (AppBaseException e) {
+            log.warning("Credentials of " + login + " could not be loaded: " + e.getMessage());
+        }
+        return CredentialValidationResult.INVALID_RESULT;
+    }
+
+    private static boolean passwordMatches(String password, String passwordHash) {
+        return MessageDigest.isEqual(HashGenerator.sha256(password).getBytes(StandardCharsets.US_ASCII),
+                passwordHash.getBytes(StandardCharsets.US_ASCII));
+    }
+}
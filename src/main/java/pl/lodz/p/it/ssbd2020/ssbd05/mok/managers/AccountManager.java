@@ -12,13 +12,18 @@ import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.AccessLevelFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.AccountFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.ForgotPasswordTokenFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.PageCursor;
 
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.*;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
-import java.util.Collection;
+import java.rmi.RemoteException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Manager odpowiadający za operację na encji typu Account
@@ -36,6 +41,28 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
     private ForgotPasswordTokenFacade forgotPasswordTokenFacade;
     @Inject
     private AccessLevelFacade accessLevelFacade;
+    @Inject
+    private CredentialCache credentialCache;
+
+    private final PageCursor accountsCursor = new PageCursor();
+
+    private final Set<String> changedLogins = new HashSet<>();
+
+    /**
+     * Metoda usuwająca z pamięci podręcznej dane uwierzytelniające kont zmienionych w zatwierdzonej transakcji.
+     *
+     * @param committed informacja, czy transakcja została zatwierdzona
+     * @throws EJBException    wyjątek EJB
+     * @throws RemoteException wyjątek zdalnego wywołania
+     */
+    @Override
+    public void afterCompletion(boolean committed) throws EJBException, RemoteException {
+        super.afterCompletion(committed);
+        if (committed) {
+            changedLogins.forEach(credentialCache::invalidate);
+        }
+        changedLogins.clear();
+    }
 
     /**
      * Wyszukaj konto po loginie.
@@ -62,9 +89,7 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
      */
     @PermitAll
     public Account findByToken(String token) throws AppBaseException {
-        if(accountFacade.findByToken(token).isPresent())
-            return accountFacade.findByToken(token).get();
-        else throw new AppBaseException("error.default");
+        return accountFacade.findByToken(token).orElseThrow(() -> new AppBaseException("error.default"));
     }
 
     /**
@@ -76,9 +101,7 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
      */
     @PermitAll
     public Account findByMail(String mail) throws AppBaseException {
-        if(accountFacade.findByMail(mail).isPresent())
-            return accountFacade.findByMail(mail).get();
-        else throw new AccountNotFoundException("error.account.not.found");
+        return accountFacade.findByMail(mail).orElseThrow(() -> new AccountNotFoundException("error.account.not.found"));
     }
 
     /**
@@ -89,11 +112,45 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
      */
     @PermitAll
     public void edit(Account account) throws AppBaseException {
+        changedLogins.add(account.getLogin());
         accountFacade.edit(account);
         for(AccessLevel accessLevel : account.getAccessLevelCollection())
             accessLevelFacade.edit(accessLevel);
     }
 
+    /**
+     * Zapisz nieudane uwierzytelnienie i zablokuj konto, jeśli liczba kolejnych nieudanych uwierzytelnień
+     * osiągnęła podaną wartość. Zmiana zapisywana jest od razu, tak aby blokowanie kont było poprawne
+     * również przy równoległych próbach uwierzytelnienia.
+     *
+     * @param login      login
+     * @param ip         adres IP
+     * @param blockAfter liczba nieudanych uwierzytelnień, po której konto jest blokowane, lub 0, jeśli konto nie ma być blokowane
+     * @return informacja, czy konto zostało zablokowane
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public boolean recordFailedAuthentication(String login, String ip, int blockAfter) throws AppBaseException {
+        int failedAuthCounter = accountFacade.recordFailedAuthentication(login, LocalDateTime.now(), ip);
+        if (blockAfter > 0 && failedAuthCounter >= blockAfter) {
+            changedLogins.add(login);
+            accountFacade.block(login);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wyzeruj licznik nieudanych uwierzytelnień po udanym uwierzytelnieniu.
+     *
+     * @param login login
+     * @throws AppBaseException Wyjątek aplikacyjny
+     */
+    @PermitAll
+    public void resetFailedAuthCounter(String login) throws AppBaseException {
+        accountFacade.resetFailedAuthCounter(login);
+    }
+
     /**
      * Potwierdź konto
      *
@@ -104,6 +161,7 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
     public void confirmAccount(Account account) throws AppBaseException {
         if(!account.isConfirmed()) {
             account.setConfirmed(true);
+            changedLogins.add(account.getLogin());
             accountFacade.edit(account);
         }
         else throw new AccountAlreadyConfirmedException("error.account.confirmed");
@@ -117,30 +175,38 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
      */
     @PermitAll
     public void createAccount(Account account) throws AppBaseException {
+        account.generateVeryficationToken();
         accountFacade.create(account);
     }
 
     /**
-     * Pobierz wszystkie konta
+     * Pobierz stronę kont spełniających filtr. Kolejne strony przeglądane po kolei pobierane są od pozycji kursora.
      *
-     * @return kolekcja obiektów typu Account
+     * @param accountFilter filtr imienia i nazwiska, pusty filtr oznacza wszystkie konta
+     * @param first         indeks pierwszego konta
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista kont
      * @throws AppBaseException Wyjątek aplikacyjny
      */
-    @RolesAllowed("listAccounts")
-    public Collection<Account> getAllAccounts() throws AppBaseException {
-        return accountFacade.findAll();
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public List<Account> getAccountsPage(String accountFilter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        return accountsCursor.fetch(PageCursor.describe(accountFilter, sortField, ascending), first, sortField,
+                () -> accountFacade.findRange(accountFilter, first, pageSize, sortField, ascending),
+                (lastSortValue, lastId) -> accountFacade.findRangeAfter(accountFilter, lastSortValue, lastId, pageSize, sortField, ascending));
     }
 
     /**
-     * Filtruj po kontach
+     * Pobierz liczbę kont spełniających filtr
      *
-     * @param accountFilter filtr
-     * @return kolekcja obiektów typu Account
+     * @param accountFilter filtr imienia i nazwiska
+     * @return liczba kont
      * @throws AppBaseException Wyjątek aplikacyjny
      */
-    @RolesAllowed("filterAccounts")
-    public Collection<Account> filterAccounts(String accountFilter) throws AppBaseException {
-        return accountFacade.filterAccounts(accountFilter);
+    @RolesAllowed({"listAccounts", "filterAccounts"})
+    public int countAccounts(String accountFilter) throws AppBaseException {
+        return accountFacade.count(accountFilter);
     }
 
     /**
@@ -152,6 +218,7 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
     @RolesAllowed("blockAccount")
     public void blockAccount(Account account) throws AppBaseException {
         account.setActive(false);
+        changedLogins.add(account.getLogin());
         accountFacade.edit(account);
     }
 
@@ -165,18 +232,19 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
     public void unlockAccount(Account account) throws AppBaseException {
         account.setActive(true);
         account.setFailedAuthCounter(0);
+        changedLogins.add(account.getLogin());
         accountFacade.edit(account);
     }
 
     /**
-     * Stwórz obiekt typu forgotPasswordToken. Token używany do resetowania hasła
+     * Zapisz token do resetowania hasła, zastępując poprzedni token konta
      *
      * @param forgotPasswordToken Token do resetowania hasła
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
-    public void createForgotPasswordToken(ForgotPasswordToken forgotPasswordToken) throws AppBaseException {
-        forgotPasswordTokenFacade.create(forgotPasswordToken);
+    public void replaceForgotPasswordToken(ForgotPasswordToken forgotPasswordToken) throws AppBaseException {
+        forgotPasswordTokenFacade.replace(forgotPasswordToken);
     }
 
     /**
@@ -188,43 +256,21 @@ public class AccountManager extends AbstractManager implements SessionSynchroniz
      */
     @PermitAll
     public ForgotPasswordToken findTokenByHash(String hash) throws AppBaseException {
-        if (forgotPasswordTokenFacade.findByHash(hash).isPresent())
-            return forgotPasswordTokenFacade.findByHash(hash).get();
-        else throw new AppBaseException("error.default");
+        return forgotPasswordTokenFacade.findByHash(hash).orElseThrow(() -> new AppBaseException("error.default"));
     }
 
     /**
-     * Ustaw hasło po resecie
+     * Ustaw hasło po resecie i usuń wykorzystany token do resetowania hasła
      *
      * @param account konto
      * @throws AppBaseException Wyjątek aplikacyjny
      */
     @PermitAll
     public void setPasswordAfterReset(Account account) throws AppBaseException {
-        if(account.isConfirmed() && account.isActive())
+        if(account.isConfirmed() && account.isActive()) {
+            changedLogins.add(account.getLogin());
             accountFacade.edit(account);
-        else throw new AppBaseException("error.default");
-    }
-
-    /**
-     * Pobierz wszystkie tokeny
-     *
-     * @return kolekcja obiektów typu ForgotPasswordToken
-     * @throws AppBaseException the app base exception
-     */
-    @PermitAll
-    public Collection<ForgotPasswordToken> getAllTokens() throws AppBaseException {
-        return forgotPasswordTokenFacade.findAll();
-    }
-
-    /**
-     * Usuń poprzedni token
-     *
-     * @param forgotPasswordToken Obiekt typu forgotPasswordToken
-     * @throws AppBaseException Wyjątek aplikacyjny
-     */
-    @PermitAll
-    public void deletePreviousToken(ForgotPasswordToken forgotPasswordToken) throws AppBaseException {
-        forgotPasswordTokenFacade.remove(forgotPasswordToken);
+            forgotPasswordTokenFacade.deleteByAccount(account.getId());
+        } else throw new AppBaseException("error.default");
     }
 }
@@ -0,0 +1,144 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mok.managers;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.AccountFacade;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.annotation.security.PermitAll;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bufor danych o udanych uwierzytelnieniach - daty ostatniego udanego uwierzytelnienia i adresu IP - przechowywany w pamięci.
+ * Kolejne uwierzytelnienia tego samego konta są łączone, a bufor jest cyklicznie zapisywany w bazie danych w jednej
+ * transakcji, dzięki czemu logowanie nie wymaga zapisu w bazie danych. Nieudane uwierzytelnienia i zerowanie licznika
+ * nieudanych uwierzytelnień zapisywane są od razu przez {@link AccountManager}, ponieważ decydują o blokowaniu kont.
+ */
+@Log
+@Startup
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AuthenticationMetadataBuffer {
+
+    @Inject
+    private AccountFacade accountFacade;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private final ConcurrentMap<String, SuccessfulAuthentication> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    /**
+     * Metoda zapisująca bufor przed zamknięciem aplikacji.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Metoda rejestrująca udane uwierzytelnienie. Z kilku uwierzytelnień tego samego konta zapisane zostanie najpóźniejsze.
+     *
+     * @param login login
+     * @param time  data uwierzytelnienia
+     * @param ip    adres IP
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void record(String login, LocalDateTime time, String ip) {
+        pending.merge(login, new SuccessfulAuthentication(time, ip), SuccessfulAuthentication::latest);
+    }
+
+    /**
+     * Metoda zwracająca udane uwierzytelnienie konta, które nie zostało jeszcze zapisane w bazie danych.
+     *
+     * @param login login
+     * @return obiekt typu Optional
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Optional<SuccessfulAuthentication> getPending(String login) {
+        return Optional.ofNullable(pending.get(login));
+    }
+
+    /**
+     * Metoda cyklicznie zapisująca bufor w bazie danych. Uwierzytelnienia, których nie udało się zapisać,
+     * zostaną zapisane przy kolejnym wywołaniu.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/15", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, SuccessfulAuthentication> batch = new HashMap<>();
+        for (String login : pending.keySet()) {
+            SuccessfulAuthentication authentication = pending.remove(login);
+            if (authentication != null) {
+                batch.put(login, authentication);
+            }
+        }
+        try {
+            sessionContext.getBusinessObject(AuthenticationMetadataBuffer.class).save(batch);
+        } catch (AppBaseException | EJBException e) {
+            log.warning("Authentication metadata could not be saved: " + e.getMessage());
+            batch.forEach((login, authentication) -> pending.merge(login, authentication, SuccessfulAuthentication::latest));
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Metoda zapisująca uwierzytelnienia w jednej transakcji. Wywoływana wyłącznie przez metodę flush.
+     *
+     * @param batch uwierzytelnienia według loginów
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void save(Map<String, SuccessfulAuthentication> batch) throws AppBaseException {
+        for (Map.Entry<String, SuccessfulAuthentication> entry : batch.entrySet()) {
+            accountFacade.recordSuccessfulAuthentication(entry.getKey(), entry.getValue().getTime(), entry.getValue().getIp());
+        }
+    }
+
+    /**
+     * Udane uwierzytelnienie oczekujące na zapis w bazie danych.
+     */
+    @Getter
+    public static class SuccessfulAuthentication implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDateTime time;
+        private final String ip;
+
+        /**
+         * Konstruktor klasy SuccessfulAuthentication.
+         *
+         * @param time data uwierzytelnienia
+         * @param ip   adres IP
+         */
+        public SuccessfulAuthentication(LocalDateTime time, String ip) {
+            this.time = time;
+            this.ip = ip;
+        }
+
+        private static SuccessfulAuthentication latest(SuccessfulAuthentication first, SuccessfulAuthentication second) {
+            return second.time.isAfter(first.time) ? second : first;
+        }
+    }
+}
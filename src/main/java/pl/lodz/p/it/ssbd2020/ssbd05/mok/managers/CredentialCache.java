@@ -0,0 +1,133 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mok.managers;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.AccessLevel;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.AccountFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.security.PermitAll;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pamięć podręczna danych uwierzytelniających kont - skrótu hasła i grup (aktywnych poziomów dostępu) - używana
+ * przez {@link AccountIdentityStore}. Wpisy wygasają po krótkim czasie, a zmiany kont wprowadzane przez
+ * {@link AccountManager} usuwają wpisy zmienionych kont po zatwierdzeniu transakcji. Dane wczytane w trakcie
+ * usuwania wpisu nie są zapisywane, ponieważ mogły zostać odczytane przed zatwierdzeniem zmiany.
+ */
+@Log
+@Startup
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CredentialCache {
+
+    private static final String PROPERTIES_FILE = "config.login.properties";
+
+    @Inject
+    private AccountFacade accountFacade;
+
+    private final ConcurrentMap<String, Credentials> credentials = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private long ttlMillis;
+    private int maxEntries;
+
+    /**
+     * Metoda wczytująca czas ważności i maksymalną liczbę wpisów.
+     */
+    @PostConstruct
+    public void init() {
+        Properties properties = new Properties();
+        try {
+            properties = ResourceBundles.loadProperties(PROPERTIES_FILE);
+        } catch (AppBaseException e) {
+            log.warning("Login configuration could not be loaded, default values will be used");
+        }
+        ttlMillis = Long.parseLong(properties.getProperty("credentialCacheTtlMillis", "60000").trim());
+        maxEntries = Integer.parseInt(properties.getProperty("credentialCacheMaxEntries", "10000").trim());
+    }
+
+    /**
+     * Metoda zwracająca dane uwierzytelniające aktywnego i potwierdzonego konta o podanym loginie.
+     * Dane pobierane są z bazy danych, jeśli nie ma ich w pamięci podręcznej lub wpis wygasł.
+     *
+     * @param login login
+     * @return obiekt typu Optional, pusty jeśli konto nie istnieje, jest zablokowane lub niepotwierdzone
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public Optional<Credentials> find(String login) throws AppBaseException {
+        long now = System.currentTimeMillis();
+        Credentials cached = credentials.get(login);
+        if (cached != null && cached.expiresAt > now) {
+            return Optional.of(cached);
+        }
+        long generation = invalidations.get();
+        Optional<Account> account = accountFacade.findByLogin(login);
+        if (!account.isPresent() || !account.get().isActive() || !account.get().isConfirmed()) {
+            credentials.remove(login);
+            return Optional.empty();
+        }
+        Set<String> groups = new LinkedHashSet<>();
+        for (AccessLevel accessLevel : account.get().getAccessLevelCollection()) {
+            if (accessLevel.getActive()) {
+                groups.add(accessLevel.getAccessLevel());
+            }
+        }
+        Credentials loaded = new Credentials(account.get().getPassword(), groups, now + ttlMillis);
+        if (credentials.size() >= maxEntries) {
+            credentials.values().removeIf(entry -> entry.expiresAt <= now);
+            if (credentials.size() >= maxEntries) {
+                credentials.clear();
+            }
+        }
+        credentials.compute(login, (key, current) -> invalidations.get() == generation ? loaded : current);
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Metoda usuwająca dane uwierzytelniające konta z pamięci podręcznej. Licznik usunięć zwiększany jest przed
+     * usunięciem wpisu, a metoda find sprawdza go i zapisuje wpis w jednej operacji compute, dlatego wpis zapisany
+     * przed zwiększeniem licznika zostanie usunięty, a po jego zwiększeniu - nie zostanie zapisany.
+     *
+     * @param login login
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public void invalidate(String login) {
+        invalidations.incrementAndGet();
+        credentials.remove(login);
+    }
+
+    /**
+     * Dane uwierzytelniające konta.
+     */
+    @Getter
+    public static class Credentials {
+
+        private final String passwordHash;
+        private final Set<String> groups;
+        private final long expiresAt;
+
+        private Credentials(String passwordHash, Set<String> groups, long expiresAt) {
+            this.passwordHash = passwordHash;
+            this.groups = Collections.unmodifiableSet(groups);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
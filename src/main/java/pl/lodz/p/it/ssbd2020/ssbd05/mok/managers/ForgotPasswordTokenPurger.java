@@ -0,0 +1,74 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mok.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.ForgotPasswordTokenFacade;
+
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Zadanie cykliczne usuwające tokeny do resetowania hasła, których data ważności minęła.
+ * Tokeny usuwane są paczkami, każda jednym zapytaniem w osobnej transakcji.
+ */
+@Log
+@Startup
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ForgotPasswordTokenPurger {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Inject
+    private ForgotPasswordTokenFacade forgotPasswordTokenFacade;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Metoda cyklicznie usuwająca wygasłe tokeny. Kolejne paczki usuwane są do wyczerpania wygasłych tokenów.
+     * Kolejne wywołanie nie rozpocznie się przed zakończeniem poprzedniego.
+     */
+    @Schedule(hour = "*", minute = "*/10", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void purgeExpiredTokens() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        int purged = 0;
+        try {
+            ForgotPasswordTokenPurger self = sessionContext.getBusinessObject(ForgotPasswordTokenPurger.class);
+            LocalDateTime now = LocalDateTime.now();
+            int deleted;
+            do {
+                deleted = self.purgeBatch(now);
+                purged += deleted;
+            } while (deleted == BATCH_SIZE);
+        } catch (AppBaseException | EJBException e) {
+            log.warning("Expired forgot password tokens could not be purged: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        if (purged > 0) {
+            log.info("Purged " + purged + " expired forgot password tokens");
+        }
+    }
+
+    /**
+     * Metoda usuwająca jedną paczkę wygasłych tokenów. Wywoływana wyłącznie przez metodę purgeExpiredTokens.
+     *
+     * @param now bieżąca data
+     * @return liczba usuniętych tokenów
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int purgeBatch(LocalDateTime now) throws AppBaseException {
+        return forgotPasswordTokenFacade.deleteExpired(now, BATCH_SIZE);
+    }
+}
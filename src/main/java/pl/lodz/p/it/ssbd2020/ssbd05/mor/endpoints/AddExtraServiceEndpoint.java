@@ -5,14 +5,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ExtraServiceMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ExtraServiceDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.AddExtraServiceEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ExtraServiceManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -32,28 +30,14 @@ public class AddExtraServiceEndpoint implements Serializable, AddExtraServiceEnd
 
     @Inject
     private ExtraServiceManager extraServiceManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private ExtraService extraService;
 
     @Override
     @RolesAllowed("addExtraService")
     public void addExtraService(ExtraServiceDTO extraServiceDTO) throws AppBaseException {
         extraService = ExtraServiceMapper.INSTANCE.createNewExtraService(extraServiceDTO);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                extraServiceManager.addExtraService(extraService);
-                rollback = extraServiceManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + extraServiceManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddExtraServiceEndpoint.addExtraService", extraServiceManager, () -> extraServiceManager.addExtraService(extraService));
     }
 }
@@ -5,14 +5,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReviewMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReviewDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Review;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.AddReviewEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReviewManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -33,6 +31,8 @@ public class AddReviewEndpoint implements AddReviewEndpointLocal, Serializable {
 
     @Inject
     private ReviewManager reviewManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Review review;
 
 
@@ -41,25 +41,11 @@ public class AddReviewEndpoint implements AddReviewEndpointLocal, Serializable {
     @RolesAllowed("addReview")
     public void addReview(ReviewDTO reviewDTO) throws AppBaseException {
         review = ReviewMapper.INSTANCE.createNewReview(reviewDTO);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                String clientLogin = reviewDTO.getClientLogin();
-                String reservationNumber = reviewDTO.getReservationNumber();
-                review.setDate(LocalDateTime.now());
-                reviewManager.addReview(review, clientLogin, reservationNumber);
-                rollback = reviewManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reviewManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddReviewEndpoint.addReview", reviewManager, () -> {
+            String clientLogin = reviewDTO.getClientLogin();
+            String reservationNumber = reviewDTO.getReservationNumber();
+            review.setDate(LocalDateTime.now());
+            reviewManager.addReview(review, clientLogin, reservationNumber);
+        });
     }
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReservationMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.NoncancelableReservationException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.ReservationStatusFinishedException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
@@ -14,9 +13,9 @@ import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ChangeReservationSt
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -36,29 +35,17 @@ import java.time.LocalDateTime;
 public class ChangeReservationStatusEndpoint implements Serializable, ChangeReservationStatusEndpointLocal {
     @Inject
     private ReservationManager reservationManager;
+    @Inject
+    private EmailSender emailSender;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Reservation reservation;
 
 
     @Override
     @RolesAllowed("getReservationByNumber")
     public ReservationDTO getReservationByNumber(String reservationNumber) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservation = reservationManager.getReservationByNumber(reservationNumber);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        reservation = transactionRetryExecutor.call("ChangeReservationStatusEndpoint.getReservationByNumber", reservationManager, () -> reservationManager.getReservationByNumber(reservationNumber));
         return ReservationMapper.INSTANCE.toReservationDTO(reservation);
     }
 
@@ -74,26 +61,8 @@ public class ChangeReservationStatusEndpoint implements Serializable, ChangeRese
             }
         }
         reservation.setStatus(reservationManager.getStatusByName(reservationDTO.getStatusName()));
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservationManager.changeReservationStatus(reservation);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        } else {
-            EmailSender emailSender = new EmailSender();
-            emailSender.sendChangingReservationStatusEmail(reservation.getClient().getAccount().getEmail(), reservation.getReservationNumber(), ResourceBundles.getTranslatedText(reservation.getStatus().getStatusName()));
-        }
+        transactionRetryExecutor.run("ChangeReservationStatusEndpoint.changeReservationStatus", reservationManager, () -> reservationManager.changeReservationStatus(reservation));
+        emailSender.sendChangingReservationStatusEmail(reservation.getClient().getAccount().getEmail(), reservation.getReservationNumber(), ResourceBundles.getTranslatedText(reservation.getStatus().getStatusName()));
     }
 
     @Override
@@ -103,22 +72,6 @@ public class ChangeReservationStatusEndpoint implements Serializable, ChangeRese
             reservation.getStatus().getStatusName().equalsIgnoreCase(ReservationStatuses.finished.name()))
             throw new NoncancelableReservationException();
         reservation.setStatus(reservationManager.getStatusCancelled());
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservationManager.cancelReservation(reservation);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("ChangeReservationStatusEndpoint.cancelReservation", reservationManager, () -> reservationManager.cancelReservation(reservation));
     }
 }
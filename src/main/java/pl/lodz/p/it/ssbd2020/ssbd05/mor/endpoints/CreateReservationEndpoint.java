@@ -14,17 +14,14 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
-import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.CreateReservationEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ExtraServiceManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.DateFormatter;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -34,7 +31,6 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -53,6 +49,8 @@ public class CreateReservationEndpoint implements Serializable, CreateReservatio
 
     @Inject
     private ExtraServiceManager extraServiceManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Getter
     @Setter
@@ -64,87 +62,28 @@ public class CreateReservationEndpoint implements Serializable, CreateReservatio
 
     @Override
     @RolesAllowed("getUnavailableDates")
-    public List<UnavailableDate> getUnavailableDates(String hallName) throws AppBaseException {
-        Collection<ReservationDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getAllReservations());
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-
-        List<UnavailableDate> dates = new ArrayList<>();
-        for (ReservationDTO res : list) {
-            if (!res.getStatusName().equalsIgnoreCase(ReservationStatuses.cancelled.name())) {
-                if (res.getHallName().equalsIgnoreCase(hallName)) {
-                    dates.add(new UnavailableDate(LocalDateTime.parse(res.getStartDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
-                            LocalDateTime.parse(res.getEndDate(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-                }
-            }
-        }
-        return new ArrayList<>(dates);
+    public List<UnavailableDate> getUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException {
+        return transactionRetryExecutor.call("CreateReservationEndpoint.getUnavailableDates", reservationManager, () -> reservationManager.getUnavailableDates(hallName, from, to));
     }
 
     @Override
     @RolesAllowed("getHallByName")
     public HallDTO getHallByName(String hallName) throws AppBaseException {
-        HallDTO hallDTO = new HallDTO();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.hall = reservationManager.getHallByName(hallName);
-                hallDTO = HallMapper.INSTANCE.toHallDTO(hall);
-                ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(extraServiceManager.getAllExtraServices());
-
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return hallDTO;
+        return transactionRetryExecutor.call("CreateReservationEndpoint.getHallByName", reservationManager, () -> {
+            this.hall = reservationManager.getHallByName(hallName);
+            HallDTO hallDTO = HallMapper.INSTANCE.toHallDTO(hall);
+            ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(extraServiceManager.getAllExtraServices());
+            return hallDTO;
+        });
     }
 
     @Override
     @RolesAllowed("getAllExtraServices")
     public List<ExtraServiceDTO> getAllExtraServices() throws AppBaseException {
-        Collection<ExtraServiceDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.extraServiceList = extraServiceManager.getAllExtraServices();
-                list = ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(this.extraServiceList);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        Collection<ExtraServiceDTO> list = transactionRetryExecutor.call("CreateReservationEndpoint.getAllExtraServices", reservationManager, () -> {
+            this.extraServiceList = extraServiceManager.getAllExtraServices();
+            return ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(this.extraServiceList);
+        });
         Collection<ExtraServiceDTO> listTemp = new ArrayList<>();
         for (ExtraServiceDTO ext : list) {
             if (ext.isActive()) {
@@ -182,26 +121,9 @@ public class CreateReservationEndpoint implements Serializable, CreateReservatio
 
         reservation.setHall(hall);
         reservation.setTotalPrice(calculateTotalPrice(reservation.getStartDate(), reservation.getEndDate(), hall.getPrice(), reservation.getGuestsNumber(), extraServicesTotalPrice));
-        reservation.setReservationNumber(reservationDTO.getReservationNumber());
-
-
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservationManager.createReservation(reservation);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+
+
+        transactionRetryExecutor.run("CreateReservationEndpoint.createReservation", reservationManager, () -> reservationManager.createReservation(reservation));
     }
 
 
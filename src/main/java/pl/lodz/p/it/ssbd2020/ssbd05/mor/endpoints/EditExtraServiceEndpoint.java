@@ -5,14 +5,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ExtraServiceMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ExtraServiceDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.EditExtraServiceEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ExtraServiceManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -30,28 +28,14 @@ import java.io.Serializable;
 public class EditExtraServiceEndpoint implements Serializable, EditExtraServiceEndpointLocal {
     @Inject
     private ExtraServiceManager extraServiceManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private ExtraService extraService;
 
     @Override
     @RolesAllowed("getExtraServiceByName")
     public ExtraServiceDTO getExtraServiceByName(String name) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                extraService = extraServiceManager.getExtraServiceByName(name);
-                rollback = extraServiceManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + extraServiceManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        extraService = transactionRetryExecutor.call("EditExtraServiceEndpoint.getExtraServiceByName", extraServiceManager, () -> extraServiceManager.getExtraServiceByName(name));
         return ExtraServiceMapper.INSTANCE.toExtraServiceDTO(extraService);
     }
 
@@ -60,22 +44,6 @@ public class EditExtraServiceEndpoint implements Serializable, EditExtraServiceE
     public void editExtraService(ExtraServiceDTO extraServiceDTO) throws AppBaseException {
 
         ExtraServiceMapper.INSTANCE.updateExtraServiceFromDTO(extraServiceDTO, extraService);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                extraServiceManager.editExtraService(extraService);
-                rollback = extraServiceManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + extraServiceManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditExtraServiceEndpoint.editExtraService", extraServiceManager, () -> extraServiceManager.editExtraService(extraService));
     }
 }
@@ -15,17 +15,15 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.EditReservationEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ExtraServiceManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationManager;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.DateFormatter;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -35,7 +33,6 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -58,6 +55,8 @@ public class EditReservationEndpoint implements Serializable, EditReservationEnd
 
     @Inject
     private ExtraServiceManager extraServiceManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Getter
     private Hall hall;
@@ -69,23 +68,7 @@ public class EditReservationEndpoint implements Serializable, EditReservationEnd
     @Override
     @RolesAllowed("getReservationByNumber")
     public ReservationDTO getReservationByNumber(String number) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservation = reservationManager.getReservationByNumber(number);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        reservation = transactionRetryExecutor.call("EditReservationEndpoint.getReservationByNumber", reservationManager, () -> reservationManager.getReservationByNumber(number));
         return ReservationMapper.INSTANCE.toReservationDTO(reservation);
     }
 
@@ -111,46 +94,16 @@ public class EditReservationEndpoint implements Serializable, EditReservationEnd
         }
         reservation.setTotalPrice(calculateTotalPrice(reservation.getStartDate(),reservation.getEndDate(),hall.getPrice(),reservation.getGuestsNumber(),extraServicesTotalPrice));
 
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservationManager.editReservation(reservation);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditReservationEndpoint.editReservation", reservationManager, () -> reservationManager.editReservation(reservation));
     }
 
     @Override
     @RolesAllowed("GetHallForReservation")
     public HallDTO getHallByName(String name) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                 hall = reservationManager.getHallByName(name);
-                eventTypes = EventTypeMapper.toEventTypeStringCollection(hall.getEvent_type());
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditReservationEndpoint.getHallByName", reservationManager, () -> {
+            hall = reservationManager.getHallByName(name);
+            eventTypes = EventTypeMapper.toEventTypeStringCollection(hall.getEvent_type());
+        });
         return HallMapper.INSTANCE.toHallDTO(hall);
     }
 
@@ -158,25 +111,10 @@ public class EditReservationEndpoint implements Serializable, EditReservationEnd
     @RolesAllowed("getAllExtraServicesForReservation")
     public List<ExtraServiceDTO> getAllExtraServices() throws AppBaseException{
 
-        List<ExtraServiceDTO> extraServices = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.extraServiceList = extraServiceManager.getAllExtraServices();
-                extraServices = ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(reservationManager.getAllExtraServices());
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        List<ExtraServiceDTO> extraServices = transactionRetryExecutor.call("EditReservationEndpoint.getAllExtraServices", reservationManager, () -> {
+            this.extraServiceList = extraServiceManager.getAllExtraServices();
+            return ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(reservationManager.getAllExtraServices());
+        });
         Collection<ExtraServiceDTO> extraServicesActiveList = new ArrayList<>();
         for (ExtraServiceDTO ext : extraServices) {
             if (ext.isActive()) {
@@ -188,34 +126,8 @@ public class EditReservationEndpoint implements Serializable, EditReservationEnd
 
     @Override
     @RolesAllowed("getUnavailableDates")
-    public List<UnavailableDate> getUnavailableDates(String hallName) throws AppBaseException {
-        Collection<ReservationDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getAllReservations());
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-
-        List<UnavailableDate> dates = new ArrayList<>();
-        for (ReservationDTO res : list) {
-            if(res.getHallName().equalsIgnoreCase(hallName)){
-                dates.add(new UnavailableDate(LocalDateTime.parse(res.getStartDate(), DateTimeFormatter.ofPattern( "yyyy-MM-dd HH:mm:ss" )),
-                        LocalDateTime.parse(res.getEndDate(),DateTimeFormatter.ofPattern( "yyyy-MM-dd HH:mm:ss" ))));
-            }
-        }
-        return new ArrayList<>(dates);
+    public List<UnavailableDate> getUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException {
+        return transactionRetryExecutor.call("EditReservationEndpoint.getUnavailableDates", reservationManager, () -> reservationManager.getUnavailableDates(hallName, from, to));
     }
 
     public double calculateTotalPrice(LocalDateTime startDate,LocalDateTime endDate,double hallPrice,
@@ -5,14 +5,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReviewMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReviewDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Review;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.EditReviewEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReviewManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -30,29 +28,15 @@ import java.io.Serializable;
 public class EditReviewEndpoint implements EditReviewEndpointLocal, Serializable {
     @Inject
     private ReviewManager reviewManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Review review;
 
 
     @Override
     @RolesAllowed("getReviewByReviewNumber")
     public ReviewDTO getReviewByReviewNumber(String reviewNumber) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                review = reviewManager.getReviewByReviewNumber(reviewNumber);
-                rollback = reviewManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reviewManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        review = transactionRetryExecutor.call("EditReviewEndpoint.getReviewByReviewNumber", reviewManager, () -> reviewManager.getReviewByReviewNumber(reviewNumber));
         return ReviewMapper.INSTANCE.toReviewDTO(review);
     }
 
@@ -60,44 +44,12 @@ public class EditReviewEndpoint implements EditReviewEndpointLocal, Serializable
     @RolesAllowed("editReview")
     public void editReview(ReviewDTO reviewDTO) throws AppBaseException{
         ReviewMapper.INSTANCE.updateAndCheckReviewFromDTO(reviewDTO, review);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reviewManager.editReview(review);
-                rollback = reviewManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reviewManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditReviewEndpoint.editReview", reviewManager, () -> reviewManager.editReview(review));
     }
     @Override
     @RolesAllowed("removeReview")
     public void removeReview(ReviewDTO reviewDTO) throws AppBaseException {
         ReviewMapper.INSTANCE.updateAndCheckReviewFromDTO(reviewDTO, review);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reviewManager.removeReview(review);
-                rollback = reviewManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reviewManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditReviewEndpoint.removeReview", reviewManager, () -> reviewManager.removeReview(review));
     }
 }
@@ -5,14 +5,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ExtraServiceMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ExtraServiceDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ExtraService;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListExtraServicesEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ExtraServiceManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -33,28 +31,14 @@ public class ListExtraServicesEndpoint implements Serializable, ListExtraService
 
     @Inject
     private ExtraServiceManager extraServiceManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private List<ExtraService> list;
 
     @Override
     @RolesAllowed("getAllExtraServices")
     public List<ExtraServiceDTO> getAllExtraServices() throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = extraServiceManager.getAllExtraServices();
-                rollback = extraServiceManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + extraServiceManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        list = transactionRetryExecutor.call("ListExtraServicesEndpoint.getAllExtraServices", extraServiceManager, () -> extraServiceManager.getAllExtraServices());
         return ExtraServiceMapper.INSTANCE.toExtraServiceDTOList(list);
     }
 
@@ -65,22 +49,6 @@ public class ListExtraServicesEndpoint implements Serializable, ListExtraService
     @Override
     @RolesAllowed("changeExtraServiceActivity")
     public void changeActivity(ExtraServiceDTO extraServiceDTO) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                extraServiceManager.changeActivity(findFromList(extraServiceDTO.getServiceName()));
-                rollback = extraServiceManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + extraServiceManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("ListExtraServicesEndpoint.changeActivity", extraServiceManager, () -> extraServiceManager.changeActivity(findFromList(extraServiceDTO.getServiceName())));
     }
 }
@@ -1,24 +1,21 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints;
 
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReviewMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReviewDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListReviewsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReviewManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *  Punkt dostępowy implementujący interfejs ListReviewsEndpointLocal
@@ -31,29 +28,15 @@ import java.util.List;
 public class ListReviewsEndpoint implements ListReviewsEndpointLocal {
     @Inject
     private ReviewManager reviewManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Override
     @PermitAll
-    public List<ReviewDTO> getAllReviews() throws AppBaseException{
-        ArrayList<ReviewDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = ReviewMapper.INSTANCE.toReviewDTOArrayList(reviewManager.getAllReviews());
-                rollback = reviewManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reviewManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return list;
+    public PageDTO<ReviewDTO> getReviewsPage(int first, int pageSize) throws AppBaseException {
+        return transactionRetryExecutor.call("ListReviewsEndpoint.getReviewsPage", reviewManager, () -> new PageDTO<>(
+                ReviewMapper.INSTANCE.toReviewDTOArrayList(reviewManager.getReviewsPage(first, pageSize)),
+                reviewManager.countReviews()));
     }
 
 }
@@ -1,17 +1,16 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints;
 
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReservationMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListUserReservationsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -19,8 +18,9 @@ import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Punkt dostępowy implementujący interfejs ListUserReservationsEndpointLocal
@@ -32,54 +32,33 @@ import java.util.List;
 @Interceptors(TrackerInterceptor.class)
 public class ListUserReservationsEndpoint implements Serializable, ListUserReservationsEndpointLocal {
 
+    private static final Map<String, String> SORT_PATHS = new HashMap<>();
+
+    static {
+        SORT_PATHS.put("hallName", "hall.name");
+        SORT_PATHS.put("eventTypeName", "eventType.typeName");
+        SORT_PATHS.put("statusName", "status.statusName");
+        SORT_PATHS.put("startDate", "startDate");
+        SORT_PATHS.put("endDate", "endDate");
+    }
+
     @Inject
     private ReservationManager reservationManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Override
     @RolesAllowed("getAllUsersReservations")
-    public List<ReservationDTO> getAllUsersReservations(String login) throws AppBaseException {
-        Collection<ReservationDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getAllUsersReservations(login));
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return (List<ReservationDTO>) list;
+    public PageDTO<ReservationDTO> getUsersReservationsPage(String login, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        String sortPath = SORT_PATHS.get(sortField);
+        return transactionRetryExecutor.call("ListUserReservationsEndpoint.getUsersReservationsPage", reservationManager, () -> new PageDTO<>(
+                new ArrayList<>(ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getUsersReservationsPage(login, first, pageSize, sortPath, ascending))),
+                reservationManager.countUsersReservations(login)));
     }
 
     @Override
     @RolesAllowed("getUserReviewableReservations")
     public List<ReservationDTO> getUserReviewableReservations(String login) throws AppBaseException {
-        List<ReservationDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = (List<ReservationDTO>) ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getUserReviewableReservations(login));
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return list;
+        return transactionRetryExecutor.call("ListUserReservationsEndpoint.getUserReviewableReservations", reservationManager, () -> (List<ReservationDTO>) ReservationMapper.INSTANCE.toReservationDTOCollection(reservationManager.getUserReviewableReservations(login)));
     }
 }
@@ -7,14 +7,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mor.ReservationMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ReservationDetailsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -33,6 +31,8 @@ import java.io.Serializable;
 public class ReservationDetailsEndpoint implements Serializable, ReservationDetailsEndpointLocal {
     @Inject
     private ReservationManager reservationManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     @Getter
     @Setter
     private Reservation reservation;
@@ -40,23 +40,7 @@ public class ReservationDetailsEndpoint implements Serializable, ReservationDeta
     @Override
     @RolesAllowed("getReservationByNumber")
     public ReservationDTO getReservationByNumber(String number) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                reservation = reservationManager.getReservationByNumber(number);
-                rollback = reservationManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + reservationManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        reservation = transactionRetryExecutor.call("ReservationDetailsEndpoint.getReservationByNumber", reservationManager, () -> reservationManager.getReservationByNumber(number));
         return ReservationMapper.INSTANCE.toReservationDTO(reservation);
     }
 
@@ -18,13 +18,15 @@ import java.util.List;
 public interface CreateReservationEndpointLocal {
 
     /**
-     * Metoda odpowiedzialna za pobranie rezerwacji i utworzenie niedostępnych okienek czasowych dla wybranej przez użytkownika sali
+     * Metoda odpowiedzialna za pobranie niedostępnych okienek czasowych wybranej sali w widocznym przedziale kalendarza
      *
-     * @param hallName nazwa sali, w której użytkownik chce dokonać rezerwacji
+     * @param hallName nazwa sali
+     * @param from     początek widocznego przedziału
+     * @param to       koniec widocznego przedziału
      * @return lista niedostępnych terminów
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    List<UnavailableDate> getUnavailableDates(String hallName) throws AppBaseException;
+    List<UnavailableDate> getUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException;
 
     /**
      *
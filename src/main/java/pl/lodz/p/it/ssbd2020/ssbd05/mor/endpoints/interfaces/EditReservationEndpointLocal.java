@@ -52,13 +52,15 @@ public interface EditReservationEndpointLocal {
     List<ExtraServiceDTO> getAllExtraServices() throws AppBaseException;
 
     /**
-     * Pobierz wszystkie niedostępne terminy dla wybranej przez użytkownika sali
+     * Metoda odpowiedzialna za pobranie niedostępnych okienek czasowych wybranej sali w widocznym przedziale kalendarza
      *
-     * @param hallName nazwa sali, w której użytkownik chce dokonać rezerwacji
+     * @param hallName nazwa sali
+     * @param from     początek widocznego przedziału
+     * @param to       koniec widocznego przedziału
      * @return lista niedostępnych terminów
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    List<UnavailableDate> getUnavailableDates(String hallName) throws AppBaseException;
+    List<UnavailableDate> getUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException;
 
     /**
      * Metoda wykorzystywana do obliczenia całkowitej ceny rezerwacji
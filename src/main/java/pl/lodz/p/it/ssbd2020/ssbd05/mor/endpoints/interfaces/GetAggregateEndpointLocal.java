@@ -1,22 +1,40 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces;
 
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.AverageGuestNumberDTO;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationStatisticsDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
 import javax.ejb.Local;
+import java.util.List;
 
 /**
  * Interfejs dla punktu dostępowego GetAggregateEndpoint, pośredniczącego
- * przy pobieraniu z bazy danych obiektu encyjnego agregatu
+ * przy pobieraniu statystyk zakończonych rezerwacji
  */
 @Local
 public interface GetAggregateEndpointLocal {
 
     /**
-     * Metoda odpowiedzialna za pobranie agregatu z bazy
+     * Metoda odpowiedzialna za pobranie łącznej i średniej liczby gości zakończonych rezerwacji
      *
      * @return Obiekt typu AverageGuestNumberDTO
      * @throws AppBaseException Podstawowy wyjątek aplikacyjny
      */
     AverageGuestNumberDTO getAggregate() throws AppBaseException;
+
+    /**
+     * Metoda odpowiedzialna za pobranie statystyk zakończonych rezerwacji dla każdej sali
+     *
+     * @return Lista obiektów typu ReservationStatisticsDTO
+     * @throws AppBaseException Podstawowy wyjątek aplikacyjny
+     */
+    List<ReservationStatisticsDTO> getHallStatistics() throws AppBaseException;
+
+    /**
+     * Metoda odpowiedzialna za pobranie statystyk zakończonych rezerwacji dla każdego typu wydarzenia
+     *
+     * @return Lista obiektów typu ReservationStatisticsDTO
+     * @throws AppBaseException Podstawowy wyjątek aplikacyjny
+     */
+    List<ReservationStatisticsDTO> getEventTypeStatistics() throws AppBaseException;
 }
@@ -1,10 +1,10 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces;
 
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
 import javax.ejb.Local;
-import java.util.List;
 
 /**
  * Interfejs dla punktu dostępowego ListReservationEndpoint pośredniczącego
@@ -13,19 +13,16 @@ import java.util.List;
 @Local
 public interface ListReservationEndpointLocal {
     /**
-     * Metoda odpowiedzialna za pobranie listy wszystkich rezerwacji.
+     * Metoda odpowiedzialna za pobranie strony listy rezerwacji wraz z liczbą wszystkich rezerwacji zgodnych z filtrem.
      *
-     * @return lista wszystkich rezerwacji w postacji obiektów typu ReservationDTO
+     * @param filter    filtr, rezerwacje filtrowane są po loginie, imieniu, nazwisku oraz numerze rezerwacji. Wielkość liter nie ma znaczenia.
+     *                  Pusty filtr oznacza wszystkie rezerwacje.
+     * @param first     indeks pierwszej rezerwacji strony
+     * @param pageSize  rozmiar strony
+     * @param sortField nazwa pola obiektu ReservationDTO, po którym sortowana jest lista, lub null
+     * @param ascending kierunek sortowania
+     * @return strona listy rezerwacji w postaci obiektów typu ReservationDTO
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    List<ReservationDTO> getAllReservations() throws AppBaseException;
-
-    /**
-     * Metoda odpowiedzalna za pobranie przefiltrowanej listy rezerwacji.
-     *
-     * @param filter filtr, rezerwacje filtrowane są po loginie, imieniu, nazwisku oraz numerze rezerwacji. Wielkość liter nie ma znaczenia.
-     * @return przefiltrowana lista rezerwacji w postaci obiektów typu ReservationDTO
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    List<ReservationDTO> filterReservations(String filter) throws AppBaseException;
+    PageDTO<ReservationDTO> getReservationsPage(String filter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException;
 }
@@ -1,10 +1,10 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces;
 
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReviewDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
 import javax.ejb.Local;
-import java.util.List;
 
 /**
  * Interfejs dla punktu dostępowego ListReviewsEndpoint pośredniczącego
@@ -13,10 +13,12 @@ import java.util.List;
 @Local
 public interface ListReviewsEndpointLocal {
     /**
-     * Metoda pobierająca listę wszystkich opinii.
+     * Metoda pobierająca stronę listy opinii wraz z liczbą wszystkich opinii.
      *
-     * @return lista wszystkich opinii w postacji obiektów typu ReviewDTO
+     * @param first    indeks pierwszej opinii strony
+     * @param pageSize rozmiar strony
+     * @return strona listy opinii w postaci obiektów typu ReviewDTO
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    List<ReviewDTO> getAllReviews() throws AppBaseException;
+    PageDTO<ReviewDTO> getReviewsPage(int first, int pageSize) throws AppBaseException;
 }
@@ -1,5 +1,6 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces;
 
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
@@ -13,13 +14,18 @@ import java.util.List;
 @Local
 public interface ListUserReservationsEndpointLocal {
     /**
-     * Metoda odpowiedzialna za pobranie wszystkich rezerwacji użytkownika o podanej nazwie użytkownika
+     * Metoda odpowiedzialna za pobranie strony listy rezerwacji użytkownika o podanej nazwie użytkownika
+     * wraz z liczbą wszystkich jego rezerwacji
      *
-     * @param login nazwa użytkownika
-     * @return lista wszystkich rezerwacji użytkownika
+     * @param login     nazwa użytkownika
+     * @param first     indeks pierwszej rezerwacji strony
+     * @param pageSize  rozmiar strony
+     * @param sortField nazwa pola obiektu ReservationDTO, po którym sortowana jest lista, lub null
+     * @param ascending kierunek sortowania
+     * @return strona listy rezerwacji użytkownika
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    List<ReservationDTO> getAllUsersReservations(String login) throws AppBaseException;
+    PageDTO<ReservationDTO> getUsersReservationsPage(String login, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException;
 
     /**
      * Metoda zwracająca listę rezerwacji w postaci obiektów ReservationDTO, dla których możliwe jest dodanie opinii przez konto z podaną nazwą użytkownika.
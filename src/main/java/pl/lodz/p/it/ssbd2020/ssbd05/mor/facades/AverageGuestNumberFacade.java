@@ -58,6 +58,47 @@ public class AverageGuestNumberFacade extends AbstractFacade<AverageGuestNumber>
         }
     }
 
+    /**
+     * Dolicz do agregatu podane liczby wydarzeń i gości jednym zapytaniem aktualizującym,
+     * bez wczytywania agregatu i ryzyka konfliktu wersji przy równoległych zmianach.
+     *
+     * @param events liczba zakończonych wydarzeń
+     * @param guests łączna liczba gości tych wydarzeń
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public void addDelta(long events, long guests) throws AppBaseException {
+        try {
+            em.createNamedQuery("AverageGuestNumber.addDelta")
+                    .setParameter("events", events)
+                    .setParameter("guests", guests)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Nadpisz wartości agregatu jednym zapytaniem aktualizującym, np. po odbudowie statystyk.
+     *
+     * @param events  liczba zakończonych wydarzeń
+     * @param guests  łączna liczba gości
+     * @param average średnia liczba gości zaokrąglona do liczby całkowitej
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public void setTotals(long events, long guests, long average) throws AppBaseException {
+        try {
+            em.createNamedQuery("AverageGuestNumber.setTotals")
+                    .setParameter("events", events)
+                    .setParameter("guests", guests)
+                    .setParameter("average", average)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
     @DenyAll
     public Optional<AverageGuestNumber> find(Object id) {
@@ -5,6 +5,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -68,6 +69,7 @@ public class EventTypesFacade extends AbstractFacade<EventType> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed("getEventTypeByName")
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<EventType> findByName(String name) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("EventTypes.findByTypeName", EventType.class)
@@ -8,6 +8,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockExce
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseQueryException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.ExtraServiceAlreadyExistsException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -19,6 +20,8 @@ import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.*;
 import java.sql.SQLNonTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -100,6 +103,7 @@ public class ExtraServiceFacade extends AbstractFacade<ExtraService> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed("getExtraServiceByName")
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<ExtraService> findByName(String name) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("ExtraService.findByServiceName", ExtraService.class)
@@ -111,6 +115,26 @@ public class ExtraServiceFacade extends AbstractFacade<ExtraService> {
         }
     }
 
+    /**
+     * Pobierz usługi dodatkowe o podanych nazwach jednym zapytaniem
+     *
+     * @param names nazwy usług dodatkowych
+     * @return lista znalezionych usług dodatkowych
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getExtraServiceByName")
+    public List<ExtraService> findByNames(Collection<String> names) throws AppBaseException {
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return this.em.createNamedQuery("ExtraService.findByServiceNames", ExtraService.class)
+                    .setParameter("serviceNames", names).getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
     @DenyAll
     public void remove(ExtraService entity) throws AppBaseException {
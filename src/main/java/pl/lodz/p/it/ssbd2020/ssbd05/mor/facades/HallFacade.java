@@ -1,10 +1,13 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mor.facades;
 
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 import org.eclipse.persistence.exceptions.DatabaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -15,6 +18,7 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.PersistenceException;
@@ -86,6 +90,7 @@ public class HallFacade extends AbstractFacade<Hall> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed("getHallByName")
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Hall> findByName(String name) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Hall.findByName", Hall.class)
@@ -97,6 +102,30 @@ public class HallFacade extends AbstractFacade<Hall> {
         }
     }
 
+    /**
+     * Pobierz Hall według nazwy i zablokuj jej wiersz do końca bieżącej transakcji (SELECT ... FOR UPDATE).
+     * Pozwala szeregować zapisy rezerwacji wyłącznie w obrębie jednej sali. Zapytanie zawsze trafia do bazy danych
+     * z pominięciem pamięci podręcznej wyników, a odczytany stan sali odświeża pamięć podręczną encji.
+     *
+     * @param name nazwa sali do pobrania
+     * @return optional Hall
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed({"createReservation", "editReservation"})
+    public Optional<Hall> findByNameForUpdate(String name) throws AppBaseException {
+        try {
+            return Optional.ofNullable(this.em.createNamedQuery("Hall.findByName", Hall.class)
+                    .setParameter("name", name)
+                    .setHint(QueryHints.QUERY_RESULTS_CACHE, HintValues.FALSE)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getSingleResult());
+        } catch (NoResultException noResultException) {
+            return Optional.empty();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
     @DenyAll
     public int count() {
@@ -3,17 +3,24 @@ package pl.lodz.p.it.ssbd2020.ssbd05.mor.facades;
 import lombok.extern.java.Log;
 import org.eclipse.persistence.exceptions.DatabaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.UnavailableDate;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Status;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseQueryException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.DateOverlapException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.ReservationNotFoundException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.FetchPlan;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.SimilarityQuery;
 
 import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
@@ -22,6 +29,8 @@ import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.*;
 import java.sql.SQLNonTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +44,32 @@ import java.util.Optional;
 @Interceptors(TrackerInterceptor.class)
 public class ReservationFacade extends AbstractFacade<Reservation> {
 
+    /**
+     * Plan pobierania relacji wyświetlanych wraz z rezerwacją. Konto klienta dołączane jest do zapytania,
+     * usługi dodatkowe, opinie i tokeny konta pobierane są jednym zapytaniem dla całej listy, a status,
+     * typ imprezy i sala odczytywane są z pamięci podręcznej drugiego poziomu.
+     */
+    static final FetchPlan DISPLAY_FETCH_PLAN = new FetchPlan()
+            .join("client.account")
+            .batch("extra_service")
+            .batch("review")
+            .batch("client.account.forgotPasswordToken");
+
+    /**
+     * Zapytanie filtrujące rezerwacje po numerze rezerwacji oraz loginie, imieniu i nazwisku klienta.
+     * Każda kolumna przeszukiwana jest z użyciem własnego indeksu trigramowego.
+     */
+    static final SimilarityQuery FILTER_QUERY = new SimilarityQuery()
+            .column("r.id", "ssbd05schema.reservation r", "r.reservation_number")
+            .column("r.id", "ssbd05schema.account_login_data l JOIN ssbd05schema.access_level a ON a.account_id = l.id"
+                    + " JOIN ssbd05schema.reservation r ON r.client_id = a.id", "l.login")
+            .column("r.id", "ssbd05schema.account_personal_data p JOIN ssbd05schema.access_level a ON a.account_id = p.id"
+                    + " JOIN ssbd05schema.reservation r ON r.client_id = a.id", "p.firstname")
+            .column("r.id", "ssbd05schema.account_personal_data p JOIN ssbd05schema.access_level a ON a.account_id = p.id"
+                    + " JOIN ssbd05schema.reservation r ON r.client_id = a.id", "p.lastname");
+
+    private static final int FILTER_RESULT_LIMIT = 200;
+
     @PersistenceContext(unitName = "ssbd05morPU")
     private EntityManager em;
 
@@ -51,9 +86,28 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     }
 
     @Override
-    @DenyAll
+    protected FetchPlan getFetchPlan() {
+        return DISPLAY_FETCH_PLAN;
+    }
+
+    @Override
+    @RolesAllowed("createReservation")
     public void create(Reservation entity) throws AppBaseException {
+        try {
             super.create(entity);
+        } catch (DatabaseException ex) {
+            if (ex.getCause() instanceof SQLNonTransientConnectionException) {
+                throw new DatabaseConnectionException(ex);
+            } else {
+                throw new DatabaseQueryException(ex);
+            }
+        } catch (PersistenceException e) {
+            if (e.getMessage().contains("reservation_overlap_dates_ck")) {
+                throw new DateOverlapException();
+            } else {
+                throw new DatabaseQueryException(e);
+            }
+        }
     }
 
     @Override
@@ -102,9 +156,10 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed("getReservationByNumber")
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Reservation> findByNumber(String number) throws AppBaseException {
         try {
-            return Optional.ofNullable(this.em.createNamedQuery("Reservation.findByReservationNumber", Reservation.class)
+            return Optional.ofNullable(DISPLAY_FETCH_PLAN.applyTo(this.em.createNamedQuery("Reservation.findByReservationNumber", Reservation.class))
                     .setParameter("reservationNumber", number).getSingleResult());
         } catch (NoResultException noResultException) {
             throw new ReservationNotFoundException(noResultException);
@@ -114,22 +169,144 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     }
 
     /**
-     * Metoda odpowiadająca za filtrowanie rezerwacji
+     * Pobierz stronę rezerwacji spełniających filtr. Niepusty filtr wybiera najwyżej 200 rezerwacji najbardziej
+     * podobnych do filtra, które bez podanego atrybutu sortowania uporządkowane są według podobieństwa.
+     *
+     * @param filter    filtr, rezerwacje filtrowane są po loginie, imieniu, nazwisku oraz numerze rezerwacji.
+     *                  Wielkość liter nie ma znaczenia. Pusty filtr oznacza wszystkie rezerwacje.
+     * @param first     indeks pierwszej rezerwacji
+     * @param pageSize  rozmiar strony
+     * @param sortField ścieżka atrybutu sortowania lub null
+     * @param ascending czy sortować rosnąco
+     * @return lista rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed({"getAllReservations", "filterReservations"})
+    public List<Reservation> findRange(String filter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        try {
+            if (filter == null || filter.isEmpty()) {
+                return super.findRange(null, first, pageSize, sortField, ascending);
+            }
+            List<Long> rankedIds = findRankedIds(FILTER_QUERY, filter, FILTER_RESULT_LIMIT);
+            if (sortField == null) {
+                return findRankedRange(rankedIds, first, pageSize);
+            }
+            return super.findRange(idRestriction(rankedIds), first, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę rezerwacji spełniających filtr, następującą po rezerwacji wskazanej przez kursor.
+     *
+     * @param filter        filtr rezerwacji
+     * @param lastSortValue wartość atrybutu sortowania ostatniej rezerwacji poprzedniej strony
+     * @param lastId        identyfikator ostatniej rezerwacji poprzedniej strony
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed({"getAllReservations", "filterReservations"})
+    public List<Reservation> findRangeAfter(String filter, Object lastSortValue, Object lastId, int pageSize,
+                                            String sortField, boolean ascending) throws AppBaseException {
+        try {
+            if (filter == null || filter.isEmpty()) {
+                return super.findRangeAfter(null, lastSortValue, lastId, pageSize, sortField, ascending);
+            }
+            List<Long> rankedIds = findRankedIds(FILTER_QUERY, filter, FILTER_RESULT_LIMIT);
+            if (sortField == null) {
+                return findRankedRangeAfter(rankedIds, lastId, pageSize);
+            }
+            return super.findRangeAfter(idRestriction(rankedIds), lastSortValue, lastId, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz liczbę rezerwacji spełniających filtr.
+     *
+     * @param filter filtr rezerwacji
+     * @return liczba rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed({"getAllReservations", "filterReservations"})
+    public int count(String filter) throws AppBaseException {
+        try {
+            if (filter == null || filter.isEmpty()) {
+                return super.count(null);
+            }
+            return findRankedIds(FILTER_QUERY, filter, FILTER_RESULT_LIMIT).size();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę rezerwacji użytkownika.
+     *
+     * @param login     nazwa użytkownika
+     * @param first     indeks pierwszej rezerwacji
+     * @param pageSize  rozmiar strony
+     * @param sortField ścieżka atrybutu sortowania lub null
+     * @param ascending czy sortować rosnąco
+     * @return lista rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getAllUsersReservations")
+    public List<Reservation> findRangeByLogin(String login, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        try {
+            return super.findRange(loginRestriction(login), first, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę rezerwacji użytkownika, następującą po rezerwacji wskazanej przez kursor.
+     *
+     * @param login         nazwa użytkownika
+     * @param lastSortValue wartość atrybutu sortowania ostatniej rezerwacji poprzedniej strony
+     * @param lastId        identyfikator ostatniej rezerwacji poprzedniej strony
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getAllUsersReservations")
+    public List<Reservation> findRangeByLoginAfter(String login, Object lastSortValue, Object lastId, int pageSize,
+                                                   String sortField, boolean ascending) throws AppBaseException {
+        try {
+            return super.findRangeAfter(loginRestriction(login), lastSortValue, lastId, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz liczbę rezerwacji użytkownika.
      *
-     * @param filter filtr, rezerwacje filtorwane są po loginie, imieniu, nazwisku oraz numerze rezerwacji. Wielkość liter nie ma znaczenia.
-     * @return przefiltrowana lista rezerwacji
+     * @param login nazwa użytkownika
+     * @return liczba rezerwacji
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    @RolesAllowed("filterReservations")
-    public List<Reservation> filterReservations(String filter) throws AppBaseException {
+    @RolesAllowed("getAllUsersReservations")
+    public int countByLogin(String login) throws AppBaseException {
         try {
-            return em.createNamedQuery("Reservation.filterByLoginAndNames", Reservation.class)
-                    .setParameter("filter", filter).getResultList();
+            return super.count(loginRestriction(login));
         } catch (DatabaseException | PersistenceException e) {
             throw new DatabaseConnectionException(e);
         }
     }
 
+    private Restriction<Reservation> loginRestriction(String login) {
+        return (cb, root) -> cb.equal(root.get("client").get("account").get("login"), login);
+    }
+
     /**
      * Pobierz rezerwacje według nazwy użytkownika
      *
@@ -142,7 +319,8 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
         try {
             Account account = this.em.createNamedQuery("Account.findByLogin", Account.class)
                     .setParameter("login", login).getSingleResult();
-            return this.em.createNamedQuery("Reservation.findByClientId", Reservation.class).setParameter("id", account.getId()).getResultList();
+            return DISPLAY_FETCH_PLAN.applyTo(this.em.createNamedQuery("Reservation.findByClientId", Reservation.class))
+                    .setParameter("id", account.getId()).getResultList();
         } catch (NoResultException noResultException) {
             throw new ReservationNotFoundException(noResultException);
         } catch (DatabaseException | PersistenceException e) {
@@ -150,6 +328,149 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
         }
     }
 
+    /**
+     * Pobierz terminy nieanulowanych rezerwacji na danej sali, które nachodzą na podany przedział czasowy.
+     *
+     * @param hallName nazwa sali
+     * @param from     początek przedziału
+     * @param to       koniec przedziału
+     * @return lista niedostępnych terminów
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getUnavailableDates")
+    public List<UnavailableDate> findUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.findUnavailableDatesOnHall", UnavailableDate.class)
+                    .setParameter("hallName", hallName)
+                    .setParameter("statusName", ReservationStatuses.cancelled.name())
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Metoda zliczająca nieanulowane rezerwacje na tej samej sali, których termin koliduje z terminem podanej rezerwacji.
+     * Sama rezerwacja jest pomijana, co pozwala na wykorzystanie metody również przy edycji.
+     *
+     * @param reservation rezerwacja
+     * @return liczba kolidujących rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed({"createReservation", "editReservation"})
+    public long countOverlapping(Reservation reservation) throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.countOverlappingOnHall", Long.class)
+                    .setParameter("hallId", reservation.getHall().getId())
+                    .setParameter("id", reservation.getId() == null ? 0L : reservation.getId())
+                    .setParameter("statusName", ReservationStatuses.cancelled.name())
+                    .setParameter("startDate", reservation.getStartDate())
+                    .setParameter("endDate", reservation.getEndDate())
+                    .getSingleResult();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz terminy wszystkich nieanulowanych rezerwacji bez wczytywania całych encji.
+     *
+     * @return lista krotek (id rezerwacji, id sali, data rozpoczęcia, data zakończenia)
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    public List<Object[]> findActiveSlots() throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.findSlotsByStatusNameNot", Object[].class)
+                    .setParameter("statusName", ReservationStatuses.cancelled.name())
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz i zablokuj do zapisu rezerwacje o podanych statusach, których termin już minął.
+     * Zapytanie odwołuje się wyłącznie do tabeli rezerwacji, dzięki czemu blokowane są tylko wiersze rezerwacji.
+     *
+     * @param now         bieżąca data
+     * @param statusNames nazwy statusów
+     * @param limit       maksymalna liczba rezerwacji
+     * @return lista identyfikatorów rezerwacji w kolejności rosnącej
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public List<Long> findEndedForUpdate(LocalDateTime now, Collection<String> statusNames, int limit) throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.findEndedByStatusNames", Long.class)
+                    .setParameter("now", now)
+                    .setParameter("statusNames", statusNames)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz dane rezerwacji potrzebne do wysłania powiadomień i aktualizacji statystyk.
+     *
+     * @param ids identyfikatory rezerwacji
+     * @return lista krotek (numer rezerwacji, adres email klienta, liczba gości, cena, id sali, nazwa sali,
+     * id typu wydarzenia, nazwa typu wydarzenia)
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public List<Object[]> findSummaries(Collection<Long> ids) throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.findSummariesByIds", Object[].class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz dane wszystkich zakończonych rezerwacji potrzebne do odbudowy statystyk, bez wczytywania całych encji.
+     *
+     * @return lista krotek (liczba gości, cena, id sali, nazwa sali, id typu wydarzenia, nazwa typu wydarzenia)
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public List<Object[]> findFinishedStatistics() throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.findStatisticsByStatusName", Object[].class)
+                    .setParameter("statusName", ReservationStatuses.finished.name())
+                    .getResultList();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Zmień status wielu rezerwacji jednym zapytaniem, zwiększając ich wersje.
+     *
+     * @param ids    identyfikatory rezerwacji
+     * @param status nowy status
+     * @return liczba zmienionych rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public int updateStatus(Collection<Long> ids, Status status) throws AppBaseException {
+        try {
+            return em.createNamedQuery("Reservation.updateStatusByIds")
+                    .setParameter("status", status)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
     @DenyAll
     public void remove(Reservation entity) throws AppBaseException {
@@ -157,7 +478,7 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     }
 
     @Override
-    @DenyAll
+    @RolesAllowed("getAllReservations")
     public int count() {
         return super.count();
     }
@@ -0,0 +1,140 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mor.facades;
+
+import org.eclipse.persistence.exceptions.DatabaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.ReservationStatistics;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.StatisticsAccumulator;
+
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fasada agregatów statystyk zakończonych rezerwacji - dla encji ReservationStatistics.
+ * Wywoływana przez komponent zapisujący statystyki w tle, dlatego nie jest objęta śledzeniem wywołań.
+ */
+@TransactionAttribute(TransactionAttributeType.MANDATORY)
+@Stateless
+@LocalBean
+public class ReservationStatisticsFacade extends AbstractFacade<ReservationStatistics> {
+
+    @PersistenceContext(unitName = "ssbd05morPU")
+    private EntityManager em;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    /**
+     * Konstruktor bezparametrowy fasady ReservationStatistics
+     */
+    public ReservationStatisticsFacade() {
+        super(ReservationStatistics.class);
+    }
+
+    @Override
+    @PermitAll
+    public void create(ReservationStatistics entity) throws AppBaseException {
+        try {
+            super.create(entity);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    @Override
+    @DenyAll
+    public void edit(ReservationStatistics entity) throws AppBaseException {
+        super.edit(entity);
+    }
+
+    @Override
+    @DenyAll
+    public void remove(ReservationStatistics entity) throws AppBaseException {
+        super.remove(entity);
+    }
+
+    @Override
+    @DenyAll
+    public Optional<ReservationStatistics> find(Object id) {
+        return super.find(id);
+    }
+
+    @Override
+    @DenyAll
+    public List<ReservationStatistics> findAll() throws AppBaseException {
+        return super.findAll();
+    }
+
+    @Override
+    @DenyAll
+    public int count() {
+        return super.count();
+    }
+
+    /**
+     * Dolicz przyrosty do agregatu jednym zapytaniem aktualizującym. Brakujący agregat jest tworzony.
+     *
+     * @param dimension   wymiar agregatu
+     * @param dimensionId identyfikator obiektu w danym wymiarze
+     * @param delta       przyrosty statystyk
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public void addDelta(String dimension, Long dimensionId, StatisticsAccumulator.Delta delta) throws AppBaseException {
+        try {
+            int updated = em.createNamedQuery("ReservationStatistics.addDelta")
+                    .setParameter("events", delta.getEvents())
+                    .setParameter("guests", delta.getGuests())
+                    .setParameter("revenue", delta.getRevenue())
+                    .setParameter("dimension", dimension)
+                    .setParameter("dimensionId", dimensionId)
+                    .executeUpdate();
+            if (updated == 0) {
+                create(new ReservationStatistics(dimension, dimensionId, delta.getEvents(), delta.getGuests(), delta.getRevenue()));
+            }
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Nadpisz wartości agregatu jednym zapytaniem aktualizującym. Brakujący agregat jest tworzony.
+     *
+     * @param dimension   wymiar agregatu
+     * @param dimensionId identyfikator obiektu w danym wymiarze
+     * @param events      liczba wydarzeń
+     * @param guests      łączna liczba gości
+     * @param revenue     łączny przychód w groszach
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("SYSTEM")
+    public void setTotals(String dimension, Long dimensionId, long events, long guests, long revenue) throws AppBaseException {
+        try {
+            int updated = em.createNamedQuery("ReservationStatistics.setTotals")
+                    .setParameter("events", events)
+                    .setParameter("guests", guests)
+                    .setParameter("revenue", revenue)
+                    .setParameter("dimension", dimension)
+                    .setParameter("dimensionId", dimensionId)
+                    .executeUpdate();
+            if (updated == 0) {
+                create(new ReservationStatistics(dimension, dimensionId, events, guests, revenue));
+            }
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+}
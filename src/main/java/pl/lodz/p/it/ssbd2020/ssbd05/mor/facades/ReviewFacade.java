@@ -8,6 +8,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.ReviewNotFoundException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -124,6 +125,7 @@ public class ReviewFacade extends AbstractFacade<Review> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed({"getReviewByReviewNumber", "editReview"})
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Review> findByNumber(String reviewNumber) throws AppBaseException {
         try{
             return Optional.ofNullable(this.em.createNamedQuery("Review.findByReviewNumber", Review.class)
@@ -135,8 +137,47 @@ public class ReviewFacade extends AbstractFacade<Review> {
         }
     }
 
+    /**
+     * Pobierz stronę opinii.
+     *
+     * @param first     indeks pierwszej opinii
+     * @param pageSize  rozmiar strony
+     * @param sortField ścieżka atrybutu sortowania lub null
+     * @param ascending czy sortować rosnąco
+     * @return lista opinii
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    public List<Review> findRange(int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        try {
+            return super.findRange(null, first, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
+    /**
+     * Pobierz stronę opinii następującą po opinii wskazanej przez kursor.
+     *
+     * @param lastSortValue wartość atrybutu sortowania ostatniej opinii poprzedniej strony
+     * @param lastId        identyfikator ostatniej opinii poprzedniej strony
+     * @param pageSize      rozmiar strony
+     * @param sortField     ścieżka atrybutu sortowania lub null
+     * @param ascending     czy sortować rosnąco
+     * @return lista opinii
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @PermitAll
+    public List<Review> findRangeAfter(Object lastSortValue, Object lastId, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        try {
+            return super.findRangeAfter(null, lastSortValue, lastId, pageSize, sortField, ascending);
+        } catch (DatabaseException | PersistenceException e) {
+            throw new DatabaseConnectionException(e);
+        }
+    }
+
     @Override
-    @DenyAll
+    @PermitAll
     public int count() {
         return super.count();
     }
@@ -5,6 +5,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Status;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -70,6 +71,7 @@ public class StatusFacade extends AbstractFacade<Status> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed({"getStatusByName", "getStatusCanceled"})
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Status> findByStatusName(String statusName) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Status.findByStatusName", Status.class)
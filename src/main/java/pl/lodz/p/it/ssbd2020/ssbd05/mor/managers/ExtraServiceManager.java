@@ -56,9 +56,8 @@ public class ExtraServiceManager extends AbstractManager implements SessionSynch
      */
     @RolesAllowed("getExtraServiceByName")
     public ExtraService getExtraServiceByName(String name) throws AppBaseException {
-        if(extraServiceFacade.findByName(name).isPresent())
-            return extraServiceFacade.findByName(name).get();
-        else throw new ExtraServiceNotFoundException("error.extraservice.not.found");
+        return extraServiceFacade.findByName(name)
+                .orElseThrow(() -> new ExtraServiceNotFoundException("error.extraservice.not.found"));
     }
 
     /**
@@ -0,0 +1,120 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mor.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Status;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mor.StatusNotFoundException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReservationFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.StatusFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
+
+import javax.annotation.Resource;
+import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.RunAs;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Zadanie cykliczne kończące potwierdzone i opłacone rezerwacje, których termin już minął.
+ * Rezerwacje przetwarzane są paczkami, każda w osobnej transakcji, a status zmieniany jest jednym zapytaniem
+ * dla całej paczki. Po zatwierdzeniu paczki zakończone rezerwacje rejestrowane są w statystykach,
+ * a powiadomienia dla klientów zapisywane w skrzynce nadawczej. Zadanie wykonywane jest z rolą systemową SYSTEM,
+ * wymaganą przez zbiorcze metody fasad.
+ */
+@Log
+@Startup
+@Singleton
+@DeclareRoles("SYSTEM")
+@RunAs("SYSTEM")
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ReservationAutoFinisher {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final List<String> FINISHABLE_STATUSES =
+            Arrays.asList(ReservationStatuses.confirmed.name(), ReservationStatuses.paid.name());
+
+    @Inject
+    private ReservationFacade reservationFacade;
+
+    @Inject
+    private StatusFacade statusFacade;
+
+    @Inject
+    private ReservationStatisticsEngine reservationStatisticsEngine;
+
+    @Inject
+    private EmailSender emailSender;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Metoda cyklicznie kończąca rezerwacje, których termin minął. Kolejne paczki pobierane są do wyczerpania
+     * rezerwacji do zakończenia. Kolejne wywołanie nie rozpocznie się przed zakończeniem poprzedniego.
+     */
+    @Schedule(hour = "*", minute = "*/15", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void finishEndedReservations() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        int finished = 0;
+        try {
+            ReservationAutoFinisher self = sessionContext.getBusinessObject(ReservationAutoFinisher.class);
+            List<Object[]> batch;
+            do {
+                batch = self.finishBatch(LocalDateTime.now());
+                finished += batch.size();
+                Map<String, String> mailsByReservationNumber = new LinkedHashMap<>();
+                for (Object[] row : batch) {
+                    mailsByReservationNumber.put((String) row[0], (String) row[1]);
+                    reservationStatisticsEngine.record((Long) row[4], (String) row[5], (Long) row[6], (String) row[7],
+                            (Long) row[2], (Double) row[3]);
+                }
+                emailSender.sendFinishedReservationEmails(mailsByReservationNumber);
+            } while (batch.size() == BATCH_SIZE);
+        } catch (AppBaseException | EJBException e) {
+            log.warning("Ended reservations could not be finished: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        if (finished > 0) {
+            log.info("Finished " + finished + " ended reservations");
+        }
+    }
+
+    /**
+     * Metoda kończąca jedną paczkę rezerwacji. Wywoływana wyłącznie przez metodę finishEndedReservations.
+     *
+     * @param now bieżąca data
+     * @return lista krotek (numer rezerwacji, adres email klienta, liczba gości, cena, id sali, nazwa sali,
+     * id typu wydarzenia, nazwa typu wydarzenia) zakończonych rezerwacji
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<Object[]> finishBatch(LocalDateTime now) throws AppBaseException {
+        List<Long> ids = reservationFacade.findEndedForUpdate(now, FINISHABLE_STATUSES, BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object[]> summaries = reservationFacade.findSummaries(ids);
+        Status finished = statusFacade.findAll().stream()
+                .filter(status -> status.getStatusName().equals(ReservationStatuses.finished.name()))
+                .findFirst()
+                .orElseThrow(StatusNotFoundException::new);
+        reservationFacade.updateStatus(ids, finished);
+        return summaries;
+    }
+}
@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.mor.managers;
 
 import lombok.extern.java.Log;
 import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractManager;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.UnavailableDate;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Client;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.*;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
@@ -13,15 +14,21 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallNotFoundException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.*;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.IdentifierGenerator;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.PageCursor;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.StatisticsAccumulator;
 
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.*;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
+import java.rmi.RemoteException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -37,8 +44,6 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
     @Inject
     private ReservationFacade reservationFacade;
     @Inject
-    private ReservationSerializableFacade reservationSerializableFacade;
-    @Inject
     private EventTypesFacade eventTypesFacade;
 
     @Inject
@@ -49,29 +54,88 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
 
     @Inject
     private HallFacade hallFacade;
-    @Inject
-    private HallFacadeSerializable hallFacadeSerializable;
 
     @Inject
     private ExtraServiceFacade extraServiceFacade;
-    @Inject ExtraServiceFacadeSerializable extraServiceFacadeSerializable;
 
     @Inject
     private ClientFacade clientFacade;
 
     @Inject
-    private AverageGuestNumberFacade averageGuestNumberFacade;
-    private AverageGuestNumber aggregate;
+    private ReservationStatisticsEngine reservationStatisticsEngine;
+    private Reservation finishedReservation;
+
+    @Inject
+    private ReservationScheduleIndex reservationScheduleIndex;
+    private Reservation reservationToIndex;
+
+    private final PageCursor reservationsCursor = new PageCursor();
+    private final PageCursor usersReservationsCursor = new PageCursor();
+
+    @Override
+    public void afterBegin() throws EJBException, RemoteException {
+        super.afterBegin();
+        reservationToIndex = null;
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) throws EJBException, RemoteException {
+        super.afterCompletion(committed);
+        if (committed && reservationToIndex != null) {
+            reservationScheduleIndex.update(reservationToIndex);
+        }
+        if (committed && finishedReservation != null) {
+            reservationStatisticsEngine.record(finishedReservation.getHall().getId(), finishedReservation.getHall().getName(),
+                    finishedReservation.getEventType().getId(), finishedReservation.getEventType().getTypeName(),
+                    finishedReservation.getGuestsNumber(), finishedReservation.getTotalPrice());
+        }
+        reservationToIndex = null;
+        finishedReservation = null;
+    }
 
     /**
-     * Metoda odpowiedzialna za pobranie listy wszystkich rezerwacji
+     * Metoda odpowiedzialna za pobranie strony listy rezerwacji zgodnych z filtrem.
+     * Kolejne strony przeglądane po kolei pobierane są od pozycji kursora.
      *
+     * @param filter    ciąg znaków, filtr lub null
+     * @param first     indeks pierwszej rezerwacji
+     * @param pageSize  rozmiar strony
+     * @param sortField ścieżka atrybutu sortowania lub null
+     * @param ascending kierunek sortowania
      * @return lista obiektów typu Reservation
      * @throws AppBaseException podstawowy wyjatek aplikacyjny
      */
-    @RolesAllowed("getAllReservations")
-    public List<Reservation> getAllReservations() throws AppBaseException {
-        return reservationFacade.findAll();
+    @RolesAllowed({"getAllReservations", "filterReservations"})
+    public List<Reservation> getReservationsPage(String filter, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        return reservationsCursor.fetch(PageCursor.describe(filter, sortField, ascending), first, sortField,
+                () -> reservationFacade.findRange(filter, first, pageSize, sortField, ascending),
+                (lastSortValue, lastId) -> reservationFacade.findRangeAfter(filter, lastSortValue, lastId, pageSize, sortField, ascending));
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie liczby rezerwacji zgodnych z filtrem
+     *
+     * @param filter ciąg znaków, filtr lub null
+     * @return liczba rezerwacji
+     * @throws AppBaseException podstawowy wyjatek aplikacyjny
+     */
+    @RolesAllowed({"getAllReservations", "filterReservations"})
+    public int countReservations(String filter) throws AppBaseException {
+        return reservationFacade.count(filter);
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie niedostępnych terminów sali w podanym przedziale czasowym
+     *
+     * @param hallName nazwa sali
+     * @param from     początek przedziału
+     * @param to       koniec przedziału
+     * @return lista niedostępnych terminów
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getUnavailableDates")
+    public List<UnavailableDate> getUnavailableDates(String hallName, LocalDateTime from, LocalDateTime to) throws AppBaseException {
+        return reservationFacade.findUnavailableDates(hallName, from, to);
     }
 
     /**
@@ -95,9 +159,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("getExtraServiceByName")
     public ExtraService getExtraServiceByName(String name) throws AppBaseException {
-        if (extraServiceFacade.findByName(name).isEmpty()) {
-            throw new ExtraServiceNotFoundException();
-        } else return extraServiceFacade.findByName(name).get();
+        return extraServiceFacade.findByName(name).orElseThrow(ExtraServiceNotFoundException::new);
     }
 
     /**
@@ -109,9 +171,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("getEventTypeByName")
     public EventType getEventTypeByName(String name) throws AppBaseException {
-        if (eventTypesFacade.findByName(name).isEmpty()) {
-            throw new ExtraServiceNotFoundException();
-        } else return eventTypesFacade.findByName(name).get();
+        return eventTypesFacade.findByName(name).orElseThrow(ExtraServiceNotFoundException::new);
     }
 
     /**
@@ -123,11 +183,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed({"getHallByName", "getHallForReservation"})
     public Hall getHallByName(String name) throws AppBaseException {
-        if (hallFacade.findByName(name).isPresent()) {
-            return hallFacade.findByName(name).get();
-        } else {
-            throw new HallNotFoundException();
-        }
+        return hallFacade.findByName(name).orElseThrow(HallNotFoundException::new);
     }
 
     /**
@@ -138,59 +194,43 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("createReservation")
     public void createReservation(Reservation reservation) throws AppBaseException {
-        List<ExtraService> extraServices = new ArrayList<>();
-        ExtraService extraService;
-        for(ExtraService e : reservation.getExtra_service()) {
-            extraService = extraServiceFacadeSerializable.findByName(e.getServiceName()).get();
-            extraServices.add(extraService);
-        }
-        if(reservation.getExtra_service().size() != extraServices.size())
-            throw new AppOptimisticLockException();
-        for(ExtraService serviceFromReservation : reservation.getExtra_service()) {
-            for(ExtraService serviceFromHall : extraServices) {
-                if (serviceFromHall.getServiceName().equals(serviceFromReservation.getServiceName())) {
-                    if (serviceFromHall.compareTo(serviceFromReservation) != 0) {
-                        throw new AppOptimisticLockException();
-                    }
-                }
-            }
-        }
-        Optional<Hall> hallOptional = hallFacadeSerializable.findByName(reservation.getHall().getName());
-        if (hallOptional.isEmpty()) {
-            throw new HallNotFoundException();
-        } else {
-            if (reservation.getHall().compareTo(hallOptional.get()) != 0) {
-                throw new AppOptimisticLockException();
-            }
-        }
-        List<Reservation> reservationsOnHall = reservationSerializableFacade.findAll().stream()
-                .filter(r -> r.getHall().getName().equals(reservation.getHall().getName()))
-                .collect(Collectors.toList());
-        for (Reservation r : reservationsOnHall) {
-            if (!r.getStatus().getStatusName().equalsIgnoreCase(ReservationStatuses.cancelled.name()) && !r.getId().equals(reservation.getId())) {
-                if (reservation.getStartDate().isBefore(r.getEndDate())
-                        && reservation.getEndDate().isAfter(r.getStartDate())) {
-                    throw new DateOverlapException();
-                }
-            }
-        }
-        reservationSerializableFacade.create(reservation);
+        reservation.setReservationNumber(IdentifierGenerator.nextNumber());
+        checkExtraServicesVersion(reservation);
+        checkHallVersion(reservation);
+        checkDateOverlap(reservation);
+        reservationFacade.create(reservation);
+        reservationToIndex = reservation;
     }
     
     /**
-     * Metoda odpowiedzialna za pobranie wszystkich rezerwacji użytkownika
+     * Metoda odpowiedzialna za pobranie strony listy rezerwacji użytkownika.
+     * Kolejne strony przeglądane po kolei pobierane są od pozycji kursora.
      *
-     * @param login login użytkownika
+     * @param login     login użytkownika
+     * @param first     indeks pierwszej rezerwacji
+     * @param pageSize  rozmiar strony
+     * @param sortField ścieżka atrybutu sortowania lub null
+     * @param ascending kierunek sortowania
      * @return lista rezerwacji użytkownika
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @RolesAllowed("getAllUsersReservations")
-    public List<Reservation> getAllUsersReservations(String login) throws AppBaseException {
-        try {
-            return reservationFacade.findByLogin(login);
-        } catch (ReservationNotFoundException e) {
-            throw new ReservationNotFoundException(e);
-        }
+    public List<Reservation> getUsersReservationsPage(String login, int first, int pageSize, String sortField, boolean ascending) throws AppBaseException {
+        return usersReservationsCursor.fetch(PageCursor.describe(login, sortField, ascending), first, sortField,
+                () -> reservationFacade.findRangeByLogin(login, first, pageSize, sortField, ascending),
+                (lastSortValue, lastId) -> reservationFacade.findRangeByLoginAfter(login, lastSortValue, lastId, pageSize, sortField, ascending));
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie liczby rezerwacji użytkownika
+     *
+     * @param login login użytkownika
+     * @return liczba rezerwacji użytkownika
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @RolesAllowed("getAllUsersReservations")
+    public int countUsersReservations(String login) throws AppBaseException {
+        return reservationFacade.countByLogin(login);
     }
 
     /**
@@ -202,11 +242,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("getStatusByName")
     public Status getStatusByName(String statusName) throws AppBaseException {
-        if (statusFacade.findByStatusName(statusName).isPresent()) {
-            return statusFacade.findByStatusName(statusName).get();
-        } else {
-            throw new StatusNotFoundException();
-        }
+        return statusFacade.findByStatusName(statusName).orElseThrow(StatusNotFoundException::new);
     }
 
     /**
@@ -217,11 +253,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed({"getStatusCancelled", "cancelReservation"})
     public Status getStatusCancelled() throws AppBaseException {
-        if (statusFacade.findByStatusName(ReservationStatuses.cancelled.toString()).isPresent()) {
-            return statusFacade.findByStatusName(ReservationStatuses.cancelled.toString()).get();
-        } else {
-            throw new StatusNotFoundException();
-        }
+        return statusFacade.findByStatusName(ReservationStatuses.cancelled.toString()).orElseThrow(StatusNotFoundException::new);
     }
 
     /**
@@ -233,9 +265,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("getReservationByNumber")
     public Reservation getReservationByNumber(String reservationNumber) throws AppBaseException {
-        if (reservationFacade.findByNumber(reservationNumber).isPresent()) {
-            return this.reservationFacade.findByNumber(reservationNumber).get();
-        } else throw new ReservationNotFoundException();
+        return reservationFacade.findByNumber(reservationNumber).orElseThrow(ReservationNotFoundException::new);
     }
 
     /**
@@ -247,12 +277,9 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
     @RolesAllowed("changeReservationStatus")
     public void changeReservationStatus(Reservation reservation) throws AppBaseException {
         reservationFacade.edit(reservation);
+        reservationToIndex = reservation;
         if (reservation.getStatus().getStatusName().equalsIgnoreCase(ReservationStatuses.finished.toString())) {
-            aggregate = averageGuestNumberFacade.findAll().get(0);
-            aggregate.setEventSum(aggregate.getEventSum() + 1);
-            aggregate.setGuestSum(aggregate.getGuestSum() + reservation.getGuestsNumber());
-            aggregate.setAverage(aggregate.getGuestSum() / aggregate.getEventSum());
-            averageGuestNumberFacade.edit(aggregate);
+            finishedReservation = reservation;
         }
     }
 
@@ -265,6 +292,7 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
     @RolesAllowed("cancelReservation")
     public void cancelReservation(Reservation reservation) throws AppBaseException {
         reservationFacade.edit(reservation);
+        reservationToIndex = reservation;
     }
 
     /**
@@ -275,56 +303,62 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("editReservation")
     public void editReservation(Reservation reservation) throws AppBaseException {
-        Optional<Hall> hallOptional = hallFacadeSerializable.findByName(reservation.getHall().getName());
-        if (hallOptional.isEmpty()) {
-            throw new HallNotFoundException();
-        } else {
-            if (reservation.getHall().compareTo(hallOptional.get()) != 0) {
-                throw new AppOptimisticLockException();
-            }
-        }
-        List<ExtraService> extraServices = new ArrayList<>();
-        ExtraService extraService;
-        for(ExtraService e : reservation.getExtra_service()) {
-            extraService = extraServiceFacadeSerializable.findByName(e.getServiceName()).get();
-            extraServices.add(extraService);
-        }
-        if(reservation.getExtra_service().size() != extraServices.size())
+        checkHallVersion(reservation);
+        checkExtraServicesVersion(reservation);
+        checkDateOverlap(reservation);
+        reservationFacade.edit(reservation);
+        reservationToIndex = reservation;
+    }
+
+    /**
+     * Metoda blokująca salę rezerwacji i sprawdzająca, czy nie została ona zmieniona od chwili jej pobrania,
+     * na podstawie wersji encji.
+     *
+     * @param reservation rezerwacja
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    private void checkHallVersion(Reservation reservation) throws AppBaseException {
+        Hall hall = hallFacade.findByNameForUpdate(reservation.getHall().getName()).orElseThrow(HallNotFoundException::new);
+        if (hall.getVersion() != reservation.getHall().getVersion()) {
             throw new AppOptimisticLockException();
-        for(ExtraService serviceFromReservation : reservation.getExtra_service()) {
-            for(ExtraService serviceFromHall : extraServices) {
-                if (serviceFromHall.getServiceName().equals(serviceFromReservation.getServiceName())) {
-                    if (serviceFromHall.compareTo(serviceFromReservation) != 0) {
-                        throw new AppOptimisticLockException();
-                    }
-                }
-            }
         }
-        List<Reservation> reservationsOnHall = reservationSerializableFacade.findAll().stream()
-                .filter(r -> r.getHall().getName().equals(reservation.getHall().getName()))
-                .collect(Collectors.toList());
-        for (Reservation r : reservationsOnHall) {
-            if (!r.getStatus().getStatusName().equalsIgnoreCase(ReservationStatuses.cancelled.name()) && !r.getId().equals(reservation.getId())) {
-                if (reservation.getStartDate().isBefore(r.getEndDate())
-                        && reservation.getEndDate().isAfter(r.getStartDate())) {
-                    throw new DateOverlapException();
-                }
+    }
+
+    /**
+     * Metoda sprawdzająca, czy wybrane usługi dodatkowe nie zostały usunięte ani zmienione od chwili ich pobrania,
+     * na podstawie wersji encji. Wszystkie usługi pobierane są jednym zapytaniem.
+     *
+     * @param reservation rezerwacja
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    private void checkExtraServicesVersion(Reservation reservation) throws AppBaseException {
+        Collection<ExtraService> selected = reservation.getExtra_service();
+        Map<String, Long> currentVersions = extraServiceFacade.findByNames(selected.stream()
+                .map(ExtraService::getServiceName)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ExtraService::getServiceName, ExtraService::getVersion));
+        for (ExtraService extraService : selected) {
+            Long currentVersion = currentVersions.get(extraService.getServiceName());
+            if (currentVersion == null || currentVersion != extraService.getVersion()) {
+                throw new AppOptimisticLockException();
             }
         }
-        reservationSerializableFacade.edit(reservation);
     }
 
-
     /**
-     * Metoda odpowiedzialna za filtrowanie listy z rezerwacjami
+     * Metoda sprawdzająca, czy termin rezerwacji nie koliduje z inną nieanulowaną rezerwacją na tej samej sali.
+     * Zapytanie wykonywane jest po zablokowaniu wiersza sali, dzięki czemu współbieżne zapisy szeregowane są
+     * tylko w obrębie tej samej sali. Indeks terminów aktualizowany jest dopiero po zatwierdzeniu transakcji,
+     * dlatego nie może rozstrzygać o kolizji.
      *
-     * @param filter ciąg znaków, filtr
-     * @return lista rezerwacji zgodna z filtrem
+     * @param reservation rezerwacja
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
-    @RolesAllowed("filterReservations")
-    public List<Reservation> filterReservations(String filter) throws AppBaseException {
-        return reservationFacade.filterReservations(filter);
+    private void checkDateOverlap(Reservation reservation) throws AppBaseException {
+        if (reservationFacade.countOverlapping(reservation) > 0) {
+            throw new DateOverlapException();
+        }
     }
 
     /**
@@ -380,19 +414,37 @@ public class ReservationManager extends AbstractManager implements SessionSynchr
      */
     @RolesAllowed("getExtraServiceByName")
     public ExtraService getExtraServicesByName(String name) throws AppBaseException {
-        if (extraServiceFacade.findByName(name).isPresent())
-            return extraServiceFacade.findByName(name).get();
-        else throw new ExtraServiceNotFoundException();
+        return extraServiceFacade.findByName(name).orElseThrow(ExtraServiceNotFoundException::new);
     }
 
     /**
-     * Metoda odpowiedzialna za pobranie obiektu agregatu
+     * Metoda odpowiedzialna za pobranie łącznych statystyk zakończonych rezerwacji, bez dostępu do bazy danych.
      *
-     * @return Obiekt typu AverageGuestNumber
-     * @throws AppBaseException Podstawowy wyjątek aplikacyjny
+     * @return Migawka statystyk
      */
     @PermitAll
-    public AverageGuestNumber getAggregate() throws AppBaseException {
-        return averageGuestNumberFacade.findAll().get(0);
+    public StatisticsAccumulator.Snapshot getAggregate() {
+        return reservationStatisticsEngine.getTotal();
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie statystyk zakończonych rezerwacji dla każdej sali, bez dostępu do bazy danych.
+     *
+     * @return Lista migawek statystyk
+     */
+    @RolesAllowed("getReservationStatistics")
+    public List<StatisticsAccumulator.Snapshot> getHallStatistics() {
+        return reservationStatisticsEngine.getByHall();
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie statystyk zakończonych rezerwacji dla każdego typu wydarzenia,
+     * bez dostępu do bazy danych.
+     *
+     * @return Lista migawek statystyk
+     */
+    @RolesAllowed("getReservationStatistics")
+    public List<StatisticsAccumulator.Snapshot> getEventTypeStatistics() {
+        return reservationStatisticsEngine.getByEventType();
     }
 }
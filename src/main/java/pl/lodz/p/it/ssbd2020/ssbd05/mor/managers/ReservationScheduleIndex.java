@@ -0,0 +1,94 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mor.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReservationFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.IntervalSchedule;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.security.PermitAll;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Indeks terminów nieanulowanych rezerwacji pogrupowanych według sal, przechowywany w pamięci.
+ * Pozwala wykluczyć sale zajęte w wyszukiwanym terminie bez wczytywania rezerwacji z bazy danych.
+ * Indeks aktualizowany jest po zatwierdzeniu transakcji i może być chwilowo nieaktualny, dlatego wynik wyszukiwania
+ * jest jedynie podpowiedzią, a o odrzuceniu rezerwacji decyduje zapytanie do bazy danych wykonywane
+ * po zablokowaniu wiersza sali.
+ */
+@Log
+@Startup
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ReservationScheduleIndex {
+
+    @Inject
+    private ReservationFacade reservationFacade;
+
+    private final ConcurrentMap<Long, IntervalSchedule> schedulesByHall = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> hallByReservation = new ConcurrentHashMap<>();
+
+    /**
+     * Metoda odbudowująca indeks na podstawie rezerwacji zapisanych w bazie danych.
+     */
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void rebuild() {
+        try {
+            schedulesByHall.clear();
+            hallByReservation.clear();
+            for (Object[] slot : reservationFacade.findActiveSlots()) {
+                put((Long) slot[0], (Long) slot[1], (LocalDateTime) slot[2], (LocalDateTime) slot[3]);
+            }
+            log.info("Reservation schedule index has been rebuilt for " + schedulesByHall.size() + " halls");
+        } catch (AppBaseException e) {
+            log.severe("Reservation schedule index could not be rebuilt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda sprawdzająca, czy sala nie posiada nieanulowanej rezerwacji w podanym przedziale czasowym.
+     *
+     * @param hallId    identyfikator sali
+     * @param startDate początek przedziału
+     * @param endDate   koniec przedziału
+     * @return wartość logiczna
+     */
+    @PermitAll
+    public boolean isAvailable(Long hallId, LocalDateTime startDate, LocalDateTime endDate) {
+        IntervalSchedule schedule = schedulesByHall.get(hallId);
+        return schedule == null || !schedule.overlaps(startDate, endDate, null);
+    }
+
+    /**
+     * Metoda aktualizująca indeks po zatwierdzeniu zmian rezerwacji.
+     * Rezerwacja anulowana jest usuwana z indeksu, pozostałe są dodawane lub przenoszone na nowy termin.
+     *
+     * @param reservation rezerwacja
+     */
+    @PermitAll
+    public void update(Reservation reservation) {
+        if (reservation.getId() == null) {
+            return;
+        }
+        Long previousHallId = hallByReservation.remove(reservation.getId());
+        if (previousHallId != null) {
+            schedulesByHall.get(previousHallId).remove(reservation.getId());
+        }
+        if (!reservation.getStatus().getStatusName().equalsIgnoreCase(ReservationStatuses.cancelled.name())) {
+            put(reservation.getId(), reservation.getHall().getId(), reservation.getStartDate(), reservation.getEndDate());
+        }
+    }
+
+    private void put(Long reservationId, Long hallId, LocalDateTime startDate, LocalDateTime endDate) {
+        schedulesByHall.computeIfAbsent(hallId, id -> new IntervalSchedule()).put(reservationId, startDate, endDate);
+        hallByReservation.put(reservationId, hallId);
+    }
+}
@@ -0,0 +1,237 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mor.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.AverageGuestNumberFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReservationFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReservationStatisticsFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.StatisticsAccumulator;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RunAs;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Statystyki zakończonych rezerwacji - łącznie, dla każdej sali i dla każdego typu wydarzenia - przechowywane w pamięci.
+ * Zakończenie rezerwacji zwiększa jedynie liczniki w pamięci, a przyrosty są cyklicznie zapisywane w agregatach
+ * w bazie danych, dzięki czemu równoległe zakończenia rezerwacji nie rywalizują o ten sam wiersz.
+ * Odczyt statystyk nie wymaga dostępu do bazy danych. Przy uruchomieniu statystyki odbudowywane są na podstawie
+ * zakończonych rezerwacji, a agregaty w bazie danych nadpisywane, co usuwa przyrosty utracone przy awarii.
+ * Odbudowa i zapis agregatów wykonywane są z rolą systemową SYSTEM, wymaganą przez zbiorcze metody fasad.
+ */
+@Log
+@Startup
+@Singleton
+@DeclareRoles("SYSTEM")
+@RunAs("SYSTEM")
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ReservationStatisticsEngine {
+
+    static final String HALL = "hall";
+    static final String EVENT_TYPE = "eventType";
+
+    @Inject
+    private ReservationFacade reservationFacade;
+
+    @Inject
+    private ReservationStatisticsFacade reservationStatisticsFacade;
+
+    @Inject
+    private AverageGuestNumberFacade averageGuestNumberFacade;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private final StatisticsAccumulator total = new StatisticsAccumulator();
+    private final ConcurrentMap<Long, StatisticsAccumulator> byHall = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, StatisticsAccumulator> byEventType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> hallNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> eventTypeNames = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    /**
+     * Metoda odbudowująca statystyki na podstawie zakończonych rezerwacji i nadpisująca agregaty w bazie danych.
+     */
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void init() {
+        try {
+            for (Object[] row : reservationFacade.findFinishedStatistics()) {
+                long guests = (Long) row[0];
+                long revenue = toCents((Double) row[1]);
+                total.load(guests, revenue);
+                accumulator(byHall, hallNames, (Long) row[2], (String) row[3]).load(guests, revenue);
+                accumulator(byEventType, eventTypeNames, (Long) row[4], (String) row[5]).load(guests, revenue);
+            }
+            StatisticsAccumulator.Delta totals = total.totals();
+            averageGuestNumberFacade.setTotals(totals.getEvents(), totals.getGuests(), roundedAverage(totals));
+            for (Map.Entry<Long, StatisticsAccumulator> hall : byHall.entrySet()) {
+                setTotals(HALL, hall.getKey(), hall.getValue().totals());
+            }
+            for (Map.Entry<Long, StatisticsAccumulator> eventType : byEventType.entrySet()) {
+                setTotals(EVENT_TYPE, eventType.getKey(), eventType.getValue().totals());
+            }
+            log.info("Reservation statistics have been rebuilt for " + totals.getEvents() + " finished reservations");
+        } catch (AppBaseException e) {
+            log.severe("Reservation statistics could not be rebuilt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda zapisująca przyrosty przed zamknięciem aplikacji.
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Metoda rejestrująca zakończoną rezerwację. Powinna być wywoływana po zatwierdzeniu transakcji,
+     * w której rezerwacja została zakończona.
+     *
+     * @param hallId        identyfikator sali
+     * @param hallName      nazwa sali
+     * @param eventTypeId   identyfikator typu wydarzenia
+     * @param eventTypeName nazwa typu wydarzenia
+     * @param guests        liczba gości
+     * @param price         cena rezerwacji
+     */
+    @PermitAll
+    public void record(Long hallId, String hallName, Long eventTypeId, String eventTypeName, long guests, double price) {
+        long revenue = toCents(price);
+        total.record(guests, revenue);
+        accumulator(byHall, hallNames, hallId, hallName).record(guests, revenue);
+        accumulator(byEventType, eventTypeNames, eventTypeId, eventTypeName).record(guests, revenue);
+    }
+
+    /**
+     * Metoda zwracająca łączne statystyki zakończonych rezerwacji.
+     *
+     * @return migawka statystyk
+     */
+    @PermitAll
+    public StatisticsAccumulator.Snapshot getTotal() {
+        return total.snapshot(null);
+    }
+
+    /**
+     * Metoda zwracająca statystyki zakończonych rezerwacji dla każdej sali.
+     *
+     * @return lista migawek statystyk uporządkowana według nazw sal
+     */
+    @PermitAll
+    public List<StatisticsAccumulator.Snapshot> getByHall() {
+        return snapshots(byHall, hallNames);
+    }
+
+    /**
+     * Metoda zwracająca statystyki zakończonych rezerwacji dla każdego typu wydarzenia.
+     *
+     * @return lista migawek statystyk uporządkowana według nazw typów wydarzeń
+     */
+    @PermitAll
+    public List<StatisticsAccumulator.Snapshot> getByEventType() {
+        return snapshots(byEventType, eventTypeNames);
+    }
+
+    /**
+     * Metoda cyklicznie zapisująca przyrosty statystyk w agregatach w bazie danych.
+     * Przyrosty, których nie udało się zapisać, zostaną zapisane przy kolejnym wywołaniu.
+     */
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        StatisticsAccumulator.Delta totalDelta = total.drain();
+        Map<Long, StatisticsAccumulator.Delta> hallDeltas = drain(byHall);
+        Map<Long, StatisticsAccumulator.Delta> eventTypeDeltas = drain(byEventType);
+        try {
+            if (!totalDelta.isEmpty() || !hallDeltas.isEmpty() || !eventTypeDeltas.isEmpty()) {
+                sessionContext.getBusinessObject(ReservationStatisticsEngine.class).save(totalDelta, hallDeltas, eventTypeDeltas);
+            }
+        } catch (AppBaseException | EJBException e) {
+            log.warning("Reservation statistics could not be saved: " + e.getMessage());
+            total.restore(totalDelta);
+            hallDeltas.forEach((id, delta) -> byHall.get(id).restore(delta));
+            eventTypeDeltas.forEach((id, delta) -> byEventType.get(id).restore(delta));
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Metoda zapisująca przyrosty w agregatach w jednej transakcji. Wywoływana wyłącznie przez metodę flush.
+     *
+     * @param totalDelta      przyrosty łącznych statystyk
+     * @param hallDeltas      przyrosty statystyk sal
+     * @param eventTypeDeltas przyrosty statystyk typów wydarzeń
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void save(StatisticsAccumulator.Delta totalDelta, Map<Long, StatisticsAccumulator.Delta> hallDeltas,
+                     Map<Long, StatisticsAccumulator.Delta> eventTypeDeltas) throws AppBaseException {
+        if (!totalDelta.isEmpty()) {
+            averageGuestNumberFacade.addDelta(totalDelta.getEvents(), totalDelta.getGuests());
+        }
+        for (Map.Entry<Long, StatisticsAccumulator.Delta> hall : hallDeltas.entrySet()) {
+            reservationStatisticsFacade.addDelta(HALL, hall.getKey(), hall.getValue());
+        }
+        for (Map.Entry<Long, StatisticsAccumulator.Delta> eventType : eventTypeDeltas.entrySet()) {
+            reservationStatisticsFacade.addDelta(EVENT_TYPE, eventType.getKey(), eventType.getValue());
+        }
+    }
+
+    private void setTotals(String dimension, Long id, StatisticsAccumulator.Delta totals) throws AppBaseException {
+        reservationStatisticsFacade.setTotals(dimension, id, totals.getEvents(), totals.getGuests(), totals.getRevenue());
+    }
+
+    private static StatisticsAccumulator accumulator(ConcurrentMap<Long, StatisticsAccumulator> accumulators,
+                                                     ConcurrentMap<Long, String> names, Long id, String name) {
+        names.put(id, name);
+        return accumulators.computeIfAbsent(id, key -> new StatisticsAccumulator());
+    }
+
+    private static Map<Long, StatisticsAccumulator.Delta> drain(ConcurrentMap<Long, StatisticsAccumulator> accumulators) {
+        Map<Long, StatisticsAccumulator.Delta> deltas = new HashMap<>();
+        accumulators.forEach((id, accumulator) -> {
+            StatisticsAccumulator.Delta delta = accumulator.drain();
+            if (!delta.isEmpty()) {
+                deltas.put(id, delta);
+            }
+        });
+        return deltas;
+    }
+
+    private static List<StatisticsAccumulator.Snapshot> snapshots(ConcurrentMap<Long, StatisticsAccumulator> accumulators,
+                                                                  ConcurrentMap<Long, String> names) {
+        return accumulators.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(names.get(entry.getKey())))
+                .sorted(Comparator.comparing(StatisticsAccumulator.Snapshot::getName))
+                .collect(Collectors.toList());
+    }
+
+    private static long roundedAverage(StatisticsAccumulator.Delta totals) {
+        return totals.getEvents() == 0 ? 0 : Math.round((double) totals.getGuests() / totals.getEvents());
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+}
@@ -10,6 +10,8 @@ import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ClientFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReservationFacade;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.facades.ReviewFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.IdentifierGenerator;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.PageCursor;
 
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
@@ -36,6 +38,8 @@ public class ReviewManager extends AbstractManager implements SessionSynchroniza
     @Inject
     private ReservationFacade reservationFacade;
 
+    private final PageCursor reviewsCursor = new PageCursor();
+
     /**
      * Metoda odpowiedzialna za pobieranie opinii na podstawie jej numeru.
      *
@@ -69,6 +73,7 @@ public class ReviewManager extends AbstractManager implements SessionSynchroniza
     @RolesAllowed("addReview")
     public void addReview(Review review, String clientLogin, String reservationNumber) throws AppBaseException {
         try{
+            review.setReviewNumber(IdentifierGenerator.nextNumber());
             review.setClient(clientFacade.findByLogin(clientLogin));
             review.setReservation(reservationFacade.findByNumber(reservationNumber).get());
             reviewFacade.create(review);
@@ -87,13 +92,28 @@ public class ReviewManager extends AbstractManager implements SessionSynchroniza
         reviewFacade.edit(review);
     }
     /**
-     * Metoda odpowiedzialna za pobranie listy wszystkich opinii
+     * Metoda odpowiedzialna za pobranie strony listy opinii.
+     * Kolejne strony przeglądane po kolei pobierane są od pozycji kursora.
      *
+     * @param first    indeks pierwszej opinii
+     * @param pageSize rozmiar strony
      * @return lista obiektów typu Review
      * @throws AppBaseException podstawowy wyjatek aplikacyjny
      */
     @PermitAll
-    public List<Review> getAllReviews() throws AppBaseException {
-        return reviewFacade.findAll();
+    public List<Review> getReviewsPage(int first, int pageSize) throws AppBaseException {
+        return reviewsCursor.fetch(PageCursor.describe(), first, null,
+                () -> reviewFacade.findRange(first, pageSize, null, true),
+                (lastSortValue, lastId) -> reviewFacade.findRangeAfter(lastSortValue, lastId, pageSize, null, true));
+    }
+
+    /**
+     * Metoda odpowiedzialna za pobranie liczby opinii
+     *
+     * @return liczba opinii
+     */
+    @PermitAll
+    public int countReviews() {
+        return reviewFacade.count();
     }
 }
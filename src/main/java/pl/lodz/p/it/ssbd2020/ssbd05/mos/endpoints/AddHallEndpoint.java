@@ -9,14 +9,12 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints.interfaces.AddHallEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -39,6 +37,8 @@ public class AddHallEndpoint implements Serializable, AddHallEndpointLocal {
 
     @Inject
     private HallManager hallManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
     private Hall hall;
     private Collection<EventType> eventTypes;
 
@@ -50,47 +50,17 @@ public class AddHallEndpoint implements Serializable, AddHallEndpointLocal {
         hall.setEvent_type(eventTypes);
         hall.setAddress(AddressMapper.INSTANCE.createNewAddress(hallDTO.getAddress()));
         hall.setReservationCollection(new ArrayList<>());
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                hallManager.addHall(hall);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddHallEndpoint.addHall", hallManager, () -> hallManager.addHall(hall));
     }
 
     @Override
     @RolesAllowed("getAllEventTypes")
     public List<String> getAllEventTypes() throws AppBaseException {
         List<String> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                eventTypes = hallManager.getAllEventTypes();
-                list.addAll(EventTypeMapper.toEventTypeStringCollection(eventTypes));
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddHallEndpoint.getAllEventTypes", hallManager, () -> {
+            eventTypes = hallManager.getAllEventTypes();
+            list.addAll(EventTypeMapper.toEventTypeStringCollection(eventTypes));
+        });
         return list;
     }
 
@@ -98,23 +68,7 @@ public class AddHallEndpoint implements Serializable, AddHallEndpointLocal {
     @RolesAllowed("getAllAddresses")
     public List<AddressDTO> getAllAddresses() throws AppBaseException {
         List<AddressDTO> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list.addAll(AddressMapper.INSTANCE.toAddressDTOCollection(hallManager.getAllAddresses()));
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("AddHallEndpoint.getAllAddresses", hallManager, () -> list.addAll(AddressMapper.INSTANCE.toAddressDTOCollection(hallManager.getAllAddresses())));
         return list;
     }
 }
@@ -10,15 +10,13 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Address;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallActiveException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints.interfaces.EditHallEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -41,6 +39,8 @@ public class EditHallEndpoint implements Serializable, EditHallEndpointLocal {
 
     @Inject
     private HallManager hallManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
 
     @Getter
     @Setter
@@ -53,26 +53,12 @@ public class EditHallEndpoint implements Serializable, EditHallEndpointLocal {
     @Override
     @RolesAllowed("getHallByName")
     public HallDTO getHallByName(String name) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.hall = hallManager.getHallByName(name);
-                if (this.hall.isActive()) {
-                    throw new HallActiveException();
-                }
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
+        transactionRetryExecutor.run("EditHallEndpoint.getHallByName", hallManager, () -> {
+            this.hall = hallManager.getHallByName(name);
+            if (this.hall.isActive()) {
+                throw new HallActiveException();
             }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        });
         return HallMapper.INSTANCE.toHallDTO(hall);
     }
 
@@ -84,47 +70,17 @@ public class EditHallEndpoint implements Serializable, EditHallEndpointLocal {
         eventTypes.removeIf(eventType -> !hallDTO.getEvent_type().contains(eventType.getTypeName()));
         hall.setEvent_type(eventTypes);
         hall.setAddress(temp);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                hallManager.editHall(hall);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditHallEndpoint.editHall", hallManager, () -> hallManager.editHall(hall));
     }
 
     @Override
     @RolesAllowed("getAllEventTypes")
     public List<String> getAllEventTypes() throws AppBaseException {
         List<String> list = new ArrayList<>();
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                eventTypes = hallManager.getAllEventTypes();
-                list.addAll(EventTypeMapper.toEventTypeStringCollection(eventTypes));
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("EditHallEndpoint.getAllEventTypes", hallManager, () -> {
+            eventTypes = hallManager.getAllEventTypes();
+            list.addAll(EventTypeMapper.toEventTypeStringCollection(eventTypes));
+        });
         return list;
     }
 
@@ -9,15 +9,17 @@ import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Address;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallNotFoundException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints.interfaces.HallDetailsEndpointLocal;
+import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallCatalog;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
+import javax.annotation.Resource;
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -38,6 +40,12 @@ public class HallDetailsEndpoint implements Serializable, HallDetailsEndpointLoc
 
     @Inject
     private HallManager hallManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
+    @Inject
+    private HallCatalog hallCatalog;
+    @Resource
+    private SessionContext sessionContext;
 
     @Getter
     @Setter
@@ -50,23 +58,10 @@ public class HallDetailsEndpoint implements Serializable, HallDetailsEndpointLoc
     @Override
     @PermitAll
     public HallDTO getHallByName(String name) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                this.hall = hallManager.getHallByName(name);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
+        if (!sessionContext.isCallerInRole("changeHallActivity")) {
+            return hallCatalog.getByName(name).orElseThrow(HallNotFoundException::new);
         }
+        this.hall = transactionRetryExecutor.call("HallDetailsEndpoint.getHallByName", hallManager, () -> hallManager.getHallByName(name));
         return HallMapper.INSTANCE.toHallDTO(hall);
     }
 
@@ -79,22 +74,6 @@ public class HallDetailsEndpoint implements Serializable, HallDetailsEndpointLoc
         eventTypes.removeIf(eventType -> !hallDTO.getEvent_type().contains(eventType.getTypeName()));
         hall.setEvent_type(eventTypes);
         hall.setAddress(temp);
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                hallManager.changeActivity(hall);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        transactionRetryExecutor.run("HallDetailsEndpoint.changeActivity", hallManager, () -> hallManager.changeActivity(hall));
     }
 }
@@ -1,29 +1,26 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints;
 
 import lombok.extern.java.Log;
-import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mos.HallMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
-import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints.interfaces.ListHallsEndpointLocal;
-import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallCatalog;
 
 import javax.annotation.security.PermitAll;
-import javax.ejb.EJBTransactionRolledbackException;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Punkt dostępowy implementujący interfejs ListHallsEndpointLocal, który pośredniczy
- * przy wyświetlaniu wszystkich sal w systemie oraz filtrowaniu ich
+ * przy wyświetlaniu wszystkich sal w systemie oraz filtrowaniu ich.
+ * Sale pobierane są z katalogu przechowywanego w pamięci, bez dostępu do bazy danych.
  */
 @Log
 @Stateful
@@ -32,52 +29,23 @@ import java.util.List;
 public class ListHallsEndpoint implements Serializable, ListHallsEndpointLocal {
 
     @Inject
-    private HallManager hallManager;
-    private List<Hall> list;
+    private HallCatalog hallCatalog;
 
     @Override
     @PermitAll
     public List<HallDTO> getAllHalls() throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = (List<Hall>) hallManager.getAllHalls();
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return (List<HallDTO>) HallMapper.INSTANCE.toHallDTOCollection(list);
+        return hallCatalog.getAll();
     }
 
     @Override
     @PermitAll
-    public List<HallDTO> getFilteredHalls(String hallFilter) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                list = (List<Hall>) hallManager.getFilteredHalls(hallFilter);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if(callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
-        return (List<HallDTO>) HallMapper.INSTANCE.toHallDTOCollection(list);
+    public List<HallDTO> getFilteredHalls(String hallFilter, int limit) throws AppBaseException {
+        return hallCatalog.filter(hallFilter, limit);
+    }
+
+    @Override
+    @PermitAll
+    public List<HallDTO> getAvailableHalls(LocalDateTime startDate, LocalDateTime endDate, int capacity, String eventTypeName) throws AppBaseException {
+        return hallCatalog.getAvailable(startDate, endDate, capacity, eventTypeName);
     }
 }
@@ -7,17 +7,19 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mos.HallMapper;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallActiveException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallHasReservationsException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallNotFoundException;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.endpoints.interfaces.RemoveHallEndpointLocal;
+import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallCatalog;
 import pl.lodz.p.it.ssbd2020.ssbd05.mos.managers.HallManager;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.TransactionRetryExecutor;
 
+import javax.annotation.Resource;
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.EJBTransactionRolledbackException;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateful;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -37,6 +39,12 @@ public class RemoveHallEndpoint implements Serializable, RemoveHallEndpointLocal
 
     @Inject
     private HallManager hallManager;
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
+    @Inject
+    private HallCatalog hallCatalog;
+    @Resource
+    private SessionContext sessionContext;
 
     @Getter
     @Setter
@@ -45,51 +53,24 @@ public class RemoveHallEndpoint implements Serializable, RemoveHallEndpointLocal
     @Override
     @RolesAllowed("removeHall")
     public void removeHall(HallDTO hallDTO) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                if (hall.isActive()) {
-                    throw new HallActiveException();
-                } else if (!hall.getReservationCollection().isEmpty()) {
-                    throw new HallHasReservationsException();
-                } else {
-                    hallManager.removeHall(hall);
-                }
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
+        transactionRetryExecutor.run("RemoveHallEndpoint.removeHall", hallManager, () -> {
+            if (hall.isActive()) {
+                throw new HallActiveException();
+            } else if (!hall.getReservationCollection().isEmpty()) {
+                throw new HallHasReservationsException();
+            } else {
+                hallManager.removeHall(hall);
             }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
-        }
+        });
     }
 
     @Override
     @PermitAll
     public HallDTO getHallByName(String hallName) throws AppBaseException {
-        int callCounter = 0;
-        boolean rollback;
-        do {
-            try {
-                hall = hallManager.getHallByName(hallName);
-                rollback = hallManager.isLastTransactionRollback();
-            } catch (EJBTransactionRolledbackException e) {
-                log.warning("EJBTransactionRolledBack");
-                rollback = true;
-            }
-            if (callCounter > 0)
-                log.info("Transaction with ID " + hallManager.getTransactionId() + " is being repeated for " + callCounter + " time");
-            callCounter++;
-        } while (rollback && callCounter <= ResourceBundles.getTransactionRepeatLimit());
-        if (rollback) {
-            throw new ExceededTransactionRetriesException();
+        if (!sessionContext.isCallerInRole("removeHall")) {
+            return hallCatalog.getByName(hallName).orElseThrow(HallNotFoundException::new);
         }
+        hall = transactionRetryExecutor.call("RemoveHallEndpoint.getHallByName", hallManager, () -> hallManager.getHallByName(hallName));
         return HallMapper.INSTANCE.toHallDTO(hall);
     }
 }
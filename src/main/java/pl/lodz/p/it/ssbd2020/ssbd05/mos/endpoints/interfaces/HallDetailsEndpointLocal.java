@@ -13,7 +13,8 @@ import javax.ejb.Local;
 public interface HallDetailsEndpointLocal {
 
     /**
-     * Metoda odpowiedzialna za pobieranie pojedynczej sali na podstawie jej nazwy
+     * Metoda odpowiedzialna za pobieranie pojedynczej sali na podstawie jej nazwy.
+     * Użytkownik, który nie może zmienić aktywności sali, otrzymuje salę z katalogu przechowywanego w pamięci.
      *
      * @param name Nazwa sali
      * @return Obiekt typu HallDTO reprezentujący salę
@@ -4,6 +4,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 
 import javax.ejb.Local;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,11 +23,26 @@ public interface ListHallsEndpointLocal {
     List<HallDTO> getAllHalls() throws AppBaseException;
 
     /**
-     * Metoda odpowiedzialna za filtrowanie listy sal zgodnie z podanym ciągiem znaków
+     * Metoda odpowiedzialna za filtrowanie listy sal zgodnie z podanym ciągiem znaków.
+     * Sale uporządkowane są według trafności dopasowania.
      *
      * @param hallFilter Ciąg znaków do filtrowania
+     * @param limit      Maksymalna liczba wyników
      * @return Lista obiektów HallDTO
      * @throws AppBaseException podstawowy wyjąek aplikacyjny
      */
-    List<HallDTO> getFilteredHalls(String hallFilter) throws AppBaseException;
+    List<HallDTO> getFilteredHalls(String hallFilter, int limit) throws AppBaseException;
+
+    /**
+     * Metoda odpowiedzialna za wyszukanie aktywnych sal wolnych w podanym terminie,
+     * mieszczących podaną liczbę gości i pozwalających na organizację imprezy danego typu
+     *
+     * @param startDate     Data rozpoczęcia
+     * @param endDate       Data zakończenia
+     * @param capacity      Minimalna pojemność sali
+     * @param eventTypeName Nazwa typu imprezy
+     * @return Lista obiektów HallDTO
+     * @throws AppBaseException podstawowy wyjąek aplikacyjny
+     */
+    List<HallDTO> getAvailableHalls(LocalDateTime startDate, LocalDateTime endDate, int capacity, String eventTypeName) throws AppBaseException;
 }
@@ -20,7 +20,8 @@ public interface RemoveHallEndpointLocal {
     void removeHall(HallDTO hallDTO) throws AppBaseException;
 
     /**
-     * Metoda odpowiadająca za pobranie sali
+     * Metoda odpowiadająca za pobranie sali.
+     * Użytkownik, który nie może usunąć sali, otrzymuje salę z katalogu przechowywanego w pamięci.
      *
      * @param hallName nazwa sali
      * @return Obiekt typu HallDTO reprezentujący salę
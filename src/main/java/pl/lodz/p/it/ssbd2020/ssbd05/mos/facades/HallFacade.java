@@ -8,6 +8,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.AppOptimisticLockException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mos.HallAlreadyExistsException;
+import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.LookupCacheInterceptor;
 import pl.lodz.p.it.ssbd2020.ssbd05.interceptors.TrackerInterceptor;
 
 import javax.annotation.security.DenyAll;
@@ -19,7 +20,6 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
 import javax.persistence.*;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -70,6 +70,7 @@ public class HallFacade extends AbstractFacade<Hall> {
      * @throws AppBaseException podstawowy wyjątek aplikacyjny
      */
     @PermitAll
+    @Interceptors(LookupCacheInterceptor.class)
     public Optional<Hall> findByName(String name) throws AppBaseException {
         try {
             return Optional.ofNullable(this.em.createNamedQuery("Hall.findByName", Hall.class)
@@ -121,23 +122,6 @@ public class HallFacade extends AbstractFacade<Hall> {
         }
     }
 
-    /**
-     * Metoda odpowiedzialna za filtrowanie listy sal zgodnie z podanym ciągiem znaków
-     *
-     * @param hallFilter Ciąg znaków do filtrowania
-     * @return Kolekcja obiektów typu Hall
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    @PermitAll
-    public Collection<Hall> filter(String hallFilter) throws AppBaseException {
-        try {
-            return em.createNamedQuery("Hall.filterByNameAndAddress", Hall.class)
-                    .setParameter("filter", hallFilter).getResultList();
-        } catch (DatabaseException | PersistenceException e) {
-            throw new DatabaseConnectionException(e);
-        }
-    }
-
     @Override
     @DenyAll
     public int count() {
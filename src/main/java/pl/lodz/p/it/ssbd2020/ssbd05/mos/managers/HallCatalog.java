@@ -0,0 +1,218 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mos.managers;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mos.HallMapper;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.managers.ReservationScheduleIndex;
+import pl.lodz.p.it.ssbd2020.ssbd05.mos.facades.HallFacade;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.NGramIndex;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.security.PermitAll;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Katalog sal przechowywany w pamięci w postaci niezmiennej migawki obiektów HallDTO.
+ * Przeglądanie, filtrowanie i wyszukiwanie sal oraz wyświetlanie ich szczegółów nie wymaga dostępu do bazy danych
+ * ani blokowania - odczyt pobiera bieżącą migawkę, a każda zatwierdzona zmiana sali tworzy nową migawkę
+ * i atomowo podmienia poprzednią, wraz z indeksem trigramów używanym przy filtrowaniu.
+ * Zwracane obiekty są kopiami, więc ich modyfikacja nie zmienia katalogu.
+ */
+@Log
+@Startup
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class HallCatalog {
+
+    @Inject
+    private HallFacade hallFacade;
+
+    @Inject
+    private ReservationScheduleIndex reservationScheduleIndex;
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Collections.emptyMap()));
+
+    /**
+     * Metoda odbudowująca katalog na podstawie sal zapisanych w bazie danych.
+     */
+    @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void rebuild() {
+        try {
+            Map<Long, HallDTO> halls = new HashMap<>();
+            for (Hall hall : hallFacade.findAll()) {
+                halls.put(hall.getId(), HallMapper.INSTANCE.toHallDTO(hall));
+            }
+            snapshot.set(new Snapshot(halls));
+            log.info("Hall catalog has been rebuilt for " + halls.size() + " halls");
+        } catch (AppBaseException e) {
+            log.severe("Hall catalog could not be rebuilt: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda zwracająca wszystkie sale.
+     *
+     * @return lista sal uporządkowana według nazw
+     */
+    @PermitAll
+    public List<HallDTO> getAll() {
+        return snapshot.get().byId.values().stream()
+                .map(HallMapper.INSTANCE::copy)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Metoda zwracająca salę o podanej nazwie.
+     *
+     * @param name nazwa sali
+     * @return obiekt typu Optional
+     */
+    @PermitAll
+    public Optional<HallDTO> getByName(String name) {
+        return Optional.ofNullable(snapshot.get().byName.get(name)).map(HallMapper.INSTANCE::copy);
+    }
+
+    /**
+     * Metoda zwracająca sale, których nazwa, ulica lub miasto zawiera podany ciąg znaków, bez względu na wielkość liter.
+     * Kandydaci wyznaczani są na podstawie indeksu trigramów. Wyniki uporządkowane są według trafności:
+     * najpierw sale o nazwie równej filtrowi, następnie o nazwie rozpoczynającej się od filtra, o nazwie zawierającej filtr
+     * i na końcu sale dopasowane po adresie.
+     *
+     * @param hallFilter ciąg znaków do filtrowania
+     * @param limit      maksymalna liczba wyników
+     * @return lista sal uporządkowana według trafności i nazw
+     */
+    @PermitAll
+    public List<HallDTO> filter(String hallFilter, int limit) {
+        String filter = NGramIndex.normalize(hallFilter);
+        Snapshot current = snapshot.get();
+        Set<Long> candidates = current.index.candidates(filter);
+        Collection<Long> ids = candidates == null ? current.byId.keySet() : candidates;
+        return ids.stream()
+                .map(current.byId::get)
+                .map(hall -> new AbstractMap.SimpleEntry<>(hall, rank(hall, filter)))
+                .filter(entry -> entry.getValue() < NO_MATCH)
+                .sorted(Map.Entry.<HallDTO, Integer>comparingByValue()
+                        .thenComparing(entry -> entry.getKey().getName()))
+                .limit(limit)
+                .map(entry -> HallMapper.INSTANCE.copy(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Metoda zwracająca aktywne sale, które są wolne w podanym przedziale czasowym, mieszczą podaną liczbę gości
+     * i pozwalają na organizację imprezy danego typu. Dostępność terminu sprawdzana jest w indeksie rezerwacji.
+     *
+     * @param startDate     data rozpoczęcia
+     * @param endDate       data zakończenia
+     * @param capacity      minimalna pojemność sali
+     * @param eventTypeName nazwa typu imprezy
+     * @return lista sal uporządkowana według nazw
+     */
+    @PermitAll
+    public List<HallDTO> getAvailable(LocalDateTime startDate, LocalDateTime endDate, int capacity, String eventTypeName) {
+        Snapshot current = snapshot.get();
+        return current.byId.entrySet().stream()
+                .filter(entry -> entry.getValue().isActive()
+                        && entry.getValue().getCapacity() >= capacity
+                        && entry.getValue().getEvent_type().contains(eventTypeName)
+                        && reservationScheduleIndex.isAvailable(entry.getKey(), startDate, endDate))
+                .map(entry -> HallMapper.INSTANCE.copy(entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Metoda dodająca lub zastępująca salę w katalogu. Powinna być wywoływana po zatwierdzeniu transakcji,
+     * w której sala została dodana lub zmieniona.
+     *
+     * @param id   identyfikator sali
+     * @param hall sala
+     */
+    @PermitAll
+    public void put(Long id, HallDTO hall) {
+        HallDTO copy = HallMapper.INSTANCE.copy(hall);
+        snapshot.updateAndGet(current -> {
+            Map<Long, HallDTO> halls = new HashMap<>(current.byId);
+            halls.put(id, copy);
+            return new Snapshot(halls);
+        });
+    }
+
+    /**
+     * Metoda usuwająca salę z katalogu. Powinna być wywoływana po zatwierdzeniu transakcji,
+     * w której sala została usunięta.
+     *
+     * @param id identyfikator sali
+     */
+    @PermitAll
+    public void remove(Long id) {
+        snapshot.updateAndGet(current -> {
+            Map<Long, HallDTO> halls = new HashMap<>(current.byId);
+            halls.remove(id);
+            return new Snapshot(halls);
+        });
+    }
+
+    private static int rank(HallDTO hall, String filter) {
+        String name = NGramIndex.normalize(hall.getName());
+        if (name.equals(filter)) {
+            return 0;
+        } else if (name.startsWith(filter)) {
+            return 1;
+        } else if (name.contains(filter)) {
+            return 2;
+        } else if (NGramIndex.normalize(hall.getAddress().getStreet()).contains(filter)
+                || NGramIndex.normalize(hall.getAddress().getCity()).contains(filter)) {
+            return 3;
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Niezmienna migawka katalogu sal uporządkowana według nazw, wraz z indeksem trigramów nazw i adresów sal.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, HallDTO> byId;
+        private final Map<String, HallDTO> byName;
+        private final NGramIndex<Long> index;
+
+        private Snapshot(Map<Long, HallDTO> halls) {
+            Map<Long, HallDTO> sortedById = new LinkedHashMap<>();
+            Map<String, HallDTO> indexByName = new HashMap<>();
+            halls.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.comparing(HallDTO::getName)))
+                    .forEach(entry -> {
+                        sortedById.put(entry.getKey(), entry.getValue());
+                        indexByName.put(entry.getValue().getName(), entry.getValue());
+                    });
+            this.byId = Collections.unmodifiableMap(sortedById);
+            this.byName = Collections.unmodifiableMap(indexByName);
+            this.index = new NGramIndex<>(halls.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> Arrays.asList(entry.getValue().getName(),
+                            entry.getValue().getAddress().getStreet(), entry.getValue().getAddress().getCity()))));
+        }
+    }
+}
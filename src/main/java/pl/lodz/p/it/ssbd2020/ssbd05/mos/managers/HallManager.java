@@ -2,6 +2,8 @@ package pl.lodz.p.it.ssbd2020.ssbd05.mos.managers;
 
 import lombok.extern.java.Log;
 import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractManager;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mappers.mos.HallMapper;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mos.HallDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Address;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.EventType;
 import pl.lodz.p.it.ssbd2020.ssbd05.entities.mos.Hall;
@@ -17,7 +19,7 @@ import javax.annotation.security.RolesAllowed;
 import javax.ejb.*;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
-import java.util.Collection;
+import java.rmi.RemoteException;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +42,33 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
     @Inject
     private EventTypesFacade eventTypesFacade;
 
+    @Inject
+    private HallCatalog hallCatalog;
+
+    private Long changedHallId;
+    private HallDTO changedHall;
+
+    /**
+     * Metoda aktualizująca katalog sal po zatwierdzeniu transakcji, w której sala została dodana, zmieniona lub usunięta.
+     *
+     * @param committed informacja, czy transakcja została zatwierdzona
+     * @throws EJBException    wyjątek EJB
+     * @throws RemoteException wyjątek zdalnego wywołania
+     */
+    @Override
+    public void afterCompletion(boolean committed) throws EJBException, RemoteException {
+        super.afterCompletion(committed);
+        if (committed && changedHallId != null) {
+            if (changedHall != null) {
+                hallCatalog.put(changedHallId, changedHall);
+            } else {
+                hallCatalog.remove(changedHallId);
+            }
+        }
+        changedHallId = null;
+        changedHall = null;
+    }
+
     /**
      * Metoda odpowiedzialna za dodawanie sali i opcjonalne dodawanie adresu
      *
@@ -63,6 +92,8 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
             hall.setAddress(newAddress);
         }
         hallFacade.create(hall);
+        changedHallId = hall.getId();
+        changedHall = HallMapper.INSTANCE.toHallDTO(hall);
     }
 
     /**
@@ -74,34 +105,7 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
      */
     @PermitAll
     public Hall getHallByName(String name) throws AppBaseException {
-        if (hallFacade.findByName(name).isPresent()) {
-            return hallFacade.findByName(name).get();
-        } else {
-            throw new HallNotFoundException();
-        }
-    }
-
-    /**
-     * Metoda odpowiedzialna za pobieranie wszystkich sal
-     *
-     * @return kolekcja obiektów typu Hall
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    @PermitAll
-    public Collection<Hall> getAllHalls() throws AppBaseException {
-        return hallFacade.findAll();
-    }
-
-    /**
-     * Metoda odpowiedzialna za filtrowanie listy sal zgodnie z podanym ciągiem znaków
-     *
-     * @param hallFilter Ciąg znaków do filtrowania
-     * @return Kolekcja obiektów typu Hall
-     * @throws AppBaseException podstawowy wyjątek aplikacyjny
-     */
-    @PermitAll
-    public Collection<Hall> getFilteredHalls(String hallFilter) throws AppBaseException {
-        return hallFacade.filter(hallFilter);
+        return hallFacade.findByName(name).orElseThrow(HallNotFoundException::new);
     }
 
     /**
@@ -113,6 +117,8 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
     @RolesAllowed("editHall")
     public void editHall(Hall hall) throws AppBaseException {
         hallFacade.edit(hall);
+        changedHallId = hall.getId();
+        changedHall = HallMapper.INSTANCE.toHallDTO(hall);
     }
 
     /**
@@ -146,6 +152,7 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
     @RolesAllowed("removeHall")
     public void removeHall(Hall hall) throws AppBaseException{
         hallFacade.remove(hall);
+        changedHallId = hall.getId();
     }
 
     /**
@@ -157,5 +164,7 @@ public class HallManager extends AbstractManager implements SessionSynchronizati
     @RolesAllowed("changeHallActivity")
     public void changeActivity(Hall hall) throws AppBaseException{
         hallFacade.edit(hall);
+        changedHallId = hall.getId();
+        changedHall = HallMapper.INSTANCE.toHallDTO(hall);
     }
 }
@@ -0,0 +1,94 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler dziennika zdarzeń przekazujący wpisy do docelowych handlerów w osobnym wątku.
+ * Wpisy oczekują w buforze o stałym rozmiarze, a po jego zapełnieniu najstarsze wpisy są odrzucane,
+ * dzięki czemu wątek logujący nigdy nie jest blokowany.
+ */
+public class AsyncRingBufferHandler extends Handler {
+
+    private final Handler[] delegates;
+    private final BlockingQueue<LogRecord> buffer;
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Konstruktor uruchamiający wątek przekazujący wpisy.
+     *
+     * @param capacity      Rozmiar bufora.
+     * @param threadFactory Fabryka wątku przekazującego wpisy, w kontenerze zarządzana przez serwer aplikacji.
+     * @param delegates     Handlery docelowe.
+     */
+    public AsyncRingBufferHandler(int capacity, ThreadFactory threadFactory, Handler... delegates) {
+        this.delegates = delegates;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.worker = threadFactory.newThread(this::drain);
+        this.worker.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        while (!buffer.offer(record)) {
+            if (buffer.poll() != null) {
+                droppedRecords.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (Handler delegate : delegates) {
+            delegate.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Metoda zwracająca liczbę wpisów odrzuconych z powodu zapełnienia bufora.
+     *
+     * @return Liczba odrzuconych wpisów.
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    private void drain() {
+        try {
+            while (!closed || !buffer.isEmpty()) {
+                LogRecord record = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    for (Handler delegate : delegates) {
+                        delegate.publish(record);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.eclipse.persistence.internal.sessions.AbstractRecord;
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.Record;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionProfiler;
+
+/**
+ * Profiler EclipseLink zliczający trafienia i chybienia w pamięć podręczną drugiego poziomu.
+ * Włączany właściwością eclipselink.profiler jednostki trwałości, wyniki rejestruje w {@link PerformanceMetrics}.
+ * Nie mierzy czasu operacji, dzięki czemu nie wpływa na wydajność zapytań.
+ */
+public class CacheStatisticsProfiler implements SessionProfiler {
+
+    private int profileWeight = NORMAL;
+
+    @Override
+    public void occurred(String operationName, DatabaseQuery query, AbstractSession session) {
+        boolean hit = CacheHits.equals(operationName);
+        if (query == null || !hit && !CacheMisses.equals(operationName)) {
+            return;
+        }
+        String name = query.getName();
+        if (name == null || name.isEmpty()) {
+            name = query.getReferenceClass() == null ? query.getClass().getSimpleName()
+                    : query.getReferenceClass().getSimpleName() + ".find";
+        }
+        PerformanceMetrics.recordCacheAccess(name, hit);
+    }
+
+    @Override
+    public void occurred(String operationName, AbstractSession session) {
+    }
+
+    @Override
+    public Object profileExecutionOfQuery(DatabaseQuery query, Record row, AbstractSession session) {
+        return session.internalExecuteQuery(query, (AbstractRecord) row);
+    }
+
+    @Override
+    public void startOperationProfile(String operationName) {
+    }
+
+    @Override
+    public void startOperationProfile(String operationName, DatabaseQuery query, int weight) {
+    }
+
+    @Override
+    public void endOperationProfile(String operationName) {
+    }
+
+    @Override
+    public void endOperationProfile(String operationName, DatabaseQuery query, int weight) {
+    }
+
+    @Override
+    public void update(String operationName, Object value) {
+    }
+
+    @Override
+    public void setSession(Session session) {
+    }
+
+    @Override
+    public void setProfileWeight(int profileWeight) {
+        this.profileWeight = profileWeight;
+    }
+
+    @Override
+    public int getProfileWeight() {
+        return profileWeight;
+    }
+
+    @Override
+    public void initialize() {
+    }
+}
@@ -0,0 +1,91 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Klasa realizująca wyłącznik awaryjny (circuit breaker).
+ * Po osiągnięciu progu kolejnych niepowodzeń wyłącznik zostaje otwarty i przez podany czas odrzuca wywołania.
+ * Po upływie tego czasu przepuszczane jest jedno wywołanie próbne, którego wynik decyduje o zamknięciu
+ * lub ponownym otwarciu wyłącznika. Bezpieczna wątkowo.
+ */
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean open;
+    private boolean trialInProgress;
+
+    /**
+     * Konstruktor wyłącznika korzystającego z zegara systemowego.
+     *
+     * @param failureThreshold Liczba kolejnych niepowodzeń powodująca otwarcie wyłącznika.
+     * @param openMillis       Czas w milisekundach, przez który otwarty wyłącznik odrzuca wywołania.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Metoda sprawdzająca, czy wywołanie może zostać wykonane.
+     *
+     * @return Wartość logiczna.
+     */
+    public synchronized boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (!trialInProgress && clock.getAsLong() - openedAt >= openMillis) {
+            trialInProgress = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Metoda rejestrująca udane wywołanie, zamyka wyłącznik.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        open = false;
+        trialInProgress = false;
+    }
+
+    /**
+     * Metoda rejestrująca nieudane wywołanie, po przekroczeniu progu otwiera wyłącznik.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (trialInProgress || consecutiveFailures >= failureThreshold) {
+            open = true;
+            openedAt = clock.getAsLong();
+        }
+        trialInProgress = false;
+    }
+
+    /**
+     * Metoda zwalniająca wywołanie próbne, którego wynik nie został zarejestrowany, np. z powodu wyjątku systemowego.
+     * Stan wyłącznika nie zmienia się, a kolejne wywołanie może zostać wywołaniem próbnym.
+     */
+    public synchronized void releaseTrial() {
+        trialInProgress = false;
+    }
+
+    /**
+     * Metoda sprawdzająca, czy wyłącznik jest otwarty.
+     *
+     * @return Wartość logiczna.
+     */
+    public synchronized boolean isOpen() {
+        return open;
+    }
+}
@@ -0,0 +1,232 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.OutboxEmail;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mok.facades.OutboxEmailFacade;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Skrzynka nadawcza wiadomości email.
+ * Wiadomości zapisywane są w bazie danych, a następnie cyklicznie rezerwowane i wysyłane paczkami przez pulę wątków
+ * zarządzaną przez kontener. Rezerwacja przesuwa termin wysłania wiadomości o czas rezerwacji, dzięki czemu
+ * wiadomość nie zostanie wysłana ponownie przez inny węzeł ani kolejne wywołanie, dopóki rezerwacja nie wygaśnie.
+ * Każda paczka wysyłana jest jednym połączeniem SMTP i rozliczana zaraz po wysłaniu. Wiadomości, których nie udało się
+ * wysłać, ponawiane są z wykładniczo rosnącym odstępem, a po przekroczeniu limitu prób odrzucane.
+ * Konfiguracja znajduje się w pliku config.email.properties.
+ */
+@Log
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EmailOutbox {
+
+    @Inject
+    private OutboxEmailFacade outboxEmailFacade;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private SmtpMailer smtpMailer;
+    private int batchSize;
+    private int workers;
+    private int maxAttempts;
+    private long retryBaseSeconds;
+    private long retryMaxSeconds;
+    private long leaseSeconds;
+
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Metoda wczytująca konfigurację poczty i tworząca klienta SMTP.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            Properties properties = ResourceBundles.loadProperties("config.email.properties");
+            batchSize = Integer.parseInt(properties.getProperty("outbox.batchSize", "20").trim());
+            workers = Integer.parseInt(properties.getProperty("outbox.workers", "2").trim());
+            maxAttempts = Integer.parseInt(properties.getProperty("outbox.maxAttempts", "6").trim());
+            retryBaseSeconds = Long.parseLong(properties.getProperty("outbox.retryBaseSeconds", "30").trim());
+            retryMaxSeconds = Long.parseLong(properties.getProperty("outbox.retryMaxSeconds", "3600").trim());
+            leaseSeconds = Long.parseLong(properties.getProperty("outbox.leaseSeconds", "300").trim());
+            smtpMailer = new SmtpMailer(properties);
+        } catch (AppBaseException e) {
+            log.severe("Email configuration could not be loaded, emails will not be sent");
+        }
+    }
+
+    /**
+     * Metoda zapisująca wiadomość w skrzynce nadawczej. Wiadomość zostanie wysłana w tle.
+     *
+     * @param recipient Adres odbiorcy.
+     * @param subject   Temat wiadomości.
+     * @param body      Treść wiadomości w formacie HTML.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void enqueue(String recipient, String subject, String body) throws AppBaseException {
+        outboxEmailFacade.create(new OutboxEmail(recipient, subject, body));
+        queued.increment();
+    }
+
+    /**
+     * Metoda zapisująca wiele wiadomości w skrzynce nadawczej w jednej transakcji. Wiadomości zostaną wysłane w tle.
+     *
+     * @param messages Wiadomości do wysłania.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void enqueueAll(List<OutboxEmail> messages) throws AppBaseException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        outboxEmailFacade.createAll(messages);
+        queued.add(messages.size());
+    }
+
+    /**
+     * Metoda cyklicznie wysyłająca oczekujące wiadomości. Wiadomości dzielone są na paczki wysyłane równolegle
+     * przez pulę wątków kontenera. Kolejne wywołanie nie rozpocznie się przed zakończeniem poprzedniego.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void dispatch() {
+        if (smtpMailer == null || !dispatching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            EmailOutbox self = sessionContext.getBusinessObject(EmailOutbox.class);
+            List<OutboxEmail> due = self.claimDue();
+            if (due.isEmpty()) {
+                return;
+            }
+            inFlight.set(due.size());
+            List<List<OutboxEmail>> batches = new ArrayList<>();
+            List<Future<List<OutboxEmail>>> results = new ArrayList<>();
+            for (int i = 0; i < due.size(); i += batchSize) {
+                List<OutboxEmail> batch = due.subList(i, Math.min(i + batchSize, due.size()));
+                batches.add(batch);
+                results.add(managedExecutorService.submit(() -> smtpMailer.send(batch)));
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                List<OutboxEmail> delivered = new ArrayList<>();
+                try {
+                    delivered.addAll(results.get(i).get());
+                } catch (ExecutionException e) {
+                    log.warning("Email batch failed: " + e.getCause());
+                }
+                List<OutboxEmail> failed = new ArrayList<>(batches.get(i));
+                failed.removeAll(delivered);
+                self.complete(delivered.stream().map(OutboxEmail::getId).collect(Collectors.toList()), failed);
+                inFlight.addAndGet(-batches.get(i).size());
+            }
+        } catch (AppBaseException e) {
+            log.warning("Email outbox could not be processed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.set(0);
+            dispatching.set(false);
+        }
+    }
+
+    /**
+     * Metoda rezerwująca wiadomości oczekujące na wysłanie na czas rezerwacji. Wywoływana wyłącznie przez metodę dispatch.
+     * Wiadomość, której wysłania nie rozliczono przed upływem rezerwacji, np. z powodu awarii węzła, zostanie
+     * zarezerwowana ponownie.
+     *
+     * @return Lista wiadomości, nie dłuższa niż łączny rozmiar paczek wszystkich wątków.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<OutboxEmail> claimDue() throws AppBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEmailFacade.claimDue(now, now.plusSeconds(leaseSeconds), batchSize * workers);
+    }
+
+    /**
+     * Metoda usuwająca wysłane wiadomości i planująca ponowienie pozostałych. Wywoływana wyłącznie przez metodę dispatch.
+     *
+     * @param deliveredIds Identyfikatory wysłanych wiadomości.
+     * @param failed       Wiadomości, których nie udało się wysłać.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void complete(List<Long> deliveredIds, List<OutboxEmail> failed) throws AppBaseException {
+        List<Long> removedIds = new ArrayList<>(deliveredIds);
+        for (OutboxEmail message : failed) {
+            int attempts = message.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.severe("Email " + message.getId() + " to " + message.getRecipient() + " dropped after " + attempts + " attempts");
+                removedIds.add(message.getId());
+                dropped.increment();
+            } else {
+                message.setAttempts(attempts);
+                message.setNextAttempt(LocalDateTime.now().plusSeconds(retryDelaySeconds(attempts, retryBaseSeconds, retryMaxSeconds)));
+                outboxEmailFacade.edit(message);
+                retried.increment();
+            }
+        }
+        if (!removedIds.isEmpty()) {
+            outboxEmailFacade.removeByIds(removedIds);
+        }
+        sent.add(deliveredIds.size());
+    }
+
+    /**
+     * Metoda zwracająca statystyki skrzynki nadawczej: liczbę wiadomości oczekujących i wysyłanych
+     * oraz liczniki wiadomości zapisanych, wysłanych, ponowionych i odrzuconych od uruchomienia aplikacji.
+     *
+     * @return Mapa nazw statystyk i ich wartości.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("pending", (long) outboxEmailFacade.count());
+        statistics.put("inFlight", (long) inFlight.get());
+        statistics.put("queued", queued.sum());
+        statistics.put("sent", sent.sum());
+        statistics.put("retried", retried.sum());
+        statistics.put("dropped", dropped.sum());
+        return statistics;
+    }
+
+    /**
+     * Metoda wyliczająca odstęp przed kolejną próbą wysłania wiadomości, podwajany po każdej nieudanej próbie.
+     *
+     * @param attempts    Liczba nieudanych prób.
+     * @param baseSeconds Odstęp po pierwszej nieudanej próbie.
+     * @param maxSeconds  Maksymalny odstęp.
+     * @return Odstęp w sekundach.
+     */
+    static long retryDelaySeconds(int attempts, long baseSeconds, long maxSeconds) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(baseSeconds << exponent, maxSeconds);
+    }
+}
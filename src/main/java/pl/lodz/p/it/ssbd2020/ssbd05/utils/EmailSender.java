@@ -1,38 +1,33 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.utils;
 
-import com.sun.mail.smtp.SMTPTransport;
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.OutboxEmail;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.mor.ReservationStatuses;
 
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
 import javax.faces.context.FacesContext;
-import javax.mail.Message;
-import javax.mail.MessagingException;
-import javax.mail.Session;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeBodyPart;
-import javax.mail.internet.MimeMessage;
-import javax.mail.internet.MimeMultipart;
+import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Date;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
- * Klasa odpowiedzialna za wysyłanie maili z naszego systemu do użytkowników
+ * Klasa odpowiedzialna za wysyłanie maili z naszego systemu do użytkowników.
+ * Treść maila przygotowywana jest w wątku obsługującym żądanie, a sam mail przekazywany do {@link EmailOutbox}.
  */
 @Log
+@ApplicationScoped
 public class EmailSender {
 
-    private final Properties emailProperties;
+    private static final Locale DEFAULT_LOCALE = new Locale("pl");
 
-    /**
-     * Konstruktor bezparametrowy klasy EmailSender
-     *
-     * @throws AppBaseException Wyjątek aplikacyjny
-     */
-    public EmailSender() throws AppBaseException {
-        emailProperties = ResourceBundles.loadProperties("config.email.properties");
-    }
+    @Inject
+    private EmailOutbox emailOutbox;
 
     /**
      * Wyślij mail do potwierdzenia konta. Wysyłany po zarejestrowaniu.
@@ -46,10 +41,7 @@ public class EmailSender {
         String link = request.getRequestURL()
                 .substring(0, (request.getRequestURL().length() - request.getServletPath().length())).concat("/confirmAccount.xhtml?token=");
         String body = "<a href=\"" + link + token + "\">"+ ResourceBundles.getTranslatedText("mail.account.confirm.body") +"</a>";
-        new Thread(() -> {
-            sendEmail(mail, subject, body);
-            return;
-        }).start();
+        sendEmail(mail, subject, body);
     }
 
     /**
@@ -60,11 +52,7 @@ public class EmailSender {
     public void sendBlockedAccountEmail(String mail) {
         String subject = ResourceBundles.getTranslatedText("mail.account.blocked.subject");
         String body = ResourceBundles.getTranslatedText("mail.account.blocked");
-
-        new Thread(() -> {
-            sendEmail(mail, subject, body);
-            return;
-        }).start();
+        sendEmail(mail, subject, body);
     }
 
     /**
@@ -75,11 +63,7 @@ public class EmailSender {
     public void sendUnlockedAccountEmail(String mail) {
         String subject = ResourceBundles.getTranslatedText("mail.account.unlocked");
         String body = ResourceBundles.getTranslatedText("mail.account.unlocked");
-
-        new Thread(() -> {
-            sendEmail(mail, subject, body);
-            return;
-        }).start();
+        sendEmail(mail, subject, body);
     }
 
     /**
@@ -90,11 +74,7 @@ public class EmailSender {
     public void sendConfirmedAccountEmail(String mail) {
         String subject = ResourceBundles.getTranslatedText("messages.account.confirmed");
         String body = ResourceBundles.getTranslatedText("messages.account.confirmed");
-
-        new Thread(() -> {
-            sendEmail(mail, subject, body);
-            return;
-        }).start();
+        sendEmail(mail, subject, body);
     }
 
     /**
@@ -113,11 +93,7 @@ public class EmailSender {
                 .append(", ")
                 .append(ResourceBundles.getTranslatedText("mail.admin.login.ip"))
                 .append(" ").append(ip);
-
-        new Thread(() -> {
-            sendEmail(mail, subject, body.toString());
-            return;
-        }).start();
+        sendEmail(mail, subject, body.toString());
     }
 
     /**
@@ -132,11 +108,7 @@ public class EmailSender {
         String link = request.getRequestURL()
                 .substring(0, (request.getRequestURL().length() - request.getServletPath().length())).concat("/changeResettedPassword.xhtml?token=");
         String body = "<a href=\"" + link + token + "\">"+ ResourceBundles.getTranslatedText("mail.resetpassword.body") +"</a>";
-
-        new Thread(() -> {
-            sendEmail(mail, subject, body);
-            return;
-        }).start();
+        sendEmail(mail, subject, body);
     }
     /**
      * Metoda wysyłająca mail z wiadomością o zmianie statusu rezerwacji.
@@ -155,56 +127,43 @@ public class EmailSender {
                 .append(ResourceBundles.getTranslatedText("mail.reservation.status.change.status"))
                 .append(" ")
                 .append(newStatus);
+        sendEmail(mail, subject, body.toString());
+    }
 
-        new Thread(() -> {
-            sendEmail(mail, subject, body.toString());
-            return;
-        }).start();
+    /**
+     * Metoda zapisująca w skrzynce nadawczej, w jednej transakcji, maile o zakończeniu rezerwacji.
+     * Wywoływana poza żądaniem JSF, dlatego treść przygotowywana jest w domyślnym języku aplikacji.
+     *
+     * @param mailsByReservationNumber mapa numerów rezerwacji i adresów email klientów
+     */
+    public void sendFinishedReservationEmails(Map<String, String> mailsByReservationNumber) {
+        String subject = ResourceBundles.getTranslatedText("mail.reservation.status.change.subject", DEFAULT_LOCALE);
+        String number = ResourceBundles.getTranslatedText("mail.reservation.status.change.number", DEFAULT_LOCALE);
+        String status = ResourceBundles.getTranslatedText("mail.reservation.status.change.status", DEFAULT_LOCALE);
+        String finished = ResourceBundles.getTranslatedText(ReservationStatuses.finished.name(), DEFAULT_LOCALE);
+        List<OutboxEmail> messages = new ArrayList<>();
+        mailsByReservationNumber.forEach((reservationNumber, mail) ->
+                messages.add(new OutboxEmail(mail, subject, number + " " + reservationNumber + " " + status + " " + finished)));
+        try {
+            emailOutbox.enqueueAll(messages);
+        } catch (AppBaseException | EJBException e) {
+            log.warning("An error occurred while queueing emails " + e.getMessage() + " " + LocalDateTime.now());
+        }
     }
 
     /**
-     * Metoda odpowiadająca bezpośrednio za wysłanie maila
+     * Metoda zapisująca mail w skrzynce nadawczej, z której zostanie wysłany w tle.
+     * Niepowodzenie zapisu nie przerywa operacji, która spowodowała wysłanie maila.
      *
      * @param mail    mail
      * @param subject subject
      * @param body    body
      */
     private void sendEmail(String mail, String subject, String body) {
-        Properties prop = System.getProperties();
-        prop.put("mail.smtp.host", emailProperties.getProperty("host"));
-        prop.put("mail.smtp.auth", "true");
-        prop.put("mail.smtp.port", emailProperties.getProperty("port"));
-        prop.put("mail.smtp.ssl.trust", emailProperties.getProperty("host"));
-        prop.put("mail.smtp.starttls.enable", "true");
-
-        Session session = Session.getInstance(prop, null);
-        Message msg = new MimeMessage(session);
-
         try {
-            MimeBodyPart mimeBodyPart = new MimeBodyPart();
-            mimeBodyPart.setText(body, "UTF-8", "html");
-            MimeMultipart mimeMultipart = new MimeMultipart();
-            mimeMultipart.addBodyPart(mimeBodyPart);
-
-            msg.setFrom(new InternetAddress(emailProperties.getProperty("username")));
-            msg.setContent(mimeMultipart);
-            msg.setRecipients(Message.RecipientType.TO,
-                    InternetAddress.parse(mail, false));
-            msg.setSubject(subject);
-            msg.setSentDate(new Date());
-
-            SMTPTransport t = (SMTPTransport) session.getTransport("smtp");
-            t.connect(emailProperties.getProperty("host"), emailProperties.getProperty("username"), emailProperties.getProperty("password"));
-            t.sendMessage(msg, msg.getAllRecipients());
-
-            if(t.getLastReturnCode() != Integer.parseInt(emailProperties.getProperty("code")))
-                log.warning("An error occurred while sending email");
-
-            t.close();
-
-        } catch (MessagingException e) {
-            log.warning("An error occurred while sending email " + e.getMessage() + " " + LocalDateTime.now());
+            emailOutbox.enqueue(mail, subject, body);
+        } catch (AppBaseException | EJBException e) {
+            log.warning("An error occurred while queueing email " + e.getMessage() + " " + LocalDateTime.now());
         }
     }
 }
-
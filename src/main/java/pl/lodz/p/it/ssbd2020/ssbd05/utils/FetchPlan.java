@@ -0,0 +1,83 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.annotations.BatchFetchType;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plan pobierania relacji encji odczytywanych wraz z wynikami zapytania.
+ * Relacje wiele-do-jednego dołączane są złączeniem do zapytania głównego, a kolekcje oraz relacje
+ * jeden-do-jednego po stronie odwrotnej pobierane są jednym dodatkowym zapytaniem z listą identyfikatorów (IN)
+ * dla wszystkich wyników. Liczba zapytań nie zależy dzięki temu od liczby pobranych encji.
+ */
+public class FetchPlan {
+
+    private static final String ALIAS = "e.";
+
+    private final List<String> joinedPaths = new ArrayList<>();
+    private final List<String> batchedPaths = new ArrayList<>();
+
+    /**
+     * Metoda dodająca relację pobieraną złączeniem z zapytaniem głównym.
+     *
+     * @param path Ścieżka relacji, np. client.account.
+     * @return Plan pobierania.
+     */
+    public FetchPlan join(String path) {
+        joinedPaths.add(path);
+        return this;
+    }
+
+    /**
+     * Metoda dodająca relację pobieraną jednym dodatkowym zapytaniem dla wszystkich wyników.
+     *
+     * @param path Ścieżka relacji, np. extra_service.
+     * @return Plan pobierania.
+     */
+    public FetchPlan batch(String path) {
+        batchedPaths.add(path);
+        return this;
+    }
+
+    /**
+     * Metoda ustawiająca plan pobierania w zapytaniu.
+     *
+     * @param query Zapytanie.
+     * @param <Q>   Typ zapytania.
+     * @return Zapytanie z ustawionymi wskazówkami EclipseLink.
+     */
+    public <Q extends Query> Q applyTo(Q query) {
+        for (String path : joinedPaths) {
+            query.setHint(QueryHints.FETCH, ALIAS + path);
+        }
+        for (String path : batchedPaths) {
+            query.setHint(QueryHints.BATCH, ALIAS + path);
+        }
+        if (!batchedPaths.isEmpty()) {
+            query.setHint(QueryHints.BATCH_TYPE, BatchFetchType.IN);
+        }
+        return query;
+    }
+
+    /**
+     * Metoda zwracająca ścieżki relacji pobieranych złączeniem.
+     *
+     * @return Lista ścieżek.
+     */
+    public List<String> getJoinedPaths() {
+        return Collections.unmodifiableList(joinedPaths);
+    }
+
+    /**
+     * Metoda zwracająca ścieżki relacji pobieranych dodatkowym zapytaniem.
+     *
+     * @return Lista ścieżek.
+     */
+    public List<String> getBatchedPaths() {
+        return Collections.unmodifiableList(batchedPaths);
+    }
+}
@@ -1,18 +1,32 @@
 package pl.lodz.p.it.ssbd2020.ssbd05.utils;
 
-import lombok.extern.java.Log;
-
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.logging.Level;
 
 /**
  * Klasa narzędziowa generująca skróty haseł.
+ * Każdy wątek korzysta z własnej instancji MessageDigest i własnego bufora na skrót, dzięki czemu generowanie skrótu
+ * nie wymaga tworzenia obiektów algorytmu ani synchronizacji, a skrót zamieniany jest na postać szesnastkową
+ * na podstawie tablicy znaków.
  */
-@Log
 public class HashGenerator {
 
+    private static final int SHA256_LENGTH = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[SHA256_LENGTH]);
+
     /**
      * Metoda odpowiedzialna za generowanie skrótów haseł z użyciem algorymtu SHA-256.
      *
@@ -20,25 +34,24 @@ public class HashGenerator {
      * @return Skrót hasła.
      */
     public static String sha256(String password) {
-        MessageDigest digest = null;
+        MessageDigest digest = SHA256.get();
+        byte[] hash = BUFFER.get();
+        digest.update(password.getBytes(StandardCharsets.UTF_8));
         try {
-            digest = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            log.log(Level.WARNING, e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessage(null, "error.default");
+            digest.digest(hash, 0, SHA256_LENGTH);
+        } catch (DigestException e) {
+            digest.reset();
+            throw new IllegalStateException(e);
         }
-        byte[] hash = new byte[0];
-        if (digest != null) {
-            hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-        }
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
+        return toHex(hash);
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0x0f];
+            hex[2 * i + 1] = HEX[bytes[i] & 0x0f];
         }
-        return hexString.toString();
+        return new String(hex);
     }
 }
@@ -0,0 +1,64 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klasa narzędziowa generująca 32-znakowe identyfikatory szesnastkowe nadawane encjom przy ich tworzeniu.
+ * Numery rezerwacji i opinii są uporządkowane czasowo i generowane bez blokowania, natomiast tokeny,
+ * które muszą być nieprzewidywalne, generowane są przy użyciu {@link SecureRandom}.
+ */
+public class IdentifierGenerator {
+
+    private static final int SEQUENCE_BITS = 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final AtomicLong lastTimestamp = new AtomicLong();
+    private static final SecureRandom secureRandom = new SecureRandom();
+
+    private IdentifierGenerator() {
+    }
+
+    /**
+     * Metoda generująca numer uporządkowany czasowo. Pierwsze 16 znaków to czas utworzenia w milisekundach
+     * połączony z licznikiem, rosnące dla kolejnych wywołań, a pozostałe 16 znaków jest losowe.
+     *
+     * @return Numer złożony z 32 znaków szesnastkowych.
+     */
+    public static String nextNumber() {
+        long candidate = System.currentTimeMillis() << SEQUENCE_BITS;
+        long timestamp = lastTimestamp.accumulateAndGet(candidate, (last, next) -> Math.max(last + 1, next));
+        return toHex(timestamp, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Metoda generująca nieprzewidywalny token, np. do weryfikacji konta.
+     *
+     * @return Token złożony z 32 znaków szesnastkowych.
+     */
+    public static String randomToken() {
+        return toHex(secureRandom.nextLong(), secureRandom.nextLong());
+    }
+
+    /**
+     * Metoda odczytująca czas utworzenia z numeru wygenerowanego metodą {@link #nextNumber()}.
+     *
+     * @param number Numer.
+     * @return Czas utworzenia w milisekundach od początku epoki.
+     */
+    static long timestampOf(String number) {
+        return Long.parseUnsignedLong(number.substring(0, 16), 16) >>> SEQUENCE_BITS;
+    }
+
+    private static String toHex(long high, long low) {
+        char[] chars = new char[32];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[(int) (high & 0xF)];
+            chars[i + 16] = HEX_DIGITS[(int) (low & 0xF)];
+            high >>>= 4;
+            low >>>= 4;
+        }
+        return new String(chars);
+    }
+}
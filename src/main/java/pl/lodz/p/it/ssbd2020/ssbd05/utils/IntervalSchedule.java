@@ -0,0 +1,102 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Klasa przechowująca przedziały czasowe [początek, koniec) posortowane według daty rozpoczęcia
+ * i identyfikatora, dzięki czemu przedziały o tej samej dacie rozpoczęcia nie zastępują się nawzajem.
+ * Przedziały nie muszą być rozłączne. Sprawdzenie kolizji przegląda wyłącznie przedziały rozpoczynające się
+ * nie wcześniej niż najdłuższy przechowywany przedział przed początkiem sprawdzanego przedziału. Bezpieczna wątkowo.
+ */
+public class IntervalSchedule {
+
+    private static final Comparator<Slot> ORDER = Comparator.comparing((Slot slot) -> slot.start)
+            .thenComparing(slot -> slot.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final NavigableSet<Slot> slots = new TreeSet<>(ORDER);
+    private final Map<Long, Slot> slotById = new HashMap<>();
+    private Duration longest = Duration.ZERO;
+
+    /**
+     * Metoda dodająca lub zastępująca przedział o podanym identyfikatorze.
+     * Przedziały puste (początek nie jest wcześniejszy niż koniec) nie mogą z niczym kolidować, więc nie są przechowywane.
+     *
+     * @param id    Identyfikator przedziału.
+     * @param start Data rozpoczęcia.
+     * @param end   Data zakończenia.
+     */
+    public synchronized void put(Long id, LocalDateTime start, LocalDateTime end) {
+        remove(id);
+        if (start.isBefore(end)) {
+            Slot slot = new Slot(id, start, end);
+            slots.add(slot);
+            slotById.put(id, slot);
+            Duration length = Duration.between(start, end);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+    }
+
+    /**
+     * Metoda usuwająca przedział o podanym identyfikatorze.
+     *
+     * @param id Identyfikator przedziału.
+     */
+    public synchronized void remove(Long id) {
+        Slot slot = slotById.remove(id);
+        if (slot != null) {
+            slots.remove(slot);
+        }
+    }
+
+    /**
+     * Metoda sprawdzająca, czy przedział [start, end) koliduje z którymkolwiek z przechowywanych przedziałów.
+     * Przeglądane są wszystkie przedziały, które rozpoczynają się przed końcem sprawdzanego przedziału i mogą
+     * trwać do jego początku, również gdy przechowywane przedziały kolidują ze sobą.
+     *
+     * @param start      Data rozpoczęcia.
+     * @param end        Data zakończenia.
+     * @param excludedId Identyfikator przedziału pomijanego przy sprawdzaniu (np. edytowanej rezerwacji), może być null.
+     * @return Wartość logiczna.
+     */
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludedId) {
+        LocalDateTime earliestStart = start.minus(longest);
+        if (!earliestStart.isBefore(end)) {
+            return false;
+        }
+        for (Slot slot : slots.subSet(new Slot(null, earliestStart, earliestStart), false, new Slot(null, end, end), false)) {
+            if (slot.end.isAfter(start) && !slot.id.equals(excludedId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metoda zwracająca liczbę przechowywanych przedziałów.
+     *
+     * @return Liczba przedziałów.
+     */
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    private static final class Slot {
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Slot(Long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
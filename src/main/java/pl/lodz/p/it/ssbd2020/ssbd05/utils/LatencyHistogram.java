@@ -0,0 +1,111 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram czasów wykonania o przedziałach log-liniowych (jak w HdrHistogram).
+ * Każda potęga dwójki dzielona jest na 16 przedziałów, co daje błąd względny percentyli nie większy niż ok. 6%.
+ * Wartości rejestrowane są w mikrosekundach, bez blokowania. Bezpieczna wątkowo.
+ * Wykorzystywany również do przybliżonych rozkładów innych nieujemnych wartości całkowitych, np. liczby gości.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Metoda rejestrująca pojedynczy pomiar.
+     *
+     * @param micros Czas wykonania w mikrosekundach.
+     */
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Metoda zwracająca liczbę pomiarów.
+     *
+     * @return Liczba pomiarów.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Metoda zwracająca średni czas wykonania.
+     *
+     * @return Średnia w mikrosekundach.
+     */
+    public long getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / n;
+    }
+
+    /**
+     * Metoda zwracająca najdłuższy czas wykonania.
+     *
+     * @return Maksimum w mikrosekundach.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Metoda zwracająca percentyl czasu wykonania, jako górną granicę przedziału, w którym się znajduje.
+     *
+     * @param percentile Percentyl z przedziału (0, 100].
+     * @return Wartość percentyla w mikrosekundach.
+     */
+    public long getPercentile(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        if (msb <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,123 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Komponent ograniczający liczbę prób uwierzytelnienia z jednego adresu IP oraz dla jednego loginu.
+ * Próby przekraczające limit odrzucane są przed pobraniem konta z bazy danych i uwierzytelnieniem w kontenerze.
+ * Limit adresu IP naliczany jest dla adresu bezpośredniego nadawcy żądania, a nagłówek X-Forwarded-For
+ * uwzględniany jest wyłącznie wtedy, gdy nadawcą jest zaufany serwer pośredniczący.
+ * Konfiguracja uwierzytelniania wczytywana jest jednokrotnie przy tworzeniu komponentu.
+ */
+@Log
+@ApplicationScoped
+public class LoginThrottle {
+
+    private static final String PROPERTIES_FILE = "config.login.properties";
+
+    private RateLimiter ipLimiter;
+    private RateLimiter loginLimiter;
+    private Set<String> trustedProxies = Collections.emptySet();
+    @Getter
+    private int blockingAccountAfterFailedAttemptNumber;
+
+    /**
+     * Metoda wczytująca konfigurację limitów prób uwierzytelnienia.
+     */
+    @PostConstruct
+    public void init() {
+        Properties properties = new Properties();
+        try {
+            properties = ResourceBundles.loadProperties(PROPERTIES_FILE);
+        } catch (AppBaseException e) {
+            log.warning("Login configuration could not be loaded, default values will be used");
+        }
+        int maxKeys = Integer.parseInt(properties.getProperty("throttleMaxTrackedKeys", "10000").trim());
+        ipLimiter = new RateLimiter(
+                Integer.parseInt(properties.getProperty("throttleAttemptsPerIp", "20").trim()),
+                Long.parseLong(properties.getProperty("throttleIpPeriodMillis", "60000").trim()),
+                maxKeys);
+        loginLimiter = new RateLimiter(
+                Integer.parseInt(properties.getProperty("throttleAttemptsPerLogin", "10").trim()),
+                Long.parseLong(properties.getProperty("throttleLoginPeriodMillis", "60000").trim()),
+                maxKeys);
+        trustedProxies = Arrays.stream(properties.getProperty("throttleTrustedProxies", "").split(","))
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .collect(Collectors.toSet());
+        blockingAccountAfterFailedAttemptNumber = Integer.parseInt(
+                properties.getProperty("blockingAccountAfterFailedAttemptNumber", "3").trim());
+    }
+
+    /**
+     * Metoda sprawdzająca, czy próba uwierzytelnienia mieści się w limitach dla adresu IP i loginu.
+     * Próba odrzucona ze względu na limit adresu IP nie jest wliczana do limitu loginu.
+     *
+     * @param remoteAddr   adres IP bezpośredniego nadawcy żądania
+     * @param forwardedFor wartość nagłówka X-Forwarded-For lub null
+     * @param login        login
+     * @return Wartość logiczna.
+     */
+    public boolean tryAcquire(String remoteAddr, String forwardedFor, String login) {
+        return ipLimiter.tryAcquire(clientAddress(remoteAddr, forwardedFor, trustedProxies))
+                && loginLimiter.tryAcquire(login == null ? "" : login);
+    }
+
+    /**
+     * Metoda wyznaczająca adres klienta, dla którego naliczany jest limit. Nagłówek X-Forwarded-For przeglądany jest
+     * od końca tylko wtedy, gdy bezpośredni nadawca jest zaufanym serwerem pośredniczącym, a wynikiem jest pierwszy
+     * adres spoza zaufanych serwerów.
+     *
+     * @param remoteAddr     adres IP bezpośredniego nadawcy żądania
+     * @param forwardedFor   wartość nagłówka X-Forwarded-For lub null
+     * @param trustedProxies adresy zaufanych serwerów pośredniczących
+     * @return adres IP klienta
+     */
+    static String clientAddress(String remoteAddr, String forwardedFor, Set<String> trustedProxies) {
+        if (forwardedFor == null || !trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String address = remoteAddr;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0 && trustedProxies.contains(address); i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            address = hop;
+        }
+        return address;
+    }
+
+    /**
+     * Metoda zwracająca statystyki ograniczania prób uwierzytelnienia.
+     *
+     * @return Mapa zawierająca liczbę dopuszczonych i odrzuconych prób, śledzonych oraz usuniętych kluczy
+     * dla adresów IP i loginów.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new TreeMap<>();
+        putStatistics(statistics, "ip", ipLimiter);
+        putStatistics(statistics, "login", loginLimiter);
+        return statistics;
+    }
+
+    private static void putStatistics(Map<String, Long> statistics, String prefix, RateLimiter limiter) {
+        statistics.put(prefix + ".allowed", limiter.getAllowedCount());
+        statistics.put(prefix + ".rejected", limiter.getRejectedCount());
+        statistics.put(prefix + ".tracked", (long) limiter.size());
+        statistics.put(prefix + ".evicted", limiter.getEvictedCount());
+    }
+}
@@ -0,0 +1,93 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Niezmienny indeks n-gramów (trigramów) tekstów przypisanych do kluczy, służący do wyszukiwania podciągów
+ * bez przeglądania wszystkich tekstów. Dla zapytania o długości co najmniej {@link #N} zwracane są klucze,
+ * których teksty zawierają wszystkie trigramy zapytania - zbiór ten zawiera wszystkie pasujące klucze,
+ * ale może zawierać też niepasujące, dlatego wynik musi zostać sprawdzony przez wywołującego.
+ * Wielkość liter nie ma znaczenia.
+ *
+ * @param <K> typ klucza
+ */
+public class NGramIndex<K> {
+
+    /**
+     * Długość n-gramu.
+     */
+    public static final int N = 3;
+
+    private final Map<String, Set<K>> postings = new HashMap<>();
+
+    /**
+     * Konstruktor budujący indeks.
+     *
+     * @param texts teksty przypisane do kluczy
+     */
+    public NGramIndex(Map<K, ? extends Collection<String>> texts) {
+        texts.forEach((key, values) -> {
+            for (String value : values) {
+                for (String gram : grams(normalize(value))) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Metoda sprowadzająca tekst do postaci, w której jest indeksowany i porównywany.
+     *
+     * @param text tekst
+     * @return tekst zapisany małymi literami lub pusty ciąg znaków
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Metoda zwracająca klucze, których teksty mogą zawierać podany ciąg znaków.
+     *
+     * @param query szukany ciąg znaków
+     * @return zbiór kluczy kandydatów lub null, jeśli zapytanie jest krótsze niż {@link #N} znaki
+     * i indeks nie pozwala ograniczyć wyszukiwania
+     */
+    public Set<K> candidates(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < N) {
+            return null;
+        }
+        List<Set<K>> lists = new ArrayList<>();
+        for (String gram : grams(normalized)) {
+            Set<K> keys = postings.get(gram);
+            if (keys == null) {
+                return Collections.emptySet();
+            }
+            lists.add(keys);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<K> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+}
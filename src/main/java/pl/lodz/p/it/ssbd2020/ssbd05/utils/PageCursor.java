@@ -0,0 +1,133 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Kursor stronicowania listy przechowywany przez managera na czas życia widoku.
+ * Jeżeli kolejna żądana strona bezpośrednio następuje po poprzednio pobranej (przy tym samym filtrze i sortowaniu),
+ * pobierana jest zapytaniem keyset, rozpoczynającym się od ostatniego widzianego wiersza. W pozostałych przypadkach
+ * (skok do dowolnej strony, zmiana filtra lub sortowania) wykorzystywane jest stronicowanie przez przesunięcie.
+ */
+public class PageCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String query;
+    private int nextFirst = -1;
+    private Object lastSortValue;
+    private Object lastId;
+
+    /**
+     * Metoda pobierająca stronę listy.
+     *
+     * @param query       Opis zapytania (filtr i sortowanie) odróżniający kolejne listy.
+     * @param first       Indeks pierwszego obiektu strony.
+     * @param sortField   Ścieżka atrybutu sortowania lub null.
+     * @param rangeQuery  Zapytanie stronicujące przez przesunięcie.
+     * @param keysetQuery Zapytanie stronicujące od pozycji kursora.
+     * @param <T>         Typ encji.
+     * @return Lista obiektów strony.
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    public <T> List<T> fetch(String query, int first, String sortField, RangeQuery<T> rangeQuery,
+                             KeysetQuery<T> keysetQuery) throws AppBaseException {
+        boolean continues = first > 0 && first == nextFirst && Objects.equals(query, this.query);
+        List<T> page = continues ? keysetQuery.find(lastSortValue, lastId) : rangeQuery.find();
+        if (page.isEmpty()) {
+            nextFirst = -1;
+        } else {
+            T last = page.get(page.size() - 1);
+            this.query = query;
+            nextFirst = first + page.size();
+            lastSortValue = sortField == null ? null : readProperty(last, sortField);
+            lastId = readProperty(last, "id");
+        }
+        return page;
+    }
+
+    /**
+     * Metoda budująca opis zapytania z jego parametrów.
+     *
+     * @param parameters Parametry zapytania (filtr, sortowanie).
+     * @return Opis zapytania.
+     */
+    public static String describe(Object... parameters) {
+        return Arrays.toString(parameters);
+    }
+
+    /**
+     * Metoda odczytująca wartość atrybutu obiektu za pomocą metod dostępowych.
+     *
+     * @param object        Obiekt.
+     * @param attributePath Ścieżka atrybutu, np. hall.name.
+     * @return Wartość atrybutu lub null.
+     */
+    static Object readProperty(Object object, String attributePath) {
+        Object value = object;
+        for (String attribute : attributePath.split("\\.")) {
+            if (value == null) {
+                return null;
+            }
+            value = invokeGetter(value, attribute);
+        }
+        return value;
+    }
+
+    private static Object invokeGetter(Object object, String attribute) {
+        String suffix = Character.toUpperCase(attribute.charAt(0)) + attribute.substring(1);
+        try {
+            Method getter;
+            try {
+                getter = object.getClass().getMethod("get" + suffix);
+            } catch (NoSuchMethodException e) {
+                getter = object.getClass().getMethod("is" + suffix);
+            }
+            return getter.invoke(object);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Attribute " + attribute + " cannot be read from " + object.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Interfejs zapytania stronicującego przez przesunięcie.
+     *
+     * @param <T> Typ encji.
+     */
+    @FunctionalInterface
+    public interface RangeQuery<T> {
+
+        /**
+         * Pobierz stronę obiektów.
+         *
+         * @return Lista obiektów strony.
+         * @throws AppBaseException podstawowy wyjątek aplikacyjny
+         */
+        List<T> find() throws AppBaseException;
+    }
+
+    /**
+     * Interfejs zapytania stronicującego od pozycji kursora.
+     *
+     * @param <T> Typ encji.
+     */
+    @FunctionalInterface
+    public interface KeysetQuery<T> {
+
+        /**
+         * Pobierz stronę obiektów następujących po kursorze.
+         *
+         * @param lastSortValue Wartość atrybutu sortowania ostatniego obiektu poprzedniej strony.
+         * @param lastId        Identyfikator ostatniego obiektu poprzedniej strony.
+         * @return Lista obiektów strony.
+         * @throws AppBaseException podstawowy wyjątek aplikacyjny
+         */
+        List<T> find(Object lastSortValue, Object lastId) throws AppBaseException;
+    }
+}
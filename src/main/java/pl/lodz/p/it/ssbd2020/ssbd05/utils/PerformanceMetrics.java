@@ -0,0 +1,181 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejestr metryk wydajności aplikacji: histogramów czasu wykonania i liczby błędów metod biznesowych
+ * oraz liczby zatwierdzonych i wycofanych transakcji poszczególnych managerów, a także trafień w pamięć podręczną
+ * drugiego poziomu.
+ */
+public final class PerformanceMetrics {
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodStatistics>> statisticsByTarget =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, MethodStatistics> statisticsByName = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> commitsByManager = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> rollbacksByManager = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> cacheMisses = new ConcurrentHashMap<>();
+
+    private PerformanceMetrics() {
+    }
+
+    /**
+     * Metoda rejestrująca wywołanie metody biznesowej. Statystyki prowadzone są osobno dla każdej klasy komponentu,
+     * dlatego metody dziedziczone i klasy o tej samej nazwie w różnych modułach nie są łączone.
+     *
+     * @param targetClass Klasa komponentu, na rzecz którego wywołano metodę.
+     * @param method      Wywołana metoda.
+     * @param nanos       Czas wykonania w nanosekundach.
+     * @param failed      Czy wywołanie zakończyło się wyjątkiem.
+     */
+    public static void recordInvocation(Class<?> targetClass, Method method, long nanos, boolean failed) {
+        MethodStatistics statistics = statisticsByTarget.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> statisticsByName.computeIfAbsent(
+                        methodName(targetClass, key), name -> new MethodStatistics()));
+        statistics.latency.record(nanos / 1000);
+        if (failed) {
+            statistics.errors.increment();
+        }
+    }
+
+    /**
+     * Metoda zwracająca nazwę, pod którą rejestrowane są statystyki metody: pełną nazwę klasy komponentu
+     * z pominięciem klas pośredniczących generowanych przez kontener oraz nazwę metody.
+     *
+     * @param targetClass Klasa komponentu.
+     * @param method      Wywołana metoda.
+     * @return Nazwa w postaci pakiet.Klasa.metoda.
+     */
+    static String methodName(Class<?> targetClass, Method method) {
+        Class<?> type = targetClass;
+        while (type.getSuperclass() != null && type.getSuperclass() != Object.class && isContainerProxy(type)) {
+            type = type.getSuperclass();
+        }
+        return type.getName() + "." + method.getName();
+    }
+
+    private static boolean isContainerProxy(Class<?> type) {
+        return type.isSynthetic() || type.getName().contains("$$") || type.getSimpleName().startsWith("__EJB31_Generated__");
+    }
+
+    /**
+     * Metoda rejestrująca zakończenie transakcji managera.
+     *
+     * @param manager   Nazwa managera.
+     * @param committed Czy transakcja została zatwierdzona.
+     */
+    public static void recordTransaction(String manager, boolean committed) {
+        (committed ? commitsByManager : rollbacksByManager).computeIfAbsent(manager, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Metoda rejestrująca odczyt z pamięci podręcznej drugiego poziomu.
+     *
+     * @param query Nazwa zapytania lub encji.
+     * @param hit   Czy wynik został odnaleziony w pamięci podręcznej.
+     */
+    public static void recordCacheAccess(String query, boolean hit) {
+        (hit ? cacheHits : cacheMisses).computeIfAbsent(query, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Metoda zwracająca histogram czasu wykonania metody.
+     *
+     * @param name Nazwa metody w postaci pakiet.Klasa.metoda.
+     * @return Histogram lub null, jeśli metoda nie była wywoływana.
+     */
+    public static LatencyHistogram getLatency(String name) {
+        MethodStatistics statistics = statisticsByName.get(name);
+        return statistics == null ? null : statistics.latency;
+    }
+
+    /**
+     * Metoda zwracająca podsumowanie czasów wykonania wszystkich wywoływanych metod.
+     *
+     * @return Mapa nazw metod i opisów: liczba wywołań, błędów, średnia, p50, p90, p99 i maksimum w mikrosekundach.
+     */
+    public static Map<String, String> getMethodSummaries() {
+        Map<String, String> summaries = new TreeMap<>();
+        statisticsByName.forEach((name, statistics) -> {
+            LatencyHistogram latency = statistics.latency;
+            summaries.put(name, "count=" + latency.getCount() + " errors=" + statistics.errors.sum()
+                    + " mean=" + latency.getMean() + "us p50=" + latency.getPercentile(50)
+                    + "us p90=" + latency.getPercentile(90) + "us p99=" + latency.getPercentile(99)
+                    + "us max=" + latency.getMax() + "us");
+        });
+        return summaries;
+    }
+
+    /**
+     * Metoda zwracająca liczbę zatwierdzonych transakcji poszczególnych managerów.
+     *
+     * @return Mapa nazw managerów i liczby transakcji.
+     */
+    public static Map<String, Long> getCommitCounts() {
+        return snapshot(commitsByManager);
+    }
+
+    /**
+     * Metoda zwracająca liczbę wycofanych transakcji poszczególnych managerów.
+     *
+     * @return Mapa nazw managerów i liczby transakcji.
+     */
+    public static Map<String, Long> getRollbackCounts() {
+        return snapshot(rollbacksByManager);
+    }
+
+    /**
+     * Metoda zwracająca podsumowanie trafień w pamięć podręczną drugiego poziomu.
+     *
+     * @return Mapa nazw zapytań i opisów: liczba trafień, chybień i odsetek trafień.
+     */
+    public static Map<String, String> getCacheStatistics() {
+        Map<String, Long> hits = snapshot(cacheHits);
+        Map<String, Long> misses = snapshot(cacheMisses);
+        Map<String, String> statistics = new TreeMap<>();
+        for (String query : union(hits.keySet(), misses.keySet())) {
+            long hitCount = hits.getOrDefault(query, 0L);
+            long missCount = misses.getOrDefault(query, 0L);
+            statistics.put(query, "hits=" + hitCount + " misses=" + missCount
+                    + " hitRatio=" + (hitCount * 100 / (hitCount + missCount)) + "%");
+        }
+        return statistics;
+    }
+
+    /**
+     * Metoda zerująca wszystkie metryki.
+     */
+    public static void reset() {
+        statisticsByTarget.clear();
+        statisticsByName.clear();
+        commitsByManager.clear();
+        rollbacksByManager.clear();
+        cacheHits.clear();
+        cacheMisses.clear();
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> result = new TreeSet<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static Map<String, Long> snapshot(ConcurrentMap<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+
+    private static final class MethodStatistics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,81 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.Map;
+
+/**
+ * Interfejs JMX udostępniający metryki wydajności aplikacji.
+ */
+public interface PerformanceMetricsMXBean {
+
+    /**
+     * Pobierz podsumowanie czasów wykonania metod biznesowych punktów dostępowych, managerów i fasad.
+     *
+     * @return Mapa nazw metod i opisów czasów wykonania.
+     */
+    Map<String, String> getMethodSummaries();
+
+    /**
+     * Pobierz liczbę zatwierdzonych transakcji poszczególnych managerów.
+     *
+     * @return Mapa nazw managerów i liczby transakcji.
+     */
+    Map<String, Long> getCommitCounts();
+
+    /**
+     * Pobierz liczbę wycofanych transakcji poszczególnych managerów.
+     *
+     * @return Mapa nazw managerów i liczby transakcji.
+     */
+    Map<String, Long> getRollbackCounts();
+
+    /**
+     * Pobierz liczbę ponowień transakcji poszczególnych operacji punktów dostępowych.
+     *
+     * @return Mapa nazw operacji i liczby ponowień.
+     */
+    Map<String, Long> getRetryCounts();
+
+    /**
+     * Pobierz liczbę przerwanych operacji punktów dostępowych.
+     *
+     * @return Mapa nazw operacji i liczby przerwań.
+     */
+    Map<String, Long> getAbortCounts();
+
+    /**
+     * Pobierz liczbę trafień i chybień w pamięć podręczną drugiego poziomu poszczególnych zapytań.
+     *
+     * @return Mapa nazw zapytań i opisów trafień.
+     */
+    Map<String, String> getCacheStatistics();
+
+    /**
+     * Pobierz statystyki skrzynki nadawczej wiadomości email.
+     *
+     * @return Mapa zawierająca liczbę wiadomości oczekujących i wysyłanych oraz liczniki wiadomości zapisanych,
+     * wysłanych, ponowionych i odrzuconych.
+     */
+    Map<String, Long> getEmailOutboxStatistics();
+
+    /**
+     * Pobierz statystyki ograniczania prób uwierzytelnienia.
+     *
+     * @return Mapa zawierająca liczbę dopuszczonych i odrzuconych prób uwierzytelnienia oraz śledzonych
+     * i usuniętych adresów IP i loginów.
+     */
+    Map<String, Long> getLoginThrottleStatistics();
+
+    /**
+     * Pobierz percentyl czasu wykonania metody.
+     *
+     * @param method     Nazwa metody w postaci pakiet.Klasa.metoda.
+     * @param percentile Percentyl z przedziału (0, 100].
+     * @return Wartość percentyla w mikrosekundach lub -1, jeśli metoda nie była wywoływana.
+     */
+    long getLatencyPercentile(String method, double percentile);
+
+    /**
+     * Wyzeruj metryki czasów wykonania, transakcji i pamięci podręcznej.
+     */
+    void reset();
+}
@@ -0,0 +1,114 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.extern.java.Log;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Komponent rejestrujący metryki wydajności aplikacji w serwerze JMX na czas działania aplikacji.
+ */
+@Log
+@Startup
+@Singleton
+public class PerformanceMetricsMonitor implements PerformanceMetricsMXBean {
+
+    private static final String OBJECT_NAME = "pl.lodz.p.it.ssbd2020.ssbd05:type=PerformanceMetrics";
+
+    @Inject
+    private TransactionRetryExecutor transactionRetryExecutor;
+
+    @Inject
+    private EmailOutbox emailOutbox;
+
+    @Inject
+    private LoginThrottle loginThrottle;
+
+    /**
+     * Metoda rejestrująca komponent w serwerze JMX.
+     */
+    @PostConstruct
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            log.warning("Performance metrics could not be registered: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda wyrejestrowująca komponent z serwera JMX.
+     */
+    @PreDestroy
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.warning("Performance metrics could not be unregistered: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, String> getMethodSummaries() {
+        return PerformanceMetrics.getMethodSummaries();
+    }
+
+    @Override
+    public Map<String, Long> getCommitCounts() {
+        return PerformanceMetrics.getCommitCounts();
+    }
+
+    @Override
+    public Map<String, Long> getRollbackCounts() {
+        return PerformanceMetrics.getRollbackCounts();
+    }
+
+    @Override
+    public Map<String, Long> getRetryCounts() {
+        return transactionRetryExecutor.getRetryCounters();
+    }
+
+    @Override
+    public Map<String, Long> getAbortCounts() {
+        return transactionRetryExecutor.getAbortCounters();
+    }
+
+    @Override
+    public Map<String, String> getCacheStatistics() {
+        return PerformanceMetrics.getCacheStatistics();
+    }
+
+    @Override
+    public Map<String, Long> getEmailOutboxStatistics() {
+        return emailOutbox.getStatistics();
+    }
+
+    @Override
+    public Map<String, Long> getLoginThrottleStatistics() {
+        return loginThrottle.getStatistics();
+    }
+
+    @Override
+    public long getLatencyPercentile(String method, double percentile) {
+        LatencyHistogram latency = PerformanceMetrics.getLatency(method);
+        return latency == null ? -1 : latency.getPercentile(percentile);
+    }
+
+    @Override
+    public void reset() {
+        PerformanceMetrics.reset();
+    }
+}
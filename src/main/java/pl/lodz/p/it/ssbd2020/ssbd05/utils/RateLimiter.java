@@ -0,0 +1,149 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Klasa ograniczająca liczbę operacji wykonywanych dla danego klucza (np. adresu IP) w przedziale czasowym.
+ * Dla każdego klucza działa kubełek żetonów o pojemności równej limitowi, uzupełniany równomiernie w podanym okresie,
+ * realizowany algorytmem GCRA - stan kubełka to jedna wartość typu AtomicLong (teoretyczny czas nadejścia
+ * kolejnej operacji) zmieniana operacją compare-and-set, dzięki czemu sprawdzenie nie wymaga blokowania.
+ * Liczba śledzonych kluczy jest ograniczona - po jej przekroczeniu usuwane są najpierw klucze, których kubełki
+ * są pełne, a następnie klucze najdawniej używane. Bezpieczna wątkowo.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Konstruktor ogranicznika korzystającego z zegara systemowego.
+     *
+     * @param limit        Liczba operacji dozwolonych dla klucza w okresie.
+     * @param periodMillis Okres w milisekundach.
+     * @param maxKeys      Maksymalna liczba śledzonych kluczy.
+     */
+    public RateLimiter(int limit, long periodMillis, int maxKeys) {
+        this(limit, periodMillis, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int limit, long periodMillis, int maxKeys, LongSupplier nanoClock) {
+        if (limit < 1 || periodMillis < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Limit, period and key count must be positive");
+        }
+        this.intervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(periodMillis) / limit);
+        this.toleranceNanos = intervalNanos * limit;
+        this.maxKeys = maxKeys;
+        this.clock = nanoClock;
+    }
+
+    /**
+     * Metoda sprawdzająca, czy operacja dla klucza mieści się w limicie, i jeśli tak - zużywająca jeden żeton.
+     *
+     * @param key Klucz.
+     * @return Wartość logiczna.
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        boolean acquired = acquire(bucket, now);
+        if (buckets.size() > maxKeys) {
+            evict(now);
+        }
+        return acquired;
+    }
+
+    /**
+     * Metoda zwracająca liczbę śledzonych kluczy.
+     *
+     * @return Liczba kluczy.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Metoda zwracająca liczbę operacji, które zmieściły się w limicie.
+     *
+     * @return Liczba operacji.
+     */
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * Metoda zwracająca liczbę odrzuconych operacji.
+     *
+     * @return Liczba operacji.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Metoda zwracająca liczbę kluczy usuniętych po przekroczeniu maksymalnej liczby kluczy.
+     *
+     * @return Liczba kluczy.
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    private boolean acquire(AtomicLong bucket, long now) {
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.forEach((key, bucket) -> {
+                if (bucket.get() <= now && buckets.remove(key, bucket)) {
+                    evicted.increment();
+                }
+            });
+            int excess = buckets.size() - maxKeys * 9 / 10;
+            if (excess > 0) {
+                List<Map.Entry<String, Long>> active = new ArrayList<>();
+                buckets.forEach((key, bucket) -> active.add(new AbstractMap.SimpleEntry<>(key, bucket.get())));
+                active.sort(Map.Entry.comparingByValue());
+                for (int i = 0; i < excess && i < active.size(); i++) {
+                    if (buckets.remove(active.get(i).getKey()) != null) {
+                        evicted.increment();
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
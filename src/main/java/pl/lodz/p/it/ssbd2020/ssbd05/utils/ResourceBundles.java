@@ -8,6 +8,7 @@ import javax.faces.application.FacesMessage;
 import javax.faces.context.FacesContext;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.ResourceBundle;
 
@@ -28,6 +29,18 @@ public class ResourceBundles {
         return ResourceBundle.getBundle("i18n.messages", FacesContext.getCurrentInstance().getViewRoot().getLocale()).getString(key);
     }
 
+    /**
+     * Metoda zwracająca wartość wpisu z deskryptora dla podanych ustawień regionalnych.
+     * Przeznaczona dla kodu wykonywanego poza żądaniem JSF, np. zadań cyklicznych.
+     *
+     * @param key    Ciąg znaków będący kluczem.
+     * @param locale Ustawienia regionalne.
+     * @return Zinternacjonalizowana wartość wpisu.
+     */
+    public static String getTranslatedText(String key, Locale locale) {
+        return ResourceBundle.getBundle("i18n.messages", locale).getString(key);
+    }
+
     /**
      * Metoda wyświetlająca komunikat błędu w warstwie prezentacji.
      *
@@ -0,0 +1,73 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.extern.java.Log;
+import org.eclipse.persistence.jpa.JpaCache;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Komponent unieważniający wpisy pamięci podręcznej drugiego poziomu po zmianie encji.
+ * Każda jednostka trwałości posiada własną pamięć podręczną, dlatego zmiana zatwierdzona w jednym module
+ * usuwa encję oraz wyniki zapytań dotyczących jej klasy z pamięci podręcznych wszystkich jednostek.
+ */
+@Log
+@ApplicationScoped
+public class SharedCacheInvalidator {
+
+    @PersistenceUnit(unitName = "ssbd05mokPU")
+    private EntityManagerFactory mokEntityManagerFactory;
+
+    @PersistenceUnit(unitName = "ssbd05mosPU")
+    private EntityManagerFactory mosEntityManagerFactory;
+
+    @PersistenceUnit(unitName = "ssbd05morPU")
+    private EntityManagerFactory morEntityManagerFactory;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    /**
+     * Metoda rejestrująca unieważnienie encji po zatwierdzeniu bieżącej transakcji.
+     * Po wycofaniu transakcji pamięć podręczna pozostaje bez zmian.
+     *
+     * @param entityClass Klasa encji.
+     * @param id          Identyfikator encji lub null, jeśli unieważnione mają zostać jedynie wyniki zapytań.
+     */
+    public void invalidateAfterCommit(Class<?> entityClass, Object id) {
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    invalidate(entityClass, id);
+                }
+            }
+        });
+    }
+
+    private void invalidate(Class<?> entityClass, Object id) {
+        List<EntityManagerFactory> factories = Arrays.asList(mokEntityManagerFactory, mosEntityManagerFactory, morEntityManagerFactory);
+        for (EntityManagerFactory factory : factories) {
+            try {
+                JpaCache cache = factory.getCache().unwrap(JpaCache.class);
+                if (id != null) {
+                    cache.evict(entityClass, id);
+                }
+                cache.clearQueryCache(entityClass);
+            } catch (RuntimeException e) {
+                log.warning("Shared cache could not be invalidated for " + entityClass.getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Natywne zapytanie wyszukujące identyfikatory obiektów, których kolumny tekstowe zawierają filtr,
+ * uporządkowane według podobieństwa trigramowego (pg_trgm). Każda kolumna sprawdzana jest osobnym zapytaniem
+ * z warunkiem LOWER(kolumna) LIKE '%filtr%', który obsługuje indeks GIN tej kolumny, a wyniki łączone są przez
+ * UNION ALL. Obiekt otrzymuje ocenę najbardziej podobnej kolumny, a liczba wyników jest ograniczona.
+ */
+public class SimilarityQuery {
+
+    private final List<String> branches = new ArrayList<>();
+
+    /**
+     * Metoda dodająca przeszukiwaną kolumnę.
+     *
+     * @param idColumn Kolumna identyfikatora zwracanego obiektu, np. r.id.
+     * @param from     Wyrażenie FROM, z którego pochodzi kolumna, wraz ze złączeniami prowadzącymi do obiektu.
+     * @param column   Przeszukiwana kolumna, np. r.reservation_number.
+     * @return Zapytanie.
+     */
+    public SimilarityQuery column(String idColumn, String from, String column) {
+        int parameter = branches.size() * 2 + 1;
+        branches.add("SELECT " + idColumn + " AS id, similarity(lower(" + column + "), ?" + parameter + ") AS score"
+                + " FROM " + from + " WHERE lower(" + column + ") LIKE ?" + (parameter + 1));
+        return this;
+    }
+
+    /**
+     * Metoda zwracająca treść zapytania.
+     *
+     * @return Zapytanie SQL z parametrami pozycyjnymi: filtrem i wzorcem dla każdej kolumny oraz limitem wyników.
+     */
+    public String toSql() {
+        return "SELECT matches.id FROM (" + String.join(" UNION ALL ", branches) + ") matches"
+                + " GROUP BY matches.id ORDER BY max(matches.score) DESC, matches.id LIMIT ?" + (branches.size() * 2 + 1);
+    }
+
+    /**
+     * Metoda ustawiająca parametry zapytania utworzonego z treści zwróconej przez metodę toSql.
+     *
+     * @param query  Zapytanie natywne.
+     * @param filter Filtr, wielkość liter nie ma znaczenia.
+     * @param limit  Maksymalna liczba wyników.
+     * @return Zapytanie.
+     */
+    public Query bind(Query query, String filter, int limit) {
+        String term = filter.toLowerCase();
+        String pattern = "%" + term + "%";
+        for (int i = 0; i < branches.size(); i++) {
+            query.setParameter(i * 2 + 1, term);
+            query.setParameter(i * 2 + 2, pattern);
+        }
+        return query.setParameter(branches.size() * 2 + 1, limit);
+    }
+}
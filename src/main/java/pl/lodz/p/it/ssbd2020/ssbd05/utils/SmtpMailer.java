@@ -0,0 +1,108 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import com.sun.mail.smtp.SMTPTransport;
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.OutboxEmail;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Klasa wysyłająca wiadomości email przez serwer SMTP.
+ * Sesja poczty tworzona jest raz na podstawie konfiguracji, a każda paczka wiadomości wysyłana jest
+ * jednym połączeniem z serwerem, bez ponownego uwierzytelniania i negocjacji TLS dla każdej wiadomości.
+ */
+@Log
+public class SmtpMailer {
+
+    private final Properties emailProperties;
+    private final Session session;
+
+    /**
+     * Konstruktor klasy SmtpMailer.
+     *
+     * @param emailProperties Konfiguracja poczty (host, port, username, password, code oraz opcjonalnie auth i starttls).
+     */
+    public SmtpMailer(Properties emailProperties) {
+        this.emailProperties = emailProperties;
+        Properties sessionProperties = new Properties();
+        sessionProperties.put("mail.smtp.host", emailProperties.getProperty("host"));
+        sessionProperties.put("mail.smtp.port", emailProperties.getProperty("port"));
+        sessionProperties.put("mail.smtp.auth", emailProperties.getProperty("auth", "true"));
+        sessionProperties.put("mail.smtp.starttls.enable", emailProperties.getProperty("starttls", "true"));
+        sessionProperties.put("mail.smtp.ssl.trust", emailProperties.getProperty("host"));
+        sessionProperties.put("mail.smtp.connectiontimeout", emailProperties.getProperty("timeout", "10000"));
+        sessionProperties.put("mail.smtp.timeout", emailProperties.getProperty("timeout", "10000"));
+        session = Session.getInstance(sessionProperties);
+    }
+
+    /**
+     * Metoda wysyłająca paczkę wiadomości jednym połączeniem z serwerem SMTP.
+     * Błąd pojedynczej wiadomości nie przerywa wysyłania pozostałych, o ile połączenie nie zostało zerwane.
+     *
+     * @param messages Wiadomości do wysłania.
+     * @return Wiadomości wysłane poprawnie.
+     */
+    public List<OutboxEmail> send(List<OutboxEmail> messages) {
+        List<OutboxEmail> sent = new ArrayList<>();
+        if (messages.isEmpty()) {
+            return sent;
+        }
+        int expectedCode = Integer.parseInt(emailProperties.getProperty("code", "250"));
+        try (Transport transport = session.getTransport("smtp")) {
+            transport.connect(emailProperties.getProperty("host"), Integer.parseInt(emailProperties.getProperty("port")),
+                    emailProperties.getProperty("username"), emailProperties.getProperty("password"));
+            for (OutboxEmail message : messages) {
+                if (!transport.isConnected()) {
+                    break;
+                }
+                try {
+                    Message mimeMessage = createMessage(message);
+                    transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                    if (lastReturnCode(transport) == expectedCode) {
+                        sent.add(message);
+                    } else {
+                        log.warning("An error occurred while sending email " + message.getId());
+                    }
+                } catch (MessagingException e) {
+                    log.warning("An error occurred while sending email " + message.getId() + " " + e.getMessage());
+                }
+            }
+        } catch (MessagingException e) {
+            log.warning("An error occurred while connecting to the mail server " + e.getMessage());
+        }
+        return sent;
+    }
+
+    private Message createMessage(OutboxEmail message) throws MessagingException {
+        MimeBodyPart mimeBodyPart = new MimeBodyPart();
+        mimeBodyPart.setText(message.getBody(), "UTF-8", "html");
+        MimeMultipart mimeMultipart = new MimeMultipart();
+        mimeMultipart.addBodyPart(mimeBodyPart);
+
+        Message mimeMessage = new MimeMessage(session);
+        mimeMessage.setFrom(new InternetAddress(emailProperties.getProperty("username")));
+        mimeMessage.setContent(mimeMultipart);
+        mimeMessage.setRecipients(Message.RecipientType.TO, InternetAddress.parse(message.getRecipient(), false));
+        mimeMessage.setSubject(message.getSubject());
+        mimeMessage.setSentDate(new Date());
+        return mimeMessage;
+    }
+
+    private static int lastReturnCode(Transport transport) {
+        if (transport instanceof SMTPTransport) {
+            return ((SMTPTransport) transport).getLastReturnCode();
+        }
+        return -1;
+    }
+}
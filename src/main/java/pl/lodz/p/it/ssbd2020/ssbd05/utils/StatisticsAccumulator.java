@@ -0,0 +1,186 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Akumulator statystyk zakończonych rezerwacji: liczby wydarzeń, sumy gości i przychodu oraz ich rozkładów.
+ * Wartości zliczane są w licznikach rozproszonych ({@link LongAdder}), dzięki czemu równoległe zapisy nie rywalizują
+ * o jedną komórkę pamięci. Przyrosty od ostatniego zapisu do bazy danych przechowywane są osobno i odbierane
+ * metodą {@link #drain()}. Przychód przechowywany jest w groszach. Bezpieczny wątkowo.
+ */
+public class StatisticsAccumulator {
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder guests = new LongAdder();
+    private final LongAdder revenue = new LongAdder();
+
+    private final LongAdder pendingEvents = new LongAdder();
+    private final LongAdder pendingGuests = new LongAdder();
+    private final LongAdder pendingRevenue = new LongAdder();
+
+    private final LatencyHistogram guestHistogram = new LatencyHistogram();
+    private final LatencyHistogram revenueHistogram = new LatencyHistogram();
+
+    /**
+     * Metoda rejestrująca zakończoną rezerwację.
+     *
+     * @param guestNumber  Liczba gości.
+     * @param revenueCents Cena rezerwacji w groszach.
+     */
+    public void record(long guestNumber, long revenueCents) {
+        events.increment();
+        guests.add(guestNumber);
+        revenue.add(revenueCents);
+        pendingEvents.increment();
+        pendingGuests.add(guestNumber);
+        pendingRevenue.add(revenueCents);
+        guestHistogram.record(guestNumber);
+        revenueHistogram.record(revenueCents);
+    }
+
+    /**
+     * Metoda rejestrująca rezerwację zapisaną już w bazie danych, np. podczas odbudowy statystyk.
+     * Nie zwiększa przyrostów oczekujących na zapis.
+     *
+     * @param guestNumber  Liczba gości.
+     * @param revenueCents Cena rezerwacji w groszach.
+     */
+    public void load(long guestNumber, long revenueCents) {
+        events.increment();
+        guests.add(guestNumber);
+        revenue.add(revenueCents);
+        guestHistogram.record(guestNumber);
+        revenueHistogram.record(revenueCents);
+    }
+
+    /**
+     * Metoda odbierająca przyrosty zarejestrowane od poprzedniego wywołania. Przyrosty rejestrowane równolegle
+     * z wywołaniem nie są tracone - zostaną odebrane przy kolejnym wywołaniu.
+     *
+     * @return Przyrosty liczby wydarzeń, sumy gości i przychodu.
+     */
+    public Delta drain() {
+        long drainedEvents = pendingEvents.sum();
+        long drainedGuests = pendingGuests.sum();
+        long drainedRevenue = pendingRevenue.sum();
+        pendingEvents.add(-drainedEvents);
+        pendingGuests.add(-drainedGuests);
+        pendingRevenue.add(-drainedRevenue);
+        return new Delta(drainedEvents, drainedGuests, drainedRevenue);
+    }
+
+    /**
+     * Metoda przywracająca przyrosty, których nie udało się zapisać w bazie danych.
+     *
+     * @param delta Przyrosty odebrane metodą {@link #drain()}.
+     */
+    public void restore(Delta delta) {
+        pendingEvents.add(delta.getEvents());
+        pendingGuests.add(delta.getGuests());
+        pendingRevenue.add(delta.getRevenue());
+    }
+
+    /**
+     * Metoda zwracająca łączne wartości liczby wydarzeń, sumy gości i przychodu.
+     *
+     * @return Łączne wartości statystyk.
+     */
+    public Delta totals() {
+        return new Delta(events.sum(), guests.sum(), revenue.sum());
+    }
+
+    /**
+     * Metoda zwracająca migawkę statystyk.
+     *
+     * @param name Nazwa, której dotyczą statystyki, np. nazwa sali.
+     * @return Migawka statystyk.
+     */
+    public Snapshot snapshot(String name) {
+        long count = events.sum();
+        long guestSum = guests.sum();
+        long revenueSum = revenue.sum();
+        return new Snapshot(name, count, guestSum, mean(guestSum, count),
+                guestHistogram.getPercentile(50), guestHistogram.getPercentile(90), guestHistogram.getPercentile(99),
+                revenueSum / 100.0, mean(revenueSum, count) / 100.0,
+                revenueHistogram.getPercentile(50) / 100.0, revenueHistogram.getPercentile(90) / 100.0);
+    }
+
+    private static double mean(long sum, long count) {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Przyrosty statystyk od ostatniego zapisu w bazie danych.
+     */
+    @Getter
+    public static class Delta implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long events;
+        private final long guests;
+        private final long revenue;
+
+        /**
+         * Konstruktor klasy Delta.
+         *
+         * @param events  Przyrost liczby wydarzeń.
+         * @param guests  Przyrost sumy gości.
+         * @param revenue Przyrost przychodu w groszach.
+         */
+        public Delta(long events, long guests, long revenue) {
+            this.events = events;
+            this.guests = guests;
+            this.revenue = revenue;
+        }
+
+        /**
+         * Metoda sprawdzająca, czy wszystkie przyrosty są zerowe.
+         *
+         * @return wartość logiczna
+         */
+        public boolean isEmpty() {
+            return events == 0 && guests == 0 && revenue == 0;
+        }
+    }
+
+    /**
+     * Niezmienna migawka statystyk. Percentyle są przybliżone, z błędem względnym nie większym niż ok. 6%.
+     */
+    @Getter
+    public static class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final long eventCount;
+        private final long guestSum;
+        private final double guestMean;
+        private final long guestMedian;
+        private final long guestPercentile90;
+        private final long guestPercentile99;
+        private final double revenueSum;
+        private final double revenueMean;
+        private final double revenueMedian;
+        private final double revenuePercentile90;
+
+        private Snapshot(String name, long eventCount, long guestSum, double guestMean, long guestMedian,
+                         long guestPercentile90, long guestPercentile99, double revenueSum, double revenueMean,
+                         double revenueMedian, double revenuePercentile90) {
+            this.name = name;
+            this.eventCount = eventCount;
+            this.guestSum = guestSum;
+            this.guestMean = guestMean;
+            this.guestMedian = guestMedian;
+            this.guestPercentile90 = guestPercentile90;
+            this.guestPercentile99 = guestPercentile99;
+            this.revenueSum = revenueSum;
+            this.revenueMean = revenueMean;
+            this.revenueMedian = revenueMedian;
+            this.revenuePercentile90 = revenuePercentile90;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.interceptor.InvocationContext;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Komponent zapamiętujący wyniki wyszukiwania encji w obrębie bieżącej transakcji.
+ * Kolejne wywołanie tej samej metody z tymi samymi parametrami w tej samej transakcji zwraca zapamiętany wynik
+ * bez zapytania do bazy danych. Zapamiętywane są jedynie znalezione encje - są to encje zarządzane przez kontekst
+ * trwałości transakcji, więc ponowne zapytanie zwróciłoby te same obiekty. Zapis dowolnej encji przez fasadę
+ * usuwa wszystkie zapamiętane wyniki transakcji.
+ */
+@ApplicationScoped
+public class TransactionLookupCache {
+
+    private static final Object RESOURCE_KEY = TransactionLookupCache.class;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    /**
+     * Konstruktor bezparametrowy klasy TransactionLookupCache.
+     */
+    public TransactionLookupCache() {
+    }
+
+    TransactionLookupCache(TransactionSynchronizationRegistry transactionSynchronizationRegistry) {
+        this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
+
+    /**
+     * Metoda zwracająca zapamiętany wynik wywołania lub wykonująca wywołanie i zapamiętująca jego wynik.
+     * Poza aktywną transakcją wywołanie jest zawsze wykonywane.
+     *
+     * @param invocationContext Kontekst wywołania metody wyszukującej zwracającej {@link Optional}.
+     * @return Wynik wywołania metody.
+     * @throws Exception wyjątek napotkany przy wywołaniu danej metody.
+     */
+    public Object lookup(InvocationContext invocationContext) throws Exception {
+        Map<List<Object>, Object> results = results(true);
+        if (results == null) {
+            return invocationContext.proceed();
+        }
+        List<Object> key = new ArrayList<>(invocationContext.getParameters().length + 1);
+        key.add(invocationContext.getMethod());
+        key.addAll(Arrays.asList(invocationContext.getParameters()));
+        Object result = results.get(key);
+        if (result == null) {
+            result = invocationContext.proceed();
+            if (result instanceof Optional && ((Optional<?>) result).isPresent()) {
+                results.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Metoda usuwająca wszystkie wyniki zapamiętane w bieżącej transakcji.
+     */
+    public void clear() {
+        Map<List<Object>, Object> results = results(false);
+        if (results != null) {
+            results.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<List<Object>, Object> results(boolean create) {
+        if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return null;
+        }
+        Map<List<Object>, Object> results = (Map<List<Object>, Object>) transactionSynchronizationRegistry.getResource(RESOURCE_KEY);
+        if (results == null && create) {
+            results = new HashMap<>();
+            transactionSynchronizationRegistry.putResource(RESOURCE_KEY, results);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,221 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractManager;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.ExceededTransactionRetriesException;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.EJBTransactionRolledbackException;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Komponent ponawiający transakcje wykonywane przez punkty dostępowe w wywołaniach metod managerów.
+ * Kolejne ponowienia są opóźniane wykładniczo z losowym rozrzutem, liczba ponowień jest ograniczana
+ * osobno dla każdej operacji, a powtarzające się problemy z połączeniem z bazą danych otwierają
+ * wyłącznik awaryjny, który do czasu jego zamknięcia natychmiast odrzuca kolejne wywołania.
+ */
+@Log
+@ApplicationScoped
+public class TransactionRetryExecutor {
+
+    private static final String PROPERTIES_FILE = "config.retry.properties";
+
+    private final ConcurrentMap<String, LongAdder> retryCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> abortCounters = new ConcurrentHashMap<>();
+
+    private Properties properties = new Properties();
+    private long baseDelayMillis;
+    private long maxDelayMillis;
+    private CircuitBreaker circuitBreaker;
+
+    /**
+     * Konstruktor bezparametrowy, konfiguracja wczytywana jest w metodzie init.
+     */
+    public TransactionRetryExecutor() {
+    }
+
+    TransactionRetryExecutor(Properties properties, CircuitBreaker circuitBreaker) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Metoda wczytująca konfigurację opóźnień i wyłącznika awaryjnego.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            properties = ResourceBundles.loadProperties(PROPERTIES_FILE);
+        } catch (AppBaseException e) {
+            log.warning("Retry configuration could not be loaded, default values will be used");
+        }
+        baseDelayMillis = Long.parseLong(properties.getProperty("retryBaseDelayMillis", "50").trim());
+        maxDelayMillis = Long.parseLong(properties.getProperty("retryMaxDelayMillis", "1000").trim());
+        circuitBreaker = new CircuitBreaker(
+                Integer.parseInt(properties.getProperty("circuitBreakerFailureThreshold", "5").trim()),
+                Long.parseLong(properties.getProperty("circuitBreakerOpenMillis", "30000").trim()));
+    }
+
+    /**
+     * Metoda wykonująca operację zwracającą wynik, ponawiana do momentu zatwierdzenia transakcji managera
+     * lub wyczerpania limitu ponowień.
+     *
+     * @param operation nazwa operacji, dla której prowadzone są liczniki i limit ponowień
+     * @param manager   manager, którego ostatnia transakcja decyduje o ponowieniu
+     * @param call      wykonywana operacja
+     * @param <T>       typ wyniku operacji
+     * @return wynik operacji z ostatniego wywołania
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    public <T> T call(String operation, AbstractManager manager, TransactionalCall<T> call) throws AppBaseException {
+        int budget = getRetryBudget(operation);
+        int callCounter = 0;
+        boolean rollback = true;
+        T result = null;
+        do {
+            if (callCounter > 0) {
+                if (!backoff(callCounter)) {
+                    break;
+                }
+                counter(retryCounters, operation).increment();
+                log.info("Transaction with ID " + manager.getTransactionId() + " is being repeated for " + callCounter + " time");
+            }
+            if (!circuitBreaker.allowRequest()) {
+                counter(abortCounters, operation).increment();
+                throw new DatabaseConnectionException();
+            }
+            boolean outcomeRecorded = false;
+            try {
+                result = call.call();
+                rollback = manager.isLastTransactionRollback();
+                circuitBreaker.recordSuccess();
+                outcomeRecorded = true;
+            } catch (EJBTransactionRolledbackException e) {
+                log.warning("EJBTransactionRolledBack");
+                rollback = true;
+                circuitBreaker.recordSuccess();
+                outcomeRecorded = true;
+            } catch (DatabaseConnectionException e) {
+                circuitBreaker.recordFailure();
+                outcomeRecorded = true;
+                throw e;
+            } catch (AppBaseException e) {
+                circuitBreaker.recordSuccess();
+                outcomeRecorded = true;
+                throw e;
+            } finally {
+                if (!outcomeRecorded) {
+                    circuitBreaker.releaseTrial();
+                }
+            }
+            callCounter++;
+        } while (rollback && callCounter <= budget);
+        if (rollback) {
+            counter(abortCounters, operation).increment();
+            throw new ExceededTransactionRetriesException();
+        }
+        return result;
+    }
+
+    /**
+     * Metoda wykonująca operację niezwracającą wyniku, ponawiana do momentu zatwierdzenia transakcji managera
+     * lub wyczerpania limitu ponowień.
+     *
+     * @param operation nazwa operacji, dla której prowadzone są liczniki i limit ponowień
+     * @param manager   manager, którego ostatnia transakcja decyduje o ponowieniu
+     * @param action    wykonywana operacja
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    public void run(String operation, AbstractManager manager, TransactionalAction action) throws AppBaseException {
+        call(operation, manager, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Metoda zwracająca liczbę ponowień transakcji dla poszczególnych operacji.
+     *
+     * @return mapa nazw operacji i liczby ponowień
+     */
+    public Map<String, Long> getRetryCounters() {
+        return snapshot(retryCounters);
+    }
+
+    /**
+     * Metoda zwracająca liczbę operacji przerwanych po wyczerpaniu limitu ponowień lub przez otwarty wyłącznik awaryjny.
+     *
+     * @return mapa nazw operacji i liczby przerwań
+     */
+    public Map<String, Long> getAbortCounters() {
+        return snapshot(abortCounters);
+    }
+
+    /**
+     * Metoda wyliczająca opóźnienie przed kolejnym ponowieniem: połowa opóźnienia wykładniczego ograniczonego
+     * od góry jest stała, a druga połowa losowa.
+     *
+     * @param retry      numer ponowienia, liczony od 1
+     * @param baseDelay  opóźnienie przed pierwszym ponowieniem w milisekundach
+     * @param maxDelay   maksymalne opóźnienie w milisekundach
+     * @param randomness liczba losowa z przedziału [0, 1)
+     * @return opóźnienie w milisekundach
+     */
+    static long backoffDelay(int retry, long baseDelay, long maxDelay, double randomness) {
+        long delay = maxDelay;
+        if (retry - 1 < Long.numberOfLeadingZeros(baseDelay) - 1) {
+            delay = Math.min(maxDelay, baseDelay << (retry - 1));
+        }
+        return delay / 2 + (long) (delay / 2 * randomness);
+    }
+
+    private boolean backoff(int retry) {
+        try {
+            Thread.sleep(backoffDelay(retry, baseDelayMillis, maxDelayMillis, ThreadLocalRandom.current().nextDouble()));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int getRetryBudget(String operation) {
+        String budget = properties.getProperty("retryBudget." + operation);
+        return budget != null ? Integer.parseInt(budget.trim()) : ResourceBundles.getTransactionRepeatLimit();
+    }
+
+    private static LongAdder counter(ConcurrentMap<String, LongAdder> counters, String operation) {
+        return counters.computeIfAbsent(operation, key -> new LongAdder());
+    }
+
+    private static Map<String, Long> snapshot(ConcurrentMap<String, LongAdder> counters) {
+        return counters.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    /**
+     * Operacja transakcyjna zwracająca wynik.
+     *
+     * @param <T> typ wyniku
+     */
+    @FunctionalInterface
+    public interface TransactionalCall<T> {
+        T call() throws AppBaseException;
+    }
+
+    /**
+     * Operacja transakcyjna niezwracająca wyniku.
+     */
+    @FunctionalInterface
+    public interface TransactionalAction {
+        void run() throws AppBaseException;
+    }
+}
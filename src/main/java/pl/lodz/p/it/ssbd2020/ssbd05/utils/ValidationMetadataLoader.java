@@ -0,0 +1,55 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import lombok.extern.java.Log;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.persistence.metamodel.EntityType;
+import javax.validation.Validator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Komponent wczytujący przy starcie aplikacji metadane ograniczeń Bean Validation dla wszystkich encji,
+ * dzięki czemu pierwsze zapisy wykonywane przez fasady nie ponoszą kosztu ich analizy.
+ */
+@Log
+@Startup
+@Singleton
+public class ValidationMetadataLoader {
+
+    @Resource
+    private Validator validator;
+
+    @PersistenceUnit(unitName = "ssbd05mokPU")
+    private EntityManagerFactory mokEntityManagerFactory;
+
+    @PersistenceUnit(unitName = "ssbd05morPU")
+    private EntityManagerFactory morEntityManagerFactory;
+
+    @PersistenceUnit(unitName = "ssbd05mosPU")
+    private EntityManagerFactory mosEntityManagerFactory;
+
+    /**
+     * Metoda wczytująca metadane ograniczeń dla encji zarejestrowanych we wszystkich jednostkach utrwalania.
+     * Encje występujące w kilku jednostkach analizowane są jednokrotnie.
+     */
+    @PostConstruct
+    public void init() {
+        Set<Class<?>> entityClasses = new HashSet<>();
+        for (EntityManagerFactory entityManagerFactory
+                : new EntityManagerFactory[]{mokEntityManagerFactory, morEntityManagerFactory, mosEntityManagerFactory}) {
+            for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+                entityClasses.add(entityType.getJavaType());
+            }
+        }
+        for (Class<?> entityClass : entityClasses) {
+            validator.getConstraintsForClass(entityClass);
+        }
+        log.info("Validation metadata has been loaded for " + entityClasses.size() + " entities");
+    }
+}
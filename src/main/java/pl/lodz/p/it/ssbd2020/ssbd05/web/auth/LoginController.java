@@ -8,6 +8,7 @@ import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.mok.AccountNotFoundException;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.LastLoginEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.EmailSender;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.LoginThrottle;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
 
 import javax.annotation.PostConstruct;
@@ -16,9 +17,13 @@ import javax.faces.context.FacesContext;
 import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.security.enterprise.AuthenticationStatus;
+import javax.security.enterprise.SecurityContext;
+import javax.security.enterprise.authentication.mechanism.http.AuthenticationParameters;
+import javax.security.enterprise.credential.UsernamePasswordCredential;
 import javax.servlet.RequestDispatcher;
-import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -36,7 +41,13 @@ public class LoginController implements Serializable {
     @Inject
     private RoleController roleController;
     @Inject
+    private EmailSender emailSender;
+    @Inject
     private LastLoginController lastLoginController;
+    @Inject
+    private LoginThrottle loginThrottle;
+    @Inject
+    private SecurityContext securityContext;
     @Getter @Setter
     private String username;
     @Getter @Setter
@@ -88,36 +99,38 @@ public class LoginController implements Serializable {
      * Metoda odpowiedzialna za tworzenie nowej sesji użytkownika
      * Jeżeli dodatkowo użytkownik posiada poziom dostępu Administrator,
      * to przy logowaniu wysłana jest wiadomość na jego adres email.
+     * Próby uwierzytelnienia przekraczające limit dla adresu IP lub loginu są odrzucane.
      */
     public void login()  {
         FacesContext context = FacesContext.getCurrentInstance();
         ExternalContext externalContext = context.getExternalContext();
         HttpServletRequest request = (HttpServletRequest) externalContext.getRequest();
+        if (!loginThrottle.tryAcquire(request.getRemoteAddr(), request.getHeader("X-FORWARDED-FOR"), username)) {
+            ResourceBundles.emitErrorMessage(null, "page.login.throttled");
+            return;
+        }
         try {
             this.account = lastLoginEndpointLocal.getAccountByLogin(username);
              if(this.account.isActive() && this.account.isConfirmed()) {
-                 try {
-                     lastLoginController.startConversation(account, lastLoginEndpointLocal.getFailedAttemptNumberFromProperties());
-                     request.login(username, password);
+                 AuthenticationStatus status = securityContext.authenticate(request, (HttpServletResponse) externalContext.getResponse(),
+                         AuthenticationParameters.withParams().newAuthentication(true).credential(new UsernamePasswordCredential(username, password)));
+                 if (status == AuthenticationStatus.SUCCESS) {
                      roleController.setSelectedRole(roleController.getAllUserRoles()[0]);
                      this.emitMessegesAfterLogin();
                      externalContext.redirect(originalUrl);
-                     lastLoginController.updateLastSuccesfullAuthDate();
+                     lastLoginEndpointLocal.recordSuccessfulAuthentication(lastLoginController.getIP());
                      logAuthentication();
-                 } catch (ServletException e) {
-                     log.severe(e.getMessage() + ", " + LocalDateTime.now());
+                 } else {
+                     log.severe("Authentication of " + username + " failed with status " + status + ", " + LocalDateTime.now());
                      ResourceBundles.emitErrorMessage(null,"page.login.incorrectcredentials");
-                     lastLoginController.updateLastFailedAuthDate();
-                     lastLoginController.checkFailedAuthCounter();
+                     if (lastLoginEndpointLocal.recordFailedAuthentication(lastLoginController.getIP(), true)) {
+                         ResourceBundles.emitErrorMessageWithFlash(null, "page.login.account.lock");
+                     }
                  }
                  Properties properties = ResourceBundles.loadProperties("config.user_roles.properties");
                  if(account.getAccessLevelCollection().contains( properties.getProperty("roleAdmin"))) {
-                     EmailSender emailSender;
-                     emailSender = new EmailSender();
                      emailSender.sendMailToAdmin(account.getEmail(), LocalDateTime.now(), lastLoginController.getIP());
                  }
-                 lastLoginController.updateLastAuthIP();
-                 this.lastLoginEndpointLocal.edit(lastLoginController.endConversation());
             }  else if(!this.account.isActive() || !this.account.isConfirmed()) {
                  updateAuthFailureInfo();
                  ResourceBundles.emitErrorMessageWithDetails(null,"page.login.account.notconfirmed.or.notactive", "page.login.contactadmin");
@@ -136,10 +149,7 @@ public class LoginController implements Serializable {
 
     private void updateAuthFailureInfo() {
         try {
-            lastLoginController.startConversation(account, lastLoginEndpointLocal.getFailedAttemptNumberFromProperties());
-            lastLoginController.updateLastFailedAuthDate();
-            lastLoginController.updateLastAuthIP();
-            this.lastLoginEndpointLocal.edit(lastLoginController.endConversation());
+            lastLoginEndpointLocal.recordFailedAuthentication(lastLoginController.getIP(), false);
         } catch (AppBaseException ex) {
             log.severe(ex.getMessage() + ", " + LocalDateTime.now());
             ResourceBundles.emitErrorMessageWithFlash(null, ex.getMessage());
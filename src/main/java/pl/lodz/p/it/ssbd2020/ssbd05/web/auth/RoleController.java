@@ -15,10 +15,11 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -32,8 +33,8 @@ public class RoleController implements Serializable {
     @Getter @Setter
     private String selectedRole = "";
     private Properties userRolesProperties;
-    @Getter @Setter
-    private Collection<String> roleList = new ArrayList<>();
+    private Set<String> userRoles = Collections.emptySet();
+    private String userRolesCaller;
 
     /**
      * Czy użytkownik posiada daną rolę
@@ -87,19 +88,29 @@ public class RoleController implements Serializable {
      * @return Tablica z nazwami ról
      */
     public String[] getAllUserRoles() {
+        return getUserRoles().toArray(new String[0]);
+    }
+
+    /**
+     * Pobiera niezmienny zbiór ról użytkownika. Role wyznaczane są jednokrotnie dla uwierzytelnionego użytkownika
+     * i ponownie tylko wtedy, gdy w sesji uwierzytelni się inny użytkownik.
+     *
+     * @return Zbiór nazw ról
+     */
+    private Set<String> getUserRoles() {
         ExternalContext context = FacesContext.getCurrentInstance().getExternalContext();
-        List<String> roles = new ArrayList<>();
-        if (context.isUserInRole(userRolesProperties.getProperty("roleClient"))) {
-            roles.add(userRolesProperties.getProperty("roleClient"));
-        }
-        if (context.isUserInRole(userRolesProperties.getProperty("roleManager"))) {
-            roles.add(userRolesProperties.getProperty("roleManager"));
-        }
-        if (context.isUserInRole(userRolesProperties.getProperty("roleAdmin"))) {
-            roles.add(userRolesProperties.getProperty("roleAdmin"));
+        String caller = context.getRemoteUser();
+        if (!Objects.equals(caller, userRolesCaller)) {
+            Set<String> roles = new LinkedHashSet<>();
+            for (String role : new String[]{"roleClient", "roleManager", "roleAdmin"}) {
+                if (caller != null && context.isUserInRole(userRolesProperties.getProperty(role))) {
+                    roles.add(userRolesProperties.getProperty(role));
+                }
+            }
+            userRoles = Collections.unmodifiableSet(roles);
+            userRolesCaller = caller;
         }
-        this.roleList.addAll(roles);
-        return roles.toArray(new String[0]);
+        return userRoles;
     }
 
     /**
@@ -108,7 +119,7 @@ public class RoleController implements Serializable {
      * @return Wartość logiczna
      */
     public boolean isInClientRole(){
-        return roleList.contains(userRolesProperties.getProperty("roleClient"));
+        return getUserRoles().contains(userRolesProperties.getProperty("roleClient"));
     }
 
     /**
@@ -117,7 +128,7 @@ public class RoleController implements Serializable {
      * @return Wartość logiczna
      */
     public boolean isInManagerRole(){
-        return roleList.contains(userRolesProperties.getProperty("roleManager"));
+        return getUserRoles().contains(userRolesProperties.getProperty("roleManager"));
     }
 
     /**
@@ -126,7 +137,7 @@ public class RoleController implements Serializable {
      * @return Wartość logiczna
      */
     public boolean isInAdminRole(){
-        return roleList.contains(userRolesProperties.getProperty("roleAdmin"));
+        return getUserRoles().contains(userRolesProperties.getProperty("roleAdmin"));
     }
 
     /**
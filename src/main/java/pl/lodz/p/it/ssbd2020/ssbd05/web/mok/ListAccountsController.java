@@ -3,10 +3,11 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mok;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.java.Log;
+import org.primefaces.component.datatable.DataTable;
+import org.primefaces.model.LazyDataModel;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.mok.endpoints.interfaces.ListAccountsEndpointLocal;
-import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.web.utils.PagedDataModel;
 
 import javax.annotation.PostConstruct;
 import javax.faces.context.FacesContext;
@@ -14,7 +15,6 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
-import java.util.List;
 
 /**
  * Kontroler odpowiedzialny za wyświetlenie wszystkich kont w systemie dla poziomu dostępu Administrator
@@ -28,35 +28,29 @@ public class ListAccountsController implements Serializable {
     private ListAccountsEndpointLocal listAccountsEndpointLocal;
 
     @Getter
-    @Setter
-    private List<AccountDTO> accounts;
+    private LazyDataModel<AccountDTO> accounts;
 
     @Getter
     @Setter
     private String accountFilter;
 
     /**
-     * Metoda wykonywana po stworzeniu instancji ListAccountController. Pobiera wszystkie konta z bazy
+     * Metoda wykonywana po stworzeniu instancji ListAccountController. Tworzy model danych tabeli,
+     * który pobiera konta z bazy stronami
      */
     @PostConstruct
     public void init() {
-        try {
-            accounts = (List<AccountDTO>) listAccountsEndpointLocal.getAllAccounts();
-        } catch (AppBaseException e) {
-            log.warning(e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
-        }
+        accounts = new PagedDataModel<>((first, pageSize, sortField, ascending) ->
+                listAccountsEndpointLocal.getAccountsPage(accountFilter, first, pageSize, sortField, ascending));
     }
 
     /**
-     * Metoda służąca do filtrowania po liście kont zgodnie z przekazanym filtrem
+     * Metoda służąca do filtrowania po liście kont zgodnie z przekazanym filtrem. Tabela wraca do pierwszej strony
      */
     public void filterAccounts(){
-        try {
-            accounts = (List<AccountDTO>) listAccountsEndpointLocal.filterAccounts(accountFilter);
-        } catch (AppBaseException e) {
-            log.warning(e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
+        DataTable dataTable = (DataTable) FacesContext.getCurrentInstance().getViewRoot().findComponent(":form1:accountsTable");
+        if (dataTable != null) {
+            dataTable.setFirst(0);
         }
     }
 
@@ -4,7 +4,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mor;
 import lombok.Data;
 import lombok.extern.java.Log;
 import org.primefaces.model.DefaultScheduleEvent;
-import org.primefaces.model.DefaultScheduleModel;
+import org.primefaces.model.LazyScheduleModel;
 import org.primefaces.model.ScheduleEvent;
 import org.primefaces.model.ScheduleModel;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ClientDTO;
@@ -30,7 +30,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Kontroler odpowiedzialny za tworzenie nowej rezerwacji
@@ -47,8 +46,6 @@ public class CreateReservationController implements Serializable {
     private ResourceBundles resourceBundles;
 
 
-    private List<UnavailableDate> unavailableDates;
-
     private List<ExtraServiceDTO> extraServices;
 
     private List<String> eventTypes;
@@ -93,18 +90,10 @@ public class CreateReservationController implements Serializable {
         reservationDTO.setExtraServiceCollection(selectedExtraServices);
         reservationDTO.setHallName(hallDTO.getName());
         reservationDTO.setGuestsNumber(Long.valueOf(numberOfGuests));
-        reservationDTO.setReservationNumber(UUID.randomUUID().toString().replace("-", ""));
         boolean areDatesInvalid = false;
         if (startDate.isAfter(endDate) || endDate.isBefore(startDate)) {
             ResourceBundles.emitErrorMessageWithFlash(null, "page.createreservation.dates.error");
             areDatesInvalid = true;
-        } else {
-            for (ScheduleEvent ev : eventModel.getEvents()) {
-                if (ev.getEndDate().isAfter(startDate) && ev.getStartDate().isBefore(endDate)) {
-                    ResourceBundles.emitErrorMessageWithFlash(null, "error.createreservation.dates.overlap");
-                    areDatesInvalid = true;
-                }
-            }
         }
         if (!areDatesInvalid) {
             try {
@@ -159,28 +148,31 @@ public class CreateReservationController implements Serializable {
             resourceBundles = new ResourceBundles();
             this.hallDTO = createReservationEndpointLocal.getHallByName(selectedHallName);
             this.extraServices = createReservationEndpointLocal.getAllExtraServices();
-            this.unavailableDates = createReservationEndpointLocal.getUnavailableDates(selectedHallName);
             this.eventTypes = (List<String>) hallDTO.getEvent_type();
         } catch (AppBaseException ex) {
             log.severe(ex.getMessage());
         }
 
-        eventModel = new DefaultScheduleModel();
+        eventModel = new LazyScheduleModel() {
+            @Override
+            public void loadEvents(LocalDateTime start, LocalDateTime end) {
+                try {
+                    for (UnavailableDate unavailableDate : createReservationEndpointLocal.getUnavailableDates(selectedHallName, start, end)) {
+                        addEvent(DefaultScheduleEvent.builder().editable(false)
+                                .title(ResourceBundles.getTranslatedText("page.createreservation.title"))
+                                .startDate(unavailableDate.getStartDate())
+                                .endDate(unavailableDate.getEndDate()).overlapAllowed(false)
+                                .build());
+                    }
+                } catch (AppBaseException ex) {
+                    log.severe(ex.getMessage());
+                    ResourceBundles.emitErrorMessage(null, ex.getMessage());
+                }
+            }
+        };
         today = LocalDateTime.now();
         startDate = LocalDateTime.now();
         endDate = LocalDateTime.now();
-
-
-        for (UnavailableDate unavailableDate : unavailableDates) {
-            DefaultScheduleEvent event = DefaultScheduleEvent.builder().editable(false)
-                    .title(ResourceBundles.getTranslatedText("page.createreservation.title"))
-                    .startDate(unavailableDate.getStartDate())
-                    .endDate(unavailableDate.getEndDate()).overlapAllowed(false)
-                    .build();
-            eventModel.addEvent(event);
-        }
-
-
     }
 
     /**
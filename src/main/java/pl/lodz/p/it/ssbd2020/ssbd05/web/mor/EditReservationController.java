@@ -4,7 +4,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mor;
 import lombok.Data;
 import lombok.extern.java.Log;
 import org.primefaces.model.DefaultScheduleEvent;
-import org.primefaces.model.DefaultScheduleModel;
+import org.primefaces.model.LazyScheduleModel;
 import org.primefaces.model.ScheduleEvent;
 import org.primefaces.model.ScheduleModel;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ExtraServiceDTO;
@@ -41,8 +41,6 @@ public class EditReservationController implements Serializable {
     @Inject
     private EditReservationEndpointLocal editReservationEndpointLocal;
 
-    private List<UnavailableDate> unavailableDates;
-
     private ReservationDTO reservationDTO;
 
     private List<String> eventTypes;
@@ -63,6 +61,8 @@ public class EditReservationController implements Serializable {
 
     private LocalDateTime endDate;
 
+    private LocalDateTime originalStartDate;
+
 
     /**
      * Wczytanie danych dotyczących wybranej rezerwacji
@@ -75,7 +75,6 @@ public class EditReservationController implements Serializable {
             extraServices = editReservationEndpointLocal.getAllExtraServices();
             selectedExtraServices = new ArrayList<>(reservationDTO.getExtraServiceCollection());
             eventTypeName = reservationDTO.getEventTypeName();
-            unavailableDates = editReservationEndpointLocal.getUnavailableDates(hallDTO.getName());
             extraServicesNames = new ArrayList<>();
             for (ExtraServiceDTO extraServiceDTO : extraServices) {
                 extraServicesNames.add(extraServiceDTO.getServiceName());
@@ -84,23 +83,46 @@ public class EditReservationController implements Serializable {
         } catch (AppBaseException appBaseException) {
             appBaseException.printStackTrace();
         }
-        eventModel = new DefaultScheduleModel();
         today = LocalDateTime.now();
         startDate = DateFormatter.stringToLocalDateTime(reservationDTO.getStartDate());
         endDate = DateFormatter.stringToLocalDateTime(reservationDTO.getEndDate());
-
-
-        for (UnavailableDate unavailableDate : unavailableDates) {
-                if(!reservationDTO.getStartDate().equals(DateFormatter.formatDate(unavailableDate.getStartDate()))) {
-                    DefaultScheduleEvent event = DefaultScheduleEvent.builder().editable(false)
-                            .title(ResourceBundles.getTranslatedText("page.editreservation.title"))
-                            .startDate(unavailableDate.getStartDate())
-                            .endDate(unavailableDate.getEndDate()).overlapAllowed(false)
-                            .build();
-                    eventModel.addEvent(event);
+        originalStartDate = startDate;
+
+        eventModel = new LazyScheduleModel() {
+            @Override
+            public void loadEvents(LocalDateTime start, LocalDateTime end) {
+                try {
+                    for (UnavailableDate unavailableDate : getOtherUnavailableDates(start, end)) {
+                        addEvent(DefaultScheduleEvent.builder().editable(false)
+                                .title(ResourceBundles.getTranslatedText("page.editreservation.title"))
+                                .startDate(unavailableDate.getStartDate())
+                                .endDate(unavailableDate.getEndDate()).overlapAllowed(false)
+                                .build());
+                    }
+                } catch (AppBaseException ex) {
+                    log.severe(ex.getMessage());
+                    ResourceBundles.emitErrorMessage(null, ex.getMessage());
                 }
-        }
+            }
+        };
+    }
 
+    /**
+     * Metoda pobierająca niedostępne terminy sali w podanym przedziale, z pominięciem edytowanej rezerwacji
+     *
+     * @param from początek przedziału
+     * @param to   koniec przedziału
+     * @return lista niedostępnych terminów
+     * @throws AppBaseException podstawowy wyjątek aplikacyjny
+     */
+    private List<UnavailableDate> getOtherUnavailableDates(LocalDateTime from, LocalDateTime to) throws AppBaseException {
+        List<UnavailableDate> dates = new ArrayList<>();
+        for (UnavailableDate unavailableDate : editReservationEndpointLocal.getUnavailableDates(hallDTO.getName(), from, to)) {
+            if (!unavailableDate.getStartDate().equals(originalStartDate)) {
+                dates.add(unavailableDate);
+            }
+        }
+        return dates;
     }
 
     /**
@@ -116,13 +138,6 @@ public class EditReservationController implements Serializable {
         if (startDate.isAfter(endDate)) {
             ResourceBundles.emitErrorMessageWithFlash(null, "page.editreservation.dates.error");
             areDatesValid = true;
-        } else {
-            for (ScheduleEvent ev : eventModel.getEvents()) {
-                if (ev.getEndDate().isAfter(startDate) && ev.getStartDate().isBefore(endDate)) {
-                    ResourceBundles.emitErrorMessageWithFlash(null, "error.editreservation.dates.overlap");
-                    areDatesValid = true;
-                }
-            }
         }
         if (!areDatesValid) {
             try {
@@ -3,10 +3,12 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.java.Log;
+import org.primefaces.component.datatable.DataTable;
+import org.primefaces.model.LazyDataModel;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListReservationEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.web.utils.PagedDataModel;
 
 import javax.annotation.PostConstruct;
 import javax.faces.context.FacesContext;
@@ -14,7 +16,7 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
-import java.util.List;
+
 /**
  * Kontroler odpowiedzialny za wyświetlanie listy rezerwacji wszystkich użytkowników
  */
@@ -25,8 +27,7 @@ public class ListReservationsController implements Serializable {
     @Inject
     private ListReservationEndpointLocal listReservationEndpointLocal;
     @Getter
-    @Setter
-    private List<ReservationDTO> reservations;
+    private LazyDataModel<ReservationDTO> reservations;
     @Getter
     private ResourceBundles resourceBundles;
     @Getter
@@ -34,29 +35,24 @@ public class ListReservationsController implements Serializable {
     private String reservationFilter;
 
     /**
-     * Metoda odpowiedzialna za wczytanie wszystkich rezerwacji.
+     * Metoda odpowiedzialna za utworzenie modelu danych tabeli rezerwacji.
      * Wykonywana po stworzeniu instancji klasy ListReservationsController.
+     * Rezerwacje pobierane są stronami przy wyświetlaniu tabeli.
      */
     @PostConstruct
     public void init() {
-        try {
-            reservations = listReservationEndpointLocal.getAllReservations();
-            resourceBundles = new ResourceBundles();
-        } catch (AppBaseException e) {
-            log.warning(e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
-        }
+        resourceBundles = new ResourceBundles();
+        reservations = new PagedDataModel<>((first, pageSize, sortField, ascending) ->
+                listReservationEndpointLocal.getReservationsPage(reservationFilter, first, pageSize, sortField, ascending));
     }
 
     /**
-     * Metoda odpowiedzialna za wczytanie przefiltrowanej listy rezerwacji.
+     * Metoda odpowiedzialna za wczytanie przefiltrowanej listy rezerwacji od pierwszej strony.
      */
     public void filterReservations(){
-        try {
-            reservations = listReservationEndpointLocal.filterReservations(reservationFilter);
-        } catch (AppBaseException e) {
-            log.warning(e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
+        DataTable dataTable = (DataTable) FacesContext.getCurrentInstance().getViewRoot().findComponent(":form1:reservationsTable");
+        if (dataTable != null) {
+            dataTable.setFirst(0);
         }
     }
     /**
@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mor;
 
 import lombok.Getter;
 import lombok.extern.java.Log;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReviewDTO;
 import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListReviewsEndpointLocal;
@@ -13,6 +14,7 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,43 +27,43 @@ public class ListReviewsController implements Serializable {
     @Inject
     private ListReviewsEndpointLocal listReviewsEndpoint;
     @Getter
-    private List<ReviewDTO> reviews;
-    @Getter
     private int pages;
     @Getter
     private int currentPage = 1;
     @Getter
     private int reviewsPerPage = 2;
     @Getter
-    private List<ReviewDTO> pageReviews;
+    private List<ReviewDTO> pageReviews = new ArrayList<>();
 
     /**
-     *  Metoda odpowiedzialna za wczytanie wszystkich opinii.
+     *  Metoda odpowiedzialna za wczytanie pierwszej strony opinii.
      *  Wykonywana po stworzeniu obiektu klasy ListReviewsController.
      */
     @PostConstruct
     public void init(){
-        try {
-            reviews = listReviewsEndpoint.getAllReviews();
-            updatePageReviews();
-        } catch (AppBaseException e) {
-            log.warning(e.getClass().toString() + " " + e.getMessage());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
-        }
+        updatePageReviews();
     }
 
     /**
-     * Metoda odpowiedzialna za zaktualizowanie listy rezerwacji do wyświetlenie na aktualnie wybranej stronie.
+     * Metoda odpowiedzialna za pobranie opinii do wyświetlenia na aktualnie wybranej stronie.
+     * Z bazy danych pobierana jest wyłącznie wyświetlana strona wraz z liczbą wszystkich opinii.
      */
     public void updatePageReviews(){
-        pages = reviews.size() / reviewsPerPage;
-        if(reviews.size() % reviewsPerPage > 0){
-            pages++;
+        try {
+            PageDTO<ReviewDTO> page = listReviewsEndpoint.getReviewsPage((currentPage - 1) * reviewsPerPage, reviewsPerPage);
+            pages = page.getTotalCount() / reviewsPerPage;
+            if(page.getTotalCount() % reviewsPerPage > 0){
+                pages++;
+            }
+            if(currentPage > pages && pages > 0){
+                currentPage = pages;
+                page = listReviewsEndpoint.getReviewsPage((currentPage - 1) * reviewsPerPage, reviewsPerPage);
+            }
+            this.pageReviews = page.getContent();
+        } catch (AppBaseException e) {
+            log.warning(e.getClass().toString() + " " + e.getMessage());
+            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
         }
-        final int firstReview = (currentPage - 1) * reviewsPerPage;
-        final int lastReview = Math.min(((currentPage - 1) * reviewsPerPage) + reviewsPerPage, reviews.size());
-
-        this.pageReviews = reviews.subList(firstReview,lastReview);
     }
 
     /**
@@ -129,7 +131,7 @@ public class ListReviewsController implements Serializable {
         if(currentPage > pages){
             currentPage = pages;
         }
-        else if(currentPage < 1){
+        if(currentPage < 1){
             currentPage = 1;
         }
         this.currentPage = currentPage;
@@ -2,10 +2,11 @@ package pl.lodz.p.it.ssbd2020.ssbd05.web.mor;
 
 import lombok.Data;
 import lombok.extern.java.Log;
+import org.primefaces.model.LazyDataModel;
 import pl.lodz.p.it.ssbd2020.ssbd05.dto.mor.ReservationDTO;
-import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
 import pl.lodz.p.it.ssbd2020.ssbd05.mor.endpoints.interfaces.ListUserReservationsEndpointLocal;
 import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+import pl.lodz.p.it.ssbd2020.ssbd05.web.utils.PagedDataModel;
 
 import javax.annotation.PostConstruct;
 import javax.faces.context.FacesContext;
@@ -13,8 +14,6 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
-import java.time.LocalDateTime;
-import java.util.List;
 
 
 /**
@@ -30,22 +29,20 @@ public class ListUsersReservationController implements Serializable {
     @Inject
     private ListUserReservationsEndpointLocal userReservationsEndpointLocal;
 
-    private List<ReservationDTO> usersReservations;
+    private LazyDataModel<ReservationDTO> usersReservations;
 
     private ResourceBundles resourceBundles;
     /**
-     * Metoda odpowiedzialna za wczytanie wszystkich rezerwacji zalogowanego użytkownika.
+     * Metoda odpowiedzialna za utworzenie modelu danych tabeli rezerwacji zalogowanego użytkownika.
      * Wykonywana po stworzeniu instancji klasy ListUsersReservationController.
+     * Rezerwacje pobierane są stronami przy wyświetlaniu tabeli.
      */
     @PostConstruct
     private void init() {
-        try {
-            resourceBundles = new ResourceBundles();
-            usersReservations = userReservationsEndpointLocal.getAllUsersReservations(FacesContext.getCurrentInstance().getExternalContext().getRemoteUser());
-        } catch (AppBaseException e) {
-            log.severe(e.getMessage() + ", " + LocalDateTime.now());
-            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
-        }
+        resourceBundles = new ResourceBundles();
+        String login = FacesContext.getCurrentInstance().getExternalContext().getRemoteUser();
+        usersReservations = new PagedDataModel<>((first, pageSize, sortField, ascending) ->
+                userReservationsEndpointLocal.getUsersReservationsPage(login, first, pageSize, sortField, ascending));
     }
 
     /**
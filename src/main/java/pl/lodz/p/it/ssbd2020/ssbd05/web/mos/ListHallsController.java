@@ -14,7 +14,10 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Kontroler odpowiedzialny za wyświetlenie wszystkich sal dostępnych w systemie
@@ -24,6 +27,8 @@ import java.util.List;
 @ViewScoped
 public class ListHallsController implements Serializable {
 
+    private static final int FILTER_LIMIT = 50;
+
     @Inject
     private ListHallsEndpointLocal listHallsEndpoint;
 
@@ -33,6 +38,20 @@ public class ListHallsController implements Serializable {
     @Getter
     @Setter
     private String hallFilter;
+    @Getter
+    private List<String> eventTypes = new ArrayList<>();
+    @Getter
+    @Setter
+    private String searchEventTypeName;
+    @Getter
+    @Setter
+    private LocalDateTime searchStartDate;
+    @Getter
+    @Setter
+    private LocalDateTime searchEndDate;
+    @Getter
+    @Setter
+    private Integer searchCapacity = 1;
 
     /**
      * Metoda wykonywana po stworzeniu instancji klasy ListHallsController. Pobiera wszystkie sale z bazy
@@ -41,6 +60,10 @@ public class ListHallsController implements Serializable {
     public void init() {
         try {
             halls = listHallsEndpoint.getAllHalls();
+            eventTypes = halls.stream()
+                    .flatMap(hall -> hall.getEvent_type().stream())
+                    .distinct()
+                    .collect(Collectors.toList());
         } catch (AppBaseException e) {
             log.warning(e.getClass().toString() + " " + e.getMessage());
             ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
@@ -59,11 +82,33 @@ public class ListHallsController implements Serializable {
     }
 
     /**
-     * Metoda odpowiedzialna za filtrowanie listy sal zgoodnie z przekazanym ciągiem znaków
+     * Metoda odpowiedzialna za filtrowanie listy sal zgoodnie z przekazanym ciągiem znaków.
+     * Wyświetlanych jest co najwyżej FILTER_LIMIT najlepiej dopasowanych sal.
      */
     public void filterHalls() {
         try {
-            halls = listHallsEndpoint.getFilteredHalls(hallFilter);
+            if (hallFilter == null || hallFilter.trim().isEmpty()) {
+                halls = listHallsEndpoint.getAllHalls();
+            } else {
+                halls = listHallsEndpoint.getFilteredHalls(hallFilter.trim(), FILTER_LIMIT);
+            }
+        } catch (AppBaseException e) {
+            log.warning(e.getClass().toString() + " " + e.getMessage());
+            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
+        }
+    }
+
+    /**
+     * Metoda odpowiedzialna za wyszukanie sal wolnych w podanym terminie, mieszczących podaną liczbę gości
+     * i pozwalających na organizację imprezy wybranego typu
+     */
+    public void searchAvailableHalls() {
+        if (!searchStartDate.isBefore(searchEndDate)) {
+            ResourceBundles.emitErrorMessage(null, "page.createreservation.dates.error");
+            return;
+        }
+        try {
+            halls = listHallsEndpoint.getAvailableHalls(searchStartDate, searchEndDate, searchCapacity, searchEventTypeName);
         } catch (AppBaseException e) {
             log.warning(e.getClass().toString() + " " + e.getMessage());
             ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
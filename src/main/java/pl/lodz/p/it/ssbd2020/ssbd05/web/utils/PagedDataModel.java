@@ -0,0 +1,72 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.web.utils;
+
+import lombok.extern.java.Log;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.PageDTO;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.utils.ResourceBundles;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model danych tabeli PrimeFaces pobierający z punktu dostępowego wyłącznie wyświetlaną stronę listy.
+ * Liczba wierszy tabeli ustawiana jest na podstawie liczby wszystkich obiektów zwróconej wraz ze stroną.
+ *
+ * @param <T> Typ obiektów DTO
+ */
+@Log
+public class PagedDataModel<T> extends LazyDataModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PageLoader<T> pageLoader;
+
+    /**
+     * Konstruktor modelu danych.
+     *
+     * @param pageLoader Metoda pobierająca stronę listy.
+     */
+    public PagedDataModel(PageLoader<T> pageLoader) {
+        this.pageLoader = pageLoader;
+    }
+
+    @Override
+    public List<T> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, FilterMeta> filterBy) {
+        try {
+            PageDTO<T> page = pageLoader.load(first, pageSize, sortField, sortOrder != SortOrder.DESCENDING);
+            setRowCount(page.getTotalCount());
+            return page.getContent();
+        } catch (AppBaseException e) {
+            log.warning(e.getClass().toString() + " " + e.getMessage());
+            ResourceBundles.emitErrorMessageWithFlash(null, e.getMessage());
+            setRowCount(0);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Interfejs metody pobierającej stronę listy z punktu dostępowego.
+     *
+     * @param <T> Typ obiektów DTO
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> extends Serializable {
+
+        /**
+         * Pobierz stronę listy.
+         *
+         * @param first     Indeks pierwszego obiektu strony.
+         * @param pageSize  Rozmiar strony.
+         * @param sortField Nazwa pola, po którym sortowana jest lista, lub null.
+         * @param ascending Kierunek sortowania.
+         * @return Strona listy wraz z liczbą wszystkich obiektów.
+         * @throws AppBaseException podstawowy wyjątek aplikacyjny
+         */
+        PageDTO<T> load(int first, int pageSize, String sortField, boolean ascending) throws AppBaseException;
+    }
+}
@@ -0,0 +1,11 @@
+-- Indeks daty ważności tokenów do resetowania hasła.
+--
+-- Zadanie ForgotPasswordTokenPurger cyklicznie usuwa paczki tokenów, których data ważności minęła (expire_date < teraz).
+-- Indeks pozwala wyznaczać paczki bez przeglądania całej tabeli. Usuwanie i zastępowanie tokenu konta korzysta
+-- z indeksu ograniczenia unikalności kolumny account_id, dlatego nie wymaga dodatkowego indeksu.
+--
+-- Skrypt należy wykonać jednokrotnie jako właściciel schematu. Indeks tworzony jest bez blokowania zapisów
+-- (CONCURRENTLY), dlatego skryptu nie można wykonać wewnątrz transakcji.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS forgot_password_token_expire_date_idx
+    ON ssbd05schema.forgot_password_token (expire_date);
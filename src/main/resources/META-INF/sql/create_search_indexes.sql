@@ -0,0 +1,34 @@
+-- Indeksy trigramowe (pg_trgm, GIN) dla filtrowania list kont i rezerwacji.
+--
+-- Filtry list kont i rezerwacji wykonywane są natywnym zapytaniem, w którym każda przeszukiwana kolumna sprawdzana
+-- jest osobnym zapytaniem z warunkiem LOWER(kolumna) LIKE '%filtr%', a wyniki łączone są przez UNION ALL
+-- i porządkowane według funkcji similarity(). Warunki takie nie są obsługiwane przez indeksy B-drzewa.
+-- Indeksy GIN na wyrażeniach lower(kolumna) z klasą operatorów gin_trgm_ops obsługują je, o ile filtr ma
+-- co najmniej 3 znaki. Każde zapytanie składowe dotyczy jednej kolumny, dlatego korzysta z jej indeksu niezależnie
+-- od tabel, w których znajdują się pozostałe kolumny. Indeksy B-drzewa na kolumnach access_level.account_id
+-- i reservation.client_id obsługują złączenia prowadzące od danych konta do jego rezerwacji.
+-- Sale filtrowane są w katalogu przechowywanym w pamięci aplikacji, dlatego nie wymagają indeksów.
+--
+-- Skrypt należy wykonać jednokrotnie jako właściciel schematu. Utworzenie rozszerzenia pg_trgm wymaga uprawnień
+-- do tworzenia rozszerzeń w bazie danych. Indeksy tworzone są bez blokowania zapisów (CONCURRENTLY), dlatego
+-- skryptu nie można wykonać wewnątrz transakcji.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_personal_data_firstname_trgm_idx
+    ON ssbd05schema.account_personal_data USING gin (lower(firstname) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_personal_data_lastname_trgm_idx
+    ON ssbd05schema.account_personal_data USING gin (lower(lastname) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS account_login_data_login_trgm_idx
+    ON ssbd05schema.account_login_data USING gin (lower(login) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservation_reservation_number_trgm_idx
+    ON ssbd05schema.reservation USING gin (lower(reservation_number) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS access_level_account_id_idx
+    ON ssbd05schema.access_level (account_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS reservation_client_id_idx
+    ON ssbd05schema.reservation (client_id);
@@ -0,0 +1,30 @@
+-- Migracja generowania identyfikatorów z tabeli ssbd05schema.id_generator na sekwencje PostgreSQL.
+--
+-- Encje korzystają z @SequenceGenerator(allocationSize = 100), dlatego każda sekwencja musi mieć krok 100:
+-- EclipseLink po pobraniu wartości v z sekwencji nadaje identyfikatory z przedziału (v - 100, v] bez odwołań do bazy.
+-- Pierwsza pobrana wartość musi więc przekraczać o co najmniej 100 zarówno największy istniejący identyfikator,
+-- jak i ostatnią wartość id_range, tak aby nie powtórzyć identyfikatorów przydzielonych przed migracją.
+--
+-- Skrypt należy wykonać jednokrotnie, przy zatrzymanej aplikacji, przed wdrożeniem nowej wersji i po utworzeniu
+-- wszystkich wymienionych tabel. Użytkownikom źródeł danych jednostek trwałości, które tworzą encje danego typu,
+-- należy nadać uprawnienie USAGE do odpowiednich sekwencji.
+-- Tabela id_generator nie jest usuwana. Przed powrotem do poprzedniej wersji aplikacji należy wykonać skrypt
+-- rollback_id_generator_from_sequences.sql, który przesuwa id_range za identyfikatory przydzielone z sekwencji.
+
+DO $$
+DECLARE
+    entity_table TEXT;
+    last_id      BIGINT;
+    last_range   BIGINT;
+BEGIN
+    FOREACH entity_table IN ARRAY ARRAY['account_login_data', 'access_level', 'password_history', 'forgot_password_token',
+                                        'email_outbox', 'hall', 'event_types', 'address', 'reservation', 'review',
+                                        'extra_service', 'status', 'average_guest_number', 'reservation_statistics']
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS ssbd05schema.%I INCREMENT BY 100 MINVALUE 1', entity_table || '_id_seq');
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM ssbd05schema.%I', entity_table) INTO last_id;
+        SELECT COALESCE(MAX(id_range), 0) INTO last_range FROM ssbd05schema.id_generator WHERE class_name = entity_table;
+        PERFORM setval(format('ssbd05schema.%I', entity_table || '_id_seq'), GREATEST(last_id, last_range) + 100, false);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,31 @@
+-- Wycofanie migracji migrate_id_generator_to_sequences.sql: przywrócenie generowania identyfikatorów z tabeli
+-- ssbd05schema.id_generator przez poprzednią wersję aplikacji.
+--
+-- Sekwencje mogły przydzielić identyfikatory do ostatniej pobranej wartości włącznie, również takie, których
+-- nie użyto jeszcze w tabelach. Dlatego id_range każdej encji jest przesuwane co najmniej do ostatniej wartości
+-- sekwencji oraz do największego istniejącego identyfikatora, tak aby @TableGenerator nie powtórzył identyfikatorów.
+--
+-- Skrypt należy wykonać jednokrotnie, przy zatrzymanej aplikacji, przed wdrożeniem poprzedniej wersji.
+-- Sekwencje nie są usuwane, co pozwala ponownie wykonać migrację.
+
+DO $$
+DECLARE
+    entity_table TEXT;
+    last_id      BIGINT;
+    last_value   BIGINT;
+BEGIN
+    FOREACH entity_table IN ARRAY ARRAY['account_login_data', 'access_level', 'password_history', 'forgot_password_token',
+                                        'email_outbox', 'hall', 'event_types', 'address', 'reservation', 'review',
+                                        'extra_service', 'status', 'average_guest_number', 'reservation_statistics']
+    LOOP
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM ssbd05schema.%I', entity_table) INTO last_id;
+        EXECUTE format('SELECT last_value FROM ssbd05schema.%I', entity_table || '_id_seq') INTO last_value;
+        UPDATE ssbd05schema.id_generator SET id_range = GREATEST(id_range, last_id, last_value)
+        WHERE class_name = entity_table;
+        IF NOT FOUND THEN
+            INSERT INTO ssbd05schema.id_generator (class_name, id_range)
+            VALUES (entity_table, GREATEST(last_id, last_value));
+        END IF;
+    END LOOP;
+END
+$$;
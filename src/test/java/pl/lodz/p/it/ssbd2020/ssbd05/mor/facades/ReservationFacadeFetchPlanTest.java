@@ -0,0 +1,22 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.mor.facades;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ReservationFacadeFetchPlanTest {
+
+    @Test
+    public void DisplayFetchPlanJoinsClientAccountTest() {
+        Assert.assertEquals(Collections.singletonList("client.account"),
+                ReservationFacade.DISPLAY_FETCH_PLAN.getJoinedPaths());
+    }
+
+    @Test
+    public void DisplayFetchPlanBatchesCollectionsTest() {
+        Assert.assertEquals(Arrays.asList("extra_service", "review", "client.account.forgotPasswordToken"),
+                ReservationFacade.DISPLAY_FETCH_PLAN.getBatchedPaths());
+    }
+}
@@ -0,0 +1,55 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+public class AsyncRingBufferHandlerTest {
+
+    @Test
+    public void AsyncRingBufferHandlerDeliversRecordsTest() {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        Handler delegate = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                delivered.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncRingBufferHandler handler = new AsyncRingBufferHandler(16, Executors.defaultThreadFactory(), delegate);
+        for (int i = 0; i < 10; i++) {
+            handler.publish(new LogRecord(Level.INFO, "record " + i));
+        }
+        handler.close();
+        handler.publish(new LogRecord(Level.INFO, "after close"));
+        Assert.assertEquals(10, delivered.size() + handler.getDroppedRecords());
+        Assert.assertEquals("record 9", delivered.get(delivered.size() - 1));
+    }
+
+    @Test
+    public void AsyncRingBufferHandlerStopsWorkerOnCloseTest() throws InterruptedException {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        AsyncRingBufferHandler handler = new AsyncRingBufferHandler(16, runnable -> {
+            Thread thread = new Thread(runnable);
+            threads.add(thread);
+            return thread;
+        });
+        handler.close();
+        threads.get(0).join(1000);
+        Assert.assertEquals(1, threads.size());
+        Assert.assertFalse(threads.get(0).isAlive());
+    }
+}
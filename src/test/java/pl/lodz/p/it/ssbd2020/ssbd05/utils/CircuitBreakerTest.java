@@ -0,0 +1,96 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pl.lodz.p.it.ssbd2020.ssbd05.abstraction.AbstractManager;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.AppBaseException;
+import pl.lodz.p.it.ssbd2020.ssbd05.exceptions.io.database.DatabaseConnectionException;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void CircuitBreakerOpenAndHalfOpenTest() {
+        AtomicLong now = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, now::get);
+        breaker.recordFailure();
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        Assert.assertFalse(breaker.allowRequest());
+        now.set(1000);
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+        Assert.assertFalse(breaker.allowRequest());
+        now.set(2000);
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        Assert.assertFalse(breaker.isOpen());
+        Assert.assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void CircuitBreakerTrialEndedByBusinessExceptionTest() throws AppBaseException {
+        AtomicLong now = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, now::get);
+        Properties properties = new Properties();
+        properties.setProperty("retryBudget.test", "0");
+        TransactionRetryExecutor executor = new TransactionRetryExecutor(properties, breaker);
+        AbstractManager manager = new AbstractManager() {
+        };
+        try {
+            executor.call("test", manager, () -> {
+                throw new DatabaseConnectionException();
+            });
+            Assert.fail();
+        } catch (DatabaseConnectionException e) {
+            Assert.assertTrue(breaker.isOpen());
+        }
+        now.set(1000);
+        try {
+            executor.call("test", manager, () -> {
+                throw new AppBaseException("error.default");
+            });
+            Assert.fail();
+        } catch (DatabaseConnectionException e) {
+            Assert.fail();
+        } catch (AppBaseException e) {
+            Assert.assertEquals("error.default", e.getMessage());
+        }
+        Assert.assertFalse(breaker.isOpen());
+        Assert.assertEquals("ok", executor.call("test", manager, () -> "ok"));
+    }
+
+    @Test
+    public void CircuitBreakerTrialEndedByRuntimeExceptionTest() throws AppBaseException {
+        AtomicLong now = new AtomicLong(0);
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, now::get);
+        Properties properties = new Properties();
+        properties.setProperty("retryBudget.test", "0");
+        TransactionRetryExecutor executor = new TransactionRetryExecutor(properties, breaker);
+        AbstractManager manager = new AbstractManager() {
+        };
+        breaker.recordFailure();
+        now.set(1000);
+        try {
+            executor.call("test", manager, () -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(breaker.isOpen());
+        }
+        Assert.assertEquals("ok", executor.call("test", manager, () -> "ok"));
+        Assert.assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void TransactionRetryBackoffDelayTest() {
+        Assert.assertEquals(25, TransactionRetryExecutor.backoffDelay(1, 50, 1000, 0));
+        Assert.assertEquals(99, TransactionRetryExecutor.backoffDelay(2, 50, 1000, 0.99));
+        Assert.assertEquals(500, TransactionRetryExecutor.backoffDelay(10, 50, 1000, 0));
+        Assert.assertEquals(500, TransactionRetryExecutor.backoffDelay(100, 50, 1000, 0));
+    }
+}
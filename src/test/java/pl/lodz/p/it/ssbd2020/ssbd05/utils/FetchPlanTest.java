@@ -0,0 +1,49 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.eclipse.persistence.annotations.BatchFetchType;
+import org.eclipse.persistence.config.QueryHints;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.persistence.Query;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FetchPlanTest {
+
+    private static Query recordingQuery(List<String> hints) {
+        return (Query) Proxy.newProxyInstance(Query.class.getClassLoader(), new Class<?>[]{Query.class},
+                (proxy, method, args) -> {
+                    if ("setHint".equals(method.getName())) {
+                        hints.add(args[0] + "=" + args[1]);
+                    }
+                    return proxy;
+                });
+    }
+
+    @Test
+    public void FetchPlanSetsJoinAndBatchHintsTest() {
+        List<String> hints = new ArrayList<>();
+        new FetchPlan()
+                .join("client.account")
+                .batch("extra_service")
+                .batch("review")
+                .applyTo(recordingQuery(hints));
+
+        Assert.assertEquals(Arrays.asList(
+                QueryHints.FETCH + "=e.client.account",
+                QueryHints.BATCH + "=e.extra_service",
+                QueryHints.BATCH + "=e.review",
+                QueryHints.BATCH_TYPE + "=" + BatchFetchType.IN), hints);
+    }
+
+    @Test
+    public void FetchPlanWithoutBatchLeavesBatchTypeTest() {
+        List<String> hints = new ArrayList<>();
+        new FetchPlan().join("client.account").applyTo(recordingQuery(hints));
+
+        Assert.assertEquals(1, hints.size());
+    }
+}
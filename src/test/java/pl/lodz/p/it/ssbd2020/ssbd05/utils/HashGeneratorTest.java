@@ -2,6 +2,15 @@ package pl.lodz.p.it.ssbd2020.ssbd05.utils;
 
 import org.junit.Assert;
 import org.junit.Test;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.PreviousPassword;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class HashGeneratorTest {
 
@@ -12,4 +21,48 @@ public class HashGeneratorTest {
         generatedPassword = HashGenerator.sha256(generatedPassword);
         Assert.assertEquals(predictedPassword,generatedPassword);
     }
+
+    @Test
+    public void HashGeneratorEncodesHexTest() {
+        Assert.assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", HashGenerator.sha256(""));
+        Assert.assertEquals("00017f80ff", HashGenerator.toHex(new byte[]{0, 1, 127, -128, -1}));
+        Assert.assertEquals(HashGenerator.sha256("zażółć"), HashGenerator.sha256("zażółć"));
+    }
+
+    @Test
+    public void HashGeneratorConcurrentTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (!"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08".equals(HashGenerator.sha256("test"))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void HashGeneratorPasswordHistoryTest() {
+        for (int historySize : new int[]{1, 10, 100}) {
+            Account account = new Account();
+            for (int i = 0; i < historySize; i++) {
+                PreviousPassword previousPassword = new PreviousPassword();
+                previousPassword.setPassword(HashGenerator.sha256("password" + i));
+                account.getPreviousPasswordCollection().add(previousPassword);
+            }
+            Assert.assertTrue(account.getPreviousPasswordHashes().contains(HashGenerator.sha256("password" + (historySize - 1))));
+            Assert.assertFalse(account.getPreviousPasswordHashes().contains(HashGenerator.sha256("password" + historySize)));
+        }
+    }
 }
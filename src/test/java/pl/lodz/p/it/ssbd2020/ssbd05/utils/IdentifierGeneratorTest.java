@@ -0,0 +1,37 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.Account;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Reservation;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mor.Review;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class IdentifierGeneratorTest {
+
+    @Test
+    public void IdentifierGeneratorCreatesOrderedUniqueNumbersTest() {
+        long before = System.currentTimeMillis();
+        Set<String> numbers = new HashSet<>();
+        String previous = "";
+        for (int i = 0; i < 10_000; i++) {
+            String number = IdentifierGenerator.nextNumber();
+            Assert.assertTrue(number.matches("[0-9a-f]{32}"));
+            Assert.assertTrue(number.substring(0, 16).compareTo(previous) > 0);
+            previous = number.substring(0, 16);
+            numbers.add(number);
+        }
+        Assert.assertEquals(10_000, numbers.size());
+        Assert.assertTrue(IdentifierGenerator.timestampOf(previous + "0000000000000000") >= before);
+        Assert.assertTrue(IdentifierGenerator.randomToken().matches("[0-9a-f]{32}"));
+    }
+
+    @Test
+    public void EntityConstructorsDoNotGenerateNumbersTest() {
+        Assert.assertNull(new Reservation().getReservationNumber());
+        Assert.assertNull(new Review().getReviewNumber());
+        Assert.assertNull(new Account().getVeryficationToken());
+    }
+}
@@ -0,0 +1,67 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+public class IntervalScheduleTest {
+
+    private static LocalDateTime at(int hour) {
+        return LocalDateTime.of(2020, 6, 1, hour, 0);
+    }
+
+    @Test
+    public void IntervalScheduleOverlapTest() {
+        IntervalSchedule schedule = new IntervalSchedule();
+        schedule.put(1L, at(10), at(12));
+        schedule.put(2L, at(14), at(18));
+        Assert.assertTrue(schedule.overlaps(at(11), at(13), null));
+        Assert.assertTrue(schedule.overlaps(at(9), at(20), null));
+        Assert.assertFalse(schedule.overlaps(at(12), at(14), null));
+        Assert.assertFalse(schedule.overlaps(at(8), at(10), null));
+        Assert.assertFalse(schedule.overlaps(at(18), at(22), null));
+    }
+
+    @Test
+    public void IntervalScheduleExcludedAndRemovedTest() {
+        IntervalSchedule schedule = new IntervalSchedule();
+        schedule.put(1L, at(10), at(12));
+        Assert.assertFalse(schedule.overlaps(at(11), at(13), 1L));
+        schedule.put(1L, at(15), at(16));
+        Assert.assertFalse(schedule.overlaps(at(10), at(12), null));
+        Assert.assertTrue(schedule.overlaps(at(15), at(17), null));
+        schedule.remove(1L);
+        Assert.assertFalse(schedule.overlaps(at(15), at(17), null));
+        Assert.assertEquals(0, schedule.size());
+    }
+
+    @Test
+    public void IntervalScheduleEqualStartTest() {
+        IntervalSchedule schedule = new IntervalSchedule();
+        schedule.put(1L, at(10), at(12));
+        schedule.put(2L, at(10), at(11));
+        Assert.assertEquals(2, schedule.size());
+        Assert.assertTrue(schedule.overlaps(at(11), at(13), null));
+        Assert.assertTrue(schedule.overlaps(at(11), at(13), 2L));
+        Assert.assertFalse(schedule.overlaps(at(11), at(13), 1L));
+        schedule.remove(2L);
+        Assert.assertTrue(schedule.overlaps(at(10), at(11), null));
+        schedule.remove(1L);
+        Assert.assertFalse(schedule.overlaps(at(10), at(11), null));
+        Assert.assertEquals(0, schedule.size());
+    }
+
+    @Test
+    public void IntervalScheduleOverlappingIntervalsTest() {
+        IntervalSchedule schedule = new IntervalSchedule();
+        schedule.put(1L, at(8), at(20));
+        schedule.put(2L, at(10), at(11));
+        schedule.put(3L, at(12), at(13));
+        Assert.assertTrue(schedule.overlaps(at(14), at(15), null));
+        Assert.assertTrue(schedule.overlaps(at(11), at(12), null));
+        Assert.assertFalse(schedule.overlaps(at(14), at(15), 1L));
+        Assert.assertFalse(schedule.overlaps(at(20), at(22), null));
+        Assert.assertFalse(schedule.overlaps(at(6), at(8), null));
+    }
+}
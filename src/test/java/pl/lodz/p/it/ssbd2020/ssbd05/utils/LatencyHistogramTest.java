@@ -0,0 +1,30 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void LatencyHistogramBucketBoundsTest() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            Assert.assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+    }
+
+    @Test
+    public void LatencyHistogramPercentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500, histogram.getMean());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500, histogram.getPercentile(50), 500 * 0.07);
+        Assert.assertEquals(990, histogram.getPercentile(99), 990 * 0.07);
+        Assert.assertEquals(1000, histogram.getPercentile(100));
+    }
+}
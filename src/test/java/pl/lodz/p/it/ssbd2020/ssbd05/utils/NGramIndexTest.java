@@ -0,0 +1,59 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class NGramIndexTest {
+
+    private final Map<Long, List<String>> texts = new HashMap<>();
+
+    {
+        texts.put(1L, Arrays.asList("Sala Bankietowa", "Piotrkowska", "Łódź"));
+        texts.put(2L, Arrays.asList("Sala Kominkowa", "Wólczańska", "Łódź"));
+        texts.put(3L, Arrays.asList("Pałac", "Długa", "Warszawa"));
+    }
+
+    @Test
+    public void NGramIndexReturnsEveryMatchingKeyTest() {
+        NGramIndex<Long> index = new NGramIndex<>(texts);
+        for (String query : Arrays.asList("sala", "KOMIN", "łódź", "owa", "pałac", "warsz", "ska")) {
+            Set<Long> candidates = index.candidates(query);
+            Assert.assertTrue(query, candidates.containsAll(matching(query)));
+        }
+    }
+
+    @Test
+    public void NGramIndexNarrowsCandidatesTest() {
+        NGramIndex<Long> index = new NGramIndex<>(texts);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), index.candidates("Sala"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(3L)), index.candidates("warszawa"));
+        Assert.assertTrue(index.candidates("kraków").isEmpty());
+    }
+
+    @Test
+    public void NGramIndexDoesNotNarrowShortQueriesTest() {
+        NGramIndex<Long> index = new NGramIndex<>(texts);
+        Assert.assertNull(index.candidates("sa"));
+        Assert.assertNull(index.candidates(""));
+        Assert.assertNull(index.candidates(null));
+    }
+
+    private Set<Long> matching(String query) {
+        Set<Long> result = new HashSet<>();
+        texts.forEach((key, values) -> {
+            for (String value : values) {
+                if (NGramIndex.normalize(value).contains(NGramIndex.normalize(query))) {
+                    result.add(key);
+                }
+            }
+        });
+        return result;
+    }
+}
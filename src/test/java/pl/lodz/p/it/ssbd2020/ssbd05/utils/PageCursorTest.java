@@ -0,0 +1,66 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pl.lodz.p.it.ssbd2020.ssbd05.dto.mok.AccountDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PageCursorTest {
+
+    public static class Row {
+        private final Long id;
+        private final AccountDTO account;
+
+        Row(Long id, String login) {
+            this.id = id;
+            this.account = new AccountDTO();
+            this.account.setLogin(login);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public AccountDTO getAccount() {
+            return account;
+        }
+    }
+
+    @Test
+    public void PageCursorUsesKeysetForNextPageTest() throws Exception {
+        PageCursor cursor = new PageCursor();
+        List<String> calls = new ArrayList<>();
+        String query = PageCursor.describe("filter", "account.login", true);
+
+        cursor.fetch(query, 0, "account.login",
+                () -> {
+                    calls.add("range 0");
+                    return Arrays.asList(new Row(1L, "a"), new Row(2L, "b"));
+                },
+                (lastSortValue, lastId) -> Collections.emptyList());
+        cursor.fetch(query, 2, "account.login",
+                () -> Collections.emptyList(),
+                (lastSortValue, lastId) -> {
+                    calls.add("keyset " + lastSortValue + " " + lastId);
+                    return Collections.singletonList(new Row(3L, "c"));
+                });
+        cursor.fetch(PageCursor.describe("other", "account.login", true), 3, "account.login",
+                () -> {
+                    calls.add("range 3");
+                    return Collections.emptyList();
+                },
+                (lastSortValue, lastId) -> Collections.emptyList());
+
+        Assert.assertEquals(Arrays.asList("range 0", "keyset b 2", "range 3"), calls);
+    }
+
+    @Test
+    public void PageCursorReadsNestedPropertyTest() {
+        Assert.assertEquals("login", PageCursor.readProperty(new Row(1L, "login"), "account.login"));
+        Assert.assertEquals(false, PageCursor.readProperty(new Row(1L, "login"), "account.active"));
+    }
+}
@@ -0,0 +1,60 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+public class PerformanceMetricsTest {
+
+    static class BaseFacade {
+        public void edit() {
+        }
+    }
+
+    static class First {
+        static class AccountFacade extends BaseFacade {
+        }
+    }
+
+    static class Second {
+        static class AccountFacade extends BaseFacade {
+        }
+
+        static class AccountFacade$Proxy$_$$_WeldSubclass extends AccountFacade {
+        }
+    }
+
+    @Before
+    public void resetMetrics() {
+        PerformanceMetrics.reset();
+    }
+
+    @Test
+    public void PerformanceMetricsSeparatesSameNamedClassesTest() throws NoSuchMethodException {
+        Method edit = BaseFacade.class.getMethod("edit");
+        PerformanceMetrics.recordInvocation(First.AccountFacade.class, edit, 1000, false);
+        PerformanceMetrics.recordInvocation(Second.AccountFacade.class, edit, 2000, false);
+        PerformanceMetrics.recordInvocation(Second.AccountFacade.class, edit, 3000, true);
+
+        LatencyHistogram first = PerformanceMetrics.getLatency(First.AccountFacade.class.getName() + ".edit");
+        LatencyHistogram second = PerformanceMetrics.getLatency(Second.AccountFacade.class.getName() + ".edit");
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        Assert.assertEquals(1, first.getCount());
+        Assert.assertEquals(2, second.getCount());
+        Assert.assertNull(PerformanceMetrics.getLatency(BaseFacade.class.getName() + ".edit"));
+        Assert.assertEquals(2, PerformanceMetrics.getMethodSummaries().size());
+    }
+
+    @Test
+    public void PerformanceMetricsUnwrapsContainerProxyTest() throws NoSuchMethodException {
+        Method edit = BaseFacade.class.getMethod("edit");
+        PerformanceMetrics.recordInvocation(Second.AccountFacade$Proxy$_$$_WeldSubclass.class, edit, 1000, false);
+        PerformanceMetrics.recordInvocation(Second.AccountFacade.class, edit, 1000, false);
+
+        Assert.assertEquals(2, PerformanceMetrics.getLatency(Second.AccountFacade.class.getName() + ".edit").getCount());
+        Assert.assertEquals(1, PerformanceMetrics.getMethodSummaries().size());
+    }
+}
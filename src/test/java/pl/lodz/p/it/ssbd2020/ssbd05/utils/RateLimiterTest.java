@@ -0,0 +1,113 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void RateLimiterAllowsBurstAndRefillTest() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(5, 1000, 100, now::get);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(limiter.tryAcquire("10.0.0.1"));
+        }
+        Assert.assertFalse(limiter.tryAcquire("10.0.0.1"));
+        Assert.assertTrue(limiter.tryAcquire("10.0.0.2"));
+        now.addAndGet(SECOND / 5);
+        Assert.assertTrue(limiter.tryAcquire("10.0.0.1"));
+        Assert.assertFalse(limiter.tryAcquire("10.0.0.1"));
+        now.addAndGet(SECOND);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(limiter.tryAcquire("10.0.0.1"));
+        }
+        Assert.assertFalse(limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    public void RateLimiterSimulatedAttackTest() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(20, 60000, 1000, now::get);
+        int allowed = 0;
+        for (int i = 0; i < 60 * 10000; i++) {
+            now.set(i * (SECOND / 10000));
+            if (limiter.tryAcquire("10.0.0.1")) {
+                allowed++;
+            }
+        }
+        Assert.assertEquals(20 + 20 - 1, allowed);
+        Assert.assertEquals(60 * 10000 - allowed, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void RateLimiterBoundsTrackedKeysTest() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(3, 60000, 1000, now::get);
+        for (int i = 0; i < 10000; i++) {
+            now.addAndGet(SECOND / 10000);
+            Assert.assertTrue(limiter.tryAcquire("10.0." + (i / 256) + "." + (i % 256)));
+            Assert.assertTrue(limiter.size() <= 1000);
+        }
+        Assert.assertTrue(limiter.getEvictedCount() >= 9000);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("10.0.39.15");
+        }
+        Assert.assertFalse(limiter.tryAcquire("10.0.39.15"));
+    }
+
+    @Test
+    public void RateLimiterConcurrentAttemptsTest() throws Exception {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(50, 60000, 100, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 10000; i++) {
+                        if (limiter.tryAcquire("admin")) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int allowed = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            Assert.assertEquals(50, allowed);
+            Assert.assertEquals(8 * 10000 - 50, limiter.getRejectedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void LoginThrottleClientAddressTest() {
+        Set<String> none = Collections.emptySet();
+        Assert.assertEquals("10.0.0.1", LoginThrottle.clientAddress("10.0.0.1", null, none));
+        Assert.assertEquals("10.0.0.1", LoginThrottle.clientAddress("10.0.0.1", "1.2.3.4", none));
+        Set<String> proxies = new HashSet<>(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        Assert.assertEquals("10.0.0.3", LoginThrottle.clientAddress("10.0.0.3", "1.2.3.4", proxies));
+        Assert.assertEquals("1.2.3.4", LoginThrottle.clientAddress("10.0.0.1", "1.2.3.4", proxies));
+        Assert.assertEquals("1.2.3.4", LoginThrottle.clientAddress("10.0.0.1", "5.6.7.8, 1.2.3.4, 10.0.0.2", proxies));
+        Assert.assertEquals("10.0.0.1", LoginThrottle.clientAddress("10.0.0.1", "", proxies));
+    }
+}
@@ -0,0 +1,50 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.persistence.Query;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SimilarityQueryTest {
+
+    private static Query recordingQuery(Map<Integer, Object> parameters) {
+        return (Query) Proxy.newProxyInstance(Query.class.getClassLoader(), new Class<?>[]{Query.class},
+                (proxy, method, args) -> {
+                    if ("setParameter".equals(method.getName()) && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], args[1]);
+                    }
+                    return proxy;
+                });
+    }
+
+    @Test
+    public void SimilarityQueryBuildsUnionOfColumnsTest() {
+        SimilarityQuery query = new SimilarityQuery()
+                .column("r.id", "reservation r", "r.reservation_number")
+                .column("r.id", "account_login_data l JOIN reservation r ON r.client_id = l.id", "l.login");
+        Assert.assertEquals("SELECT matches.id FROM ("
+                + "SELECT r.id AS id, similarity(lower(r.reservation_number), ?1) AS score"
+                + " FROM reservation r WHERE lower(r.reservation_number) LIKE ?2"
+                + " UNION ALL SELECT r.id AS id, similarity(lower(l.login), ?3) AS score"
+                + " FROM account_login_data l JOIN reservation r ON r.client_id = l.id WHERE lower(l.login) LIKE ?4"
+                + ") matches GROUP BY matches.id ORDER BY max(matches.score) DESC, matches.id LIMIT ?5", query.toSql());
+    }
+
+    @Test
+    public void SimilarityQueryBindsParametersTest() {
+        SimilarityQuery query = new SimilarityQuery()
+                .column("p.id", "account_personal_data p", "p.firstname")
+                .column("p.id", "account_personal_data p", "p.lastname");
+        Map<Integer, Object> parameters = new TreeMap<>();
+        query.bind(recordingQuery(parameters), "KowAL", 200);
+        Assert.assertEquals(5, parameters.size());
+        Assert.assertEquals("kowal", parameters.get(1));
+        Assert.assertEquals("%kowal%", parameters.get(2));
+        Assert.assertEquals("kowal", parameters.get(3));
+        Assert.assertEquals("%kowal%", parameters.get(4));
+        Assert.assertEquals(200, parameters.get(5));
+    }
+}
@@ -0,0 +1,130 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import pl.lodz.p.it.ssbd2020.ssbd05.entities.mok.OutboxEmail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SmtpMailerTest {
+
+    private ServerSocket serverSocket;
+    private Thread serverThread;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void startFakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        serverThread = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    serve(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @After
+    public void stopFakeSmtpServer() throws IOException, InterruptedException {
+        serverSocket.close();
+        serverThread.join(1000);
+    }
+
+    private void serve(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        OutputStream out = socket.getOutputStream();
+        reply(out, "220 localhost");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                reply(out, "250 localhost");
+            } else if (command.startsWith("RCPT TO:")) {
+                recipients.add(line.substring(line.indexOf('<') + 1, line.indexOf('>')));
+                reply(out, "250 OK");
+            } else if (command.startsWith("DATA")) {
+                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                while ((line = in.readLine()) != null && !line.equals(".")) {
+                    // treść wiadomości jest pomijana
+                }
+                reply(out, "250 OK");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 Bye");
+                return;
+            } else {
+                reply(out, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private Properties fakeServerProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("host", "localhost");
+        properties.setProperty("port", String.valueOf(serverSocket.getLocalPort()));
+        properties.setProperty("username", "sender@localhost");
+        properties.setProperty("password", "");
+        properties.setProperty("code", "250");
+        properties.setProperty("auth", "false");
+        properties.setProperty("starttls", "false");
+        return properties;
+    }
+
+    @Test
+    public void SmtpMailerSendsBatchOverOneConnectionTest() {
+        List<OutboxEmail> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(new OutboxEmail("user" + i + "@localhost", "subject " + i, "<b>body</b>"));
+        }
+
+        List<OutboxEmail> sent = new SmtpMailer(fakeServerProperties()).send(messages);
+
+        Assert.assertEquals(5, sent.size());
+        Assert.assertEquals(1, connections.get());
+        Assert.assertEquals(Arrays.asList("user0@localhost", "user1@localhost", "user2@localhost",
+                "user3@localhost", "user4@localhost"), recipients);
+    }
+
+    @Test
+    public void SmtpMailerReportsNothingSentWhenServerUnavailableTest() throws IOException {
+        Properties properties = fakeServerProperties();
+        serverSocket.close();
+
+        List<OutboxEmail> sent = new SmtpMailer(properties)
+                .send(Arrays.asList(new OutboxEmail("user@localhost", "subject", "body")));
+
+        Assert.assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void EmailOutboxRetryDelayGrowsUpToLimitTest() {
+        Assert.assertEquals(30, EmailOutbox.retryDelaySeconds(1, 30, 3600));
+        Assert.assertEquals(60, EmailOutbox.retryDelaySeconds(2, 30, 3600));
+        Assert.assertEquals(240, EmailOutbox.retryDelaySeconds(4, 30, 3600));
+        Assert.assertEquals(3600, EmailOutbox.retryDelaySeconds(10, 30, 3600));
+    }
+}
@@ -0,0 +1,69 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatisticsAccumulatorTest {
+
+    @Test
+    public void StatisticsAccumulatorComputesExactMeanTest() {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        accumulator.load(10, 100_00);
+        accumulator.record(15, 250_50);
+
+        StatisticsAccumulator.Snapshot snapshot = accumulator.snapshot("hall");
+
+        Assert.assertEquals("hall", snapshot.getName());
+        Assert.assertEquals(2, snapshot.getEventCount());
+        Assert.assertEquals(25, snapshot.getGuestSum());
+        Assert.assertEquals(12.5, snapshot.getGuestMean(), 0.0001);
+        Assert.assertEquals(350.5, snapshot.getRevenueSum(), 0.0001);
+        Assert.assertEquals(175.25, snapshot.getRevenueMean(), 0.0001);
+        Assert.assertEquals(15, snapshot.getGuestPercentile99());
+    }
+
+    @Test
+    public void StatisticsAccumulatorDrainsOnlyRecordedDeltasTest() {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        accumulator.load(10, 1000);
+        accumulator.record(20, 2000);
+
+        StatisticsAccumulator.Delta delta = accumulator.drain();
+        Assert.assertEquals(1, delta.getEvents());
+        Assert.assertEquals(20, delta.getGuests());
+        Assert.assertEquals(2000, delta.getRevenue());
+        Assert.assertTrue(accumulator.drain().isEmpty());
+
+        accumulator.restore(delta);
+        Assert.assertEquals(20, accumulator.drain().getGuests());
+        Assert.assertEquals(2, accumulator.totals().getEvents());
+    }
+
+    @Test
+    public void StatisticsAccumulatorDoesNotLoseConcurrentDeltasTest() throws InterruptedException {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    accumulator.record(3, 100);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        long drainedGuests = 0;
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            drainedGuests += accumulator.drain().getGuests();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        drainedGuests += accumulator.drain().getGuests();
+
+        Assert.assertEquals(4 * 10_000 * 3, drainedGuests);
+        Assert.assertEquals(4 * 10_000, accumulator.totals().getEvents());
+    }
+}
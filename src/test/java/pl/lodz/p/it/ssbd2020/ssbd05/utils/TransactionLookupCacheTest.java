@@ -0,0 +1,176 @@
+package pl.lodz.p.it.ssbd2020.ssbd05.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.interceptor.InvocationContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class TransactionLookupCacheTest {
+
+    @Test
+    public void TransactionLookupCacheQueriesOncePerLookupTest() throws Exception {
+        TestRegistry registry = new TestRegistry();
+        TransactionLookupCache cache = new TransactionLookupCache(registry);
+        TestFacade facade = new TestFacade();
+
+        Assert.assertEquals(Optional.of("hall:A"), cache.lookup(facade.invocation("findByName", "A")));
+        Assert.assertEquals(Optional.of("hall:A"), cache.lookup(facade.invocation("findByName", "A")));
+        Assert.assertEquals(Optional.of("hall:B"), cache.lookup(facade.invocation("findByName", "B")));
+        Assert.assertEquals(Optional.of("status:A"), cache.lookup(facade.invocation("findByStatusName", "A")));
+        Assert.assertEquals(Optional.of("status:A"), cache.lookup(facade.invocation("findByStatusName", "A")));
+
+        Assert.assertEquals(3, facade.queries);
+    }
+
+    @Test
+    public void TransactionLookupCacheDoesNotRememberMissingEntitiesTest() throws Exception {
+        TestRegistry registry = new TestRegistry();
+        TransactionLookupCache cache = new TransactionLookupCache(registry);
+        TestFacade facade = new TestFacade();
+
+        Assert.assertEquals(Optional.empty(), cache.lookup(facade.invocation("findByName", "missing")));
+        Assert.assertEquals(Optional.empty(), cache.lookup(facade.invocation("findByName", "missing")));
+
+        Assert.assertEquals(2, facade.queries);
+    }
+
+    @Test
+    public void TransactionLookupCacheIsClearedAndScopedToTransactionTest() throws Exception {
+        TestRegistry registry = new TestRegistry();
+        TransactionLookupCache cache = new TransactionLookupCache(registry);
+        TestFacade facade = new TestFacade();
+
+        cache.lookup(facade.invocation("findByName", "A"));
+        cache.clear();
+        cache.lookup(facade.invocation("findByName", "A"));
+        Assert.assertEquals(2, facade.queries);
+
+        registry.resources.clear();
+        cache.lookup(facade.invocation("findByName", "A"));
+        Assert.assertEquals(3, facade.queries);
+
+        registry.status = Status.STATUS_NO_TRANSACTION;
+        cache.lookup(facade.invocation("findByName", "A"));
+        cache.lookup(facade.invocation("findByName", "A"));
+        Assert.assertEquals(5, facade.queries);
+    }
+
+    public static class TestFacade {
+
+        private int queries;
+
+        public Optional<String> findByName(String name) {
+            queries++;
+            return "missing".equals(name) ? Optional.empty() : Optional.of("hall:" + name);
+        }
+
+        public Optional<String> findByStatusName(String name) {
+            queries++;
+            return Optional.of("status:" + name);
+        }
+
+        private InvocationContext invocation(String methodName, String parameter) throws NoSuchMethodException {
+            return new TestInvocationContext(this, TestFacade.class.getMethod(methodName, String.class), parameter);
+        }
+    }
+
+    private static class TestInvocationContext implements InvocationContext {
+
+        private final Object target;
+        private final Method method;
+        private Object[] parameters;
+
+        private TestInvocationContext(Object target, Method method, Object... parameters) {
+            this.target = target;
+            this.method = method;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public Object getTarget() {
+            return target;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public void setParameters(Object[] parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            return method.invoke(target, parameters);
+        }
+    }
+
+    private static class TestRegistry implements TransactionSynchronizationRegistry {
+
+        private final Map<Object, Object> resources = new HashMap<>();
+        private int status = Status.STATUS_ACTIVE;
+
+        @Override
+        public Object getTransactionKey() {
+            return this;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return status;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+}